@@ -0,0 +1,70 @@
+package org.example.colis.config;
+
+import org.example.colis.mapper.AddressNormalizer;
+import org.example.colis.model.Colis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Extracts codePostal / ville for colis written before address normalization existed.
+ * Colis without a recognisable postal code get explicit nulls, so each colis is parsed once.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class AddressZoneMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AddressZoneMigration.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query unparsed = query(where("codePostal").exists(false));
+        unparsed.fields().include("adresseDestination");
+        long migrated = 0;
+        try (Stream<Colis> stream = mongoTemplate.stream(unparsed.cursorBatchSize(BATCH_SIZE), Colis.class)) {
+            Iterator<Colis> colis = stream.iterator();
+            BulkOperations bulk = null;
+            int pending = 0;
+            while (colis.hasNext()) {
+                Colis next = colis.next();
+                AddressNormalizer.Zone zone = AddressNormalizer.normalize(next.getAdresseDestination());
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class);
+                }
+                bulk.updateOne(query(where("_id").is(next.getId())),
+                        new Update().set("codePostal", zone.codePostal()).set("ville", zone.ville()));
+                if (++pending == BATCH_SIZE) {
+                    migrated += bulk.execute().getModifiedCount();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                migrated += bulk.execute().getModifiedCount();
+            }
+        }
+        if (migrated > 0) {
+            log.info("Extracted codePostal / ville for {} colis", migrated);
+        }
+    }
+}
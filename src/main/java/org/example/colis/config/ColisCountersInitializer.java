@@ -0,0 +1,42 @@
+package org.example.colis.config;
+
+import org.example.colis.exception.ConflictException;
+import org.example.colis.model.ColisCounter;
+import org.example.colis.service.ColisCounters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds colis_counters from the colis on the first start (or after the collection was
+ * dropped), otherwise loads them into the in-process mirror.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class ColisCountersInitializer implements ApplicationRunner {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ColisCounters colisCounters;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mongoTemplate.exists(new Query(), ColisCounter.class)) {
+            colisCounters.refresh();
+            return;
+        }
+        try {
+            colisCounters.reconcile();
+        } catch (ConflictException e) {
+            // Another instance is building them; the scheduled refresh picks them up
+            colisCounters.refresh();
+        }
+    }
+}
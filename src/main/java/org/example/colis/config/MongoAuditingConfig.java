@@ -0,0 +1,10 @@
+package org.example.colis.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+
+// Fills @CreatedDate fields on insert
+@Configuration
+@EnableMongoAuditing
+public class MongoAuditingConfig {
+}
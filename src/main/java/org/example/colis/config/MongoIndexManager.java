@@ -0,0 +1,112 @@
+package org.example.colis.config;
+
+import org.example.colis.model.Colis;
+import org.example.colis.model.ColisEvent;
+import org.example.colis.model.ColisRollup;
+import org.example.colis.model.DeliveryWave;
+import org.example.colis.model.RevokedToken;
+import org.example.colis.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on the documents (@Indexed, @CompoundIndex, ...) at startup,
+ * before any other runner touches the collections, and reports drift between the declared
+ * set and what exists in Mongo. Drift is logged and exposed on the health endpoint.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MongoIndexManager implements ApplicationRunner, HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexManager.class);
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Colis.class, User.class, DeliveryWave.class, ColisEvent.class,
+            ColisRollup.class, RevokedToken.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Value("${mongo.indexes.create-missing:true}")
+    private boolean createMissing;
+
+    private volatile List<String> drift = List.of();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        drift = verifyIndexes();
+        drift.forEach(message -> log.warn("Index drift: {}", message));
+    }
+
+    @Override
+    public Health health() {
+        return (drift.isEmpty() ? Health.up() : Health.unknown())
+                .withDetail("drift", drift)
+                .build();
+    }
+
+    public List<String> verifyIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        List<String> problems = new ArrayList<>();
+
+        for (Class<?> type : INDEXED_DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(type);
+            String collection = mongoTemplate.getCollectionName(type);
+            Map<String, IndexInfo> existing = indexOps.getIndexInfo().stream()
+                    .collect(Collectors.toMap(IndexInfo::getName, Function.identity()));
+            Set<String> declared = new HashSet<>();
+
+            for (IndexDefinition definition : resolver.resolveIndexFor(type)) {
+                String name = definition.getIndexOptions().getString("name");
+                declared.add(name);
+                IndexInfo info = existing.get(name);
+
+                if (info == null) {
+                    if (!createMissing) {
+                        problems.add(collection + "." + name + " is missing");
+                        continue;
+                    }
+                    try {
+                        indexOps.ensureIndex(definition);
+                        log.info("Created index {}.{}", collection, name);
+                    } catch (DataAccessException e) {
+                        problems.add(collection + "." + name + " could not be created: " + e.getMessage());
+                    }
+                } else if (definition.getIndexOptions().getBoolean("unique", false) != info.isUnique()) {
+                    problems.add(collection + "." + name + " exists with a different unique option");
+                }
+            }
+
+            existing.keySet().stream()
+                    .filter(name -> !"_id_".equals(name) && !declared.contains(name))
+                    .forEach(name -> problems.add(collection + "." + name + " is not declared on " + type.getSimpleName()));
+        }
+        return problems;
+    }
+}
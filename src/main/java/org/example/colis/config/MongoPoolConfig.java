@@ -0,0 +1,34 @@
+package org.example.colis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo connection pool sized for the server, not for the number of request threads.
+ * With virtual threads thousands of requests can reach the driver at once; they queue for
+ * a connection (the driver's wait queue uses locks, so waiting does not pin a carrier) and
+ * give up after max-wait instead of the driver's default of two minutes.
+ */
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${mongo.pool.max-size:100}") int maxSize,
+            @Value("${mongo.pool.min-size:10}") int minSize,
+            @Value("${mongo.pool.max-connecting:4}") int maxConnecting,
+            @Value("${mongo.pool.max-wait:PT2S}") Duration maxWait,
+            @Value("${mongo.pool.max-idle:PT5M}") Duration maxIdle) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(maxIdle.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.colis.config;
+
+import org.example.colis.enums.Role;
+import org.example.colis.model.User;
+import org.example.colis.service.TransporteurChargeLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Computes chargePoids / chargeColis once for transporteurs stored before the counters existed;
+ * from then on TransporteurChargeLedger keeps them up to date.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class TransporteurChargeInitializer implements ApplicationRunner {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query uncounted = query(where("role").is(Role.TRANSPORTEUR).and("chargeColis").exists(false));
+        uncounted.fields().include("_id");
+        List<String> ids = mongoTemplate.find(uncounted, User.class).stream().map(User::getId).toList();
+        if (!ids.isEmpty()) {
+            chargeLedger.recompute(ids);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.colis.config;
+
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Sets version 0 on documents written before @Version existed. With a null version,
+ * save() treats an entity as new and inserts it, which fails on the existing _id.
+ * Runs right after the indexes, before any runner that saves documents.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class VersionFieldMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionFieldMigration.class);
+
+    private static final List<Class<?>> VERSIONED_DOCUMENTS = List.of(Colis.class, User.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (Class<?> type : VERSIONED_DOCUMENTS) {
+            long modified = mongoTemplate.updateMulti(
+                    query(where("version").exists(false)), Update.update("version", 0L), type)
+                    .getModifiedCount();
+            if (modified > 0) {
+                log.info("Initialised version on {} {} documents", modified, type.getSimpleName());
+            }
+        }
+    }
+}
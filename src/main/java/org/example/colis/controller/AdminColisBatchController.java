@@ -0,0 +1,59 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.colis.dto.BatchAssignRequest;
+import org.example.colis.dto.BatchIdsRequest;
+import org.example.colis.dto.BatchStatutRequest;
+import org.example.colis.dto.ColisBatchResponse;
+import org.example.colis.model.User;
+import org.example.colis.service.ColisBatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/colis/batch")
+@Tag(name = "Admin - Colis Batch", description = "Admin endpoints applying one operation to many colis, with a result per item")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminColisBatchController {
+
+    @Autowired
+    private ColisBatchService colisBatchService;
+
+    @PostMapping("/get")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis by ids", description = "Get several colis in one call")
+    public ResponseEntity<ColisBatchResponse> getColis(@Valid @RequestBody BatchIdsRequest request) {
+        return ResponseEntity.ok(colisBatchService.getColis(request));
+    }
+
+    @PostMapping("/assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Assign colis", description = "Assign several colis, each to a transporteur with the matching specialite")
+    public ResponseEntity<ColisBatchResponse> assignColis(@Valid @RequestBody BatchAssignRequest request) {
+        return ResponseEntity.ok(colisBatchService.assignColis(request));
+    }
+
+    @PatchMapping("/statut")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update colis statuts", description = "Update the statut of several colis. " +
+            "Items whose transition is not allowed fail with 409")
+    public ResponseEntity<ColisBatchResponse> updateStatut(@Valid @RequestBody BatchStatutRequest request,
+                                                           @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(colisBatchService.updateStatut(currentUser, request));
+    }
+
+    @PostMapping("/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete colis", description = "Delete several colis")
+    public ResponseEntity<ColisBatchResponse> deleteColis(@Valid @RequestBody BatchIdsRequest request) {
+        return ResponseEntity.ok(colisBatchService.deleteColis(request));
+    }
+}
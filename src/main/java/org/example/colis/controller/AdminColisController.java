@@ -6,24 +6,41 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.example.colis.dto.AssignColisRequest;
 import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
+import org.example.colis.dto.ColisImportReport;
+import org.example.colis.dto.ColisSummaryDTO;
 import org.example.colis.dto.CreateColisRequest;
 import org.example.colis.dto.PageResponse;
 import org.example.colis.dto.UpdateColisRequest;
 import org.example.colis.dto.UpdateStatutRequest;
-import org.example.colis.enums.StatutColis;
-import org.example.colis.enums.TypeColis;
+import org.example.colis.enums.CountMode;
+import org.example.colis.enums.ColisFileFormat;
 import org.example.colis.model.User;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.service.ColisExportService;
+import org.example.colis.service.ColisImportService;
 import org.example.colis.service.ColisService;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/admin/colis")
 @Tag(name = "Admin - Colis Management", description = "Admin endpoints for managing colis")
 @SecurityRequirement(name = "Bearer Authentication")
@@ -32,22 +49,74 @@ public class AdminColisController {
     @Autowired
     private ColisService colisService;
 
+    @Autowired
+    private ColisExportService colisExportService;
+
+    @Autowired
+    private ColisImportService colisImportService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all colis", description = "Get paginated list of all colis with optional filters")
+    @Operation(summary = "Get all colis", description = "Get paginated list of all colis with optional filters. " +
+            "Pass after (empty for the first page, then nextCursor) for cursor pagination instead of page. " +
+            "count=NONE skips the total, count=APPROXIMATE returns a cached total. " +
+            "Filters (type, statut, transporteurId, codePostal, ville, poidsMin/poidsMax, adresse, createdFrom/createdTo) " +
+            "can be combined; " +
+            "sort=id|createdAt|poids[,desc]. Combinations without a supporting index are rejected with 400")
     public ResponseEntity<PageResponse<ColisDTO>> getAllColis(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) TypeColis type,
-            @RequestParam(required = false) StatutColis statut,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @AuthenticationPrincipal User currentUser) {
-        Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(PageResponse.from(colisService.getAllColis(currentUser, type, statut, pageable)));
+        if (after != null) {
+            return ResponseEntity.ok(colisService.getAllColisAfter(currentUser, filter, after, size));
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(colisService.getAllColis(currentUser, filter, pageable, count));
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis summaries", description = "Compact list view (id, type, statut, transporteurId, truncated address) " +
+            "with the same filters and pagination options as the full listing")
+    public ResponseEntity<PageResponse<ColisSummaryDTO>> getAllColisSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @AuthenticationPrincipal User currentUser) {
+        if (after != null) {
+            return ResponseEntity.ok(colisService.getColisSummariesAfter(currentUser, filter, after, size));
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(colisService.getColisSummaries(currentUser, filter, pageable, count));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export colis", description = "Streams every colis matching the list filters as NDJSON (one object per line) " +
+            "or CSV, read from a single Mongo cursor")
+    public ResponseEntity<StreamingResponseBody> exportColis(
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(defaultValue = "NDJSON") ColisFileFormat format) {
+        MediaType contentType = format == ColisFileFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=colis." + format.name().toLowerCase())
+                .body(colisExportService.export(filter, sort, format));
     }
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Search colis by address", description = "Search colis by destination address")
+    @Operation(summary = "Search colis by address", description = "Full-text search on destination address words, accent-insensitive, best matches first")
     public ResponseEntity<PageResponse<ColisDTO>> searchColisByAddress(
             @RequestParam String adresse,
             @RequestParam(defaultValue = "0") int page,
@@ -65,6 +134,19 @@ public class AdminColisController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import colis", description = "Bulk import from a CSV (header line with type, poids, adresseDestination, ...) " +
+            "or NDJSON body. Invalid lines are reported and skipped, the rest of the file is still imported")
+    public ResponseEntity<ColisImportReport> importColis(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        ColisFileFormat format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ColisFileFormat.NDJSON
+                : ColisFileFormat.CSV;
+        return ResponseEntity.ok(colisImportService.importColis(body, format));
+    }
+
     @PostMapping("/{id}/assign")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Assign colis", description = "Assign a colis to a transporteur")
@@ -72,28 +154,33 @@ public class AdminColisController {
             @PathVariable String id,
             @Valid @RequestBody AssignColisRequest request) {
         ColisDTO assigned = colisService.assignColis(id, request);
-        return ResponseEntity.ok(assigned);
+        return ETags.ok(assigned, assigned.getVersion());
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Update colis", description = "Update an existing colis")
+    @Operation(summary = "Update colis", description = "Update an existing colis. " +
+            "With If-Match (the ETag of GET /{id}) the update fails with 412 if the colis changed since")
     public ResponseEntity<ColisDTO> updateColis(
             @PathVariable String id,
-            @Valid @RequestBody UpdateColisRequest request) {
-        ColisDTO updated = colisService.updateColis(id, request);
-        return ResponseEntity.ok(updated);
+            @Valid @RequestBody UpdateColisRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ColisDTO updated = colisService.updateColis(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
     }
 
     @PatchMapping("/{id}/statut")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Update colis statut", description = "Update the statut of a colis")
+    @Operation(summary = "Update colis statut", description = "Update the statut of a colis along the allowed " +
+            "transitions (EN_ATTENTE -> EN_TRANSIT|ANNULE, EN_TRANSIT -> LIVRE|ANNULE|EN_ATTENTE), 409 otherwise. " +
+            "Honours If-Match")
     public ResponseEntity<ColisDTO> updateColisStatut(
             @PathVariable String id,
             @Valid @RequestBody UpdateStatutRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        ColisDTO updated = colisService.updateColisStatut(currentUser, id, request);
-        return ResponseEntity.ok(updated);
+        ColisDTO updated = colisService.updateColisStatut(currentUser, id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
     }
 
     @DeleteMapping("/{id}")
@@ -111,6 +198,17 @@ public class AdminColisController {
             @PathVariable String id,
             @AuthenticationPrincipal User currentUser) {
         ColisDTO colis = colisService.getColisById(currentUser, id);
-        return ResponseEntity.ok(colis);
+        return ETags.ok(colis, colis.getVersion());
+    }
+
+    @GetMapping("/{id}/events")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis timeline", description = "Statut transitions of the colis (from, to, who, when), oldest first")
+    public ResponseEntity<PageResponse<ColisEventDTO>> getColisEvents(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(colisService.getColisEvents(currentUser, id, page, size));
     }
 }
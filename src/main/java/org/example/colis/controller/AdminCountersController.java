@@ -0,0 +1,48 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.colis.dto.CounterReconciliationReport;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.service.ColisCounters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/counters")
+@Tag(name = "Admin - Counters", description = "Colis counters kept on every write")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminCountersController {
+
+    @Autowired
+    private ColisCounters colisCounters;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis counts", description = "Colis counts by statut x type, of one transporteur or " +
+            "of all colis, read from the counters without scanning the colis")
+    public ResponseEntity<Map<StatutColis, Map<TypeColis, Long>>> getCounts(
+            @RequestParam(required = false) String transporteurId) {
+        return ResponseEntity.ok(colisCounters.byStatutAndType(transporteurId));
+    }
+
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconcile counters", description = "Corrects the counters from the colis and reports " +
+            "the ones that had drifted. 409 while another instance is reconciling")
+    public ResponseEntity<CounterReconciliationReport> reconcile() {
+        return ResponseEntity.ok(colisCounters.reconcile());
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.colis.dto.DashboardDTO;
+import org.example.colis.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/dashboard")
+@Tag(name = "Admin - Dashboard", description = "Overview of colis and transporteurs")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminDashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get dashboard", description = "Colis counts by statut x type, available transporteurs by " +
+            "specialite and the most loaded transporteurs, in one call. Cached for a few seconds (see computedAt)")
+    public CompletableFuture<ResponseEntity<DashboardDTO>> getDashboard() {
+        return dashboardService.getDashboardAsync().thenApply(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.colis.dto.DispatchReport;
+import org.example.colis.enums.DispatchMode;
+import org.example.colis.service.DispatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/dispatch")
+@Tag(name = "Admin - Dispatch", description = "Automatic assignment of waiting colis to available transporteurs")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminDispatchController {
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Run a dispatch round", description = "Assign the oldest waiting colis to available " +
+            "transporteurs with the matching specialite and room in their vehicle. BALANCED picks the least loaded " +
+            "transporteur, PACKED fills as few vehicles as possible (default: colis.dispatch.mode). " +
+            "409 if a round is already running on this instance")
+    public ResponseEntity<DispatchReport> dispatch(@RequestParam(required = false) DispatchMode mode) {
+        return ResponseEntity.ok(dispatchService.dispatch(mode));
+    }
+}
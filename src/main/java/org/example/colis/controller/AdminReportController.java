@@ -0,0 +1,46 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.colis.dto.ThroughputBucketDTO;
+import org.example.colis.enums.RollupGranularity;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.service.ColisRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/reports")
+@Tag(name = "Admin - Reports", description = "Colis throughput over time")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminReportController {
+
+    @Autowired
+    private ColisRollupService rollupService;
+
+    @GetMapping("/throughput")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis throughput", description = "Colis created, put in transit, delivered and cancelled " +
+            "per hour or day (UTC) in [from, to), optionally for one type or transporteur. Read from rollups " +
+            "updated every minute, so the last minutes are not counted yet")
+    public ResponseEntity<List<ThroughputBucketDTO>> getThroughput(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) TypeColis type,
+            @RequestParam(required = false) String transporteurId) {
+        return ResponseEntity.ok(rollupService.getThroughput(granularity, from, to, type, transporteurId));
+    }
+}
@@ -12,8 +12,10 @@ import org.example.colis.enums.Specialite;
 import org.example.colis.model.User;
 import org.example.colis.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,6 +23,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/admin")
 @Tag(name = "Admin - User Management", description = "Admin endpoints for managing users and transporteurs")
 @SecurityRequirement(name = "Bearer Authentication")
@@ -31,10 +34,15 @@ public class AdminUserController {
 
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all users", description = "Get paginated list of all users")
+    @Operation(summary = "Get all users", description = "Get paginated list of all users. " +
+            "Pass after (empty for the first page, then nextCursor) for cursor pagination instead of page")
     public ResponseEntity<PageResponse<UserDTO>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return ResponseEntity.ok(userService.getAllUsersAfter(after, size));
+        }
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(PageResponse.from(userService.getAllUsers(pageable)));
     }
@@ -54,6 +62,14 @@ public class AdminUserController {
         return ResponseEntity.ok(PageResponse.from(userService.getAllTransporteurs(pageable)));
     }
 
+    @GetMapping("/users/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get user by ID", description = "Get a user; the ETag is the version to send as If-Match on updates")
+    public ResponseEntity<UserDTO> getUserById(@PathVariable String id) {
+        UserDTO user = userService.getUserById(id);
+        return ETags.ok(user, user.getVersion());
+    }
+
     @PostMapping("/transporteurs")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create transporteur", description = "Create a new transporteur")
@@ -64,12 +80,23 @@ public class AdminUserController {
 
     @PutMapping("/transporteurs/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Update transporteur", description = "Update an existing transporteur")
+    @Operation(summary = "Update transporteur", description = "Update an existing transporteur. " +
+            "With If-Match the update fails with 412 if the transporteur changed since")
     public ResponseEntity<UserDTO> updateTransporteur(
             @PathVariable String id,
-            @Valid @RequestBody UpdateUserRequest request) {
-        UserDTO updated = userService.updateUser(id, request);
-        return ResponseEntity.ok(updated);
+            @Valid @RequestBody UpdateUserRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserDTO updated = userService.updateUser(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
+    }
+
+    @PostMapping("/transporteurs/{id}/charge/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Recompute transporteur charge", description = "Rebuild chargePoids / chargeColis from the " +
+            "open colis of the transporteur (repair after a crash between a colis write and its counter update)")
+    public ResponseEntity<UserDTO> recomputeCharge(@PathVariable String id) {
+        UserDTO user = userService.recomputeCharge(id);
+        return ETags.ok(user, user.getVersion());
     }
 
     @DeleteMapping("/transporteurs/{id}")
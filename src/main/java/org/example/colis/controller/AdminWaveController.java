@@ -0,0 +1,65 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.colis.dto.AssignColisRequest;
+import org.example.colis.dto.DeliveryWaveDTO;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.WaveClusteringReport;
+import org.example.colis.enums.StatutWave;
+import org.example.colis.service.DeliveryWaveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/waves")
+@Tag(name = "Admin - Delivery Waves", description = "Waiting colis grouped by zone, assigned in one operation")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminWaveController {
+
+    @Autowired
+    private DeliveryWaveService waveService;
+
+    @PostMapping("/cluster")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Build delivery waves", description = "Group the unassigned EN_ATTENTE colis that are not in a " +
+            "wave yet by codePostal and type, in waves of at most colis.waves.max-colis colis and " +
+            "colis.waves.max-poids kg. 409 if a run is already in progress on this instance")
+    public ResponseEntity<WaveClusteringReport> cluster() {
+        return ResponseEntity.ok(waveService.cluster());
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get waves", description = "Paginated waves, oldest first, optionally filtered by statut")
+    public ResponseEntity<PageResponse<DeliveryWaveDTO>> getWaves(
+            @RequestParam(required = false) StatutWave statut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(waveService.getWaves(statut, PageRequest.of(page, size, Sort.by("createdAt"))));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get wave by ID")
+    public ResponseEntity<DeliveryWaveDTO> getWave(@PathVariable String id) {
+        return ResponseEntity.ok(waveService.getWave(id));
+    }
+
+    @PostMapping("/{id}/assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Assign a wave", description = "Assign every colis of the wave that is still waiting to one " +
+            "transporteur of the matching specialite, within its vehicle capacity. 409 if the wave is already assigned, " +
+            "or if none of its colis was still waiting at write time (the wave stays open)")
+    public ResponseEntity<DeliveryWaveDTO> assignWave(@PathVariable String id, @Valid @RequestBody AssignColisRequest request) {
+        return ResponseEntity.ok(waveService.assignWave(id, request.getTransporteurId()));
+    }
+}
@@ -7,13 +7,17 @@ import org.example.colis.dto.LoginRequest;
 import org.example.colis.dto.LoginResponse;
 import org.example.colis.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/auth")
 @Tag(name = "Authentication", description = "Authentication endpoints")
 public class AuthController {
@@ -22,9 +26,8 @@ public class AuthController {
     private AuthService authService;
     
     @PostMapping("/login")
-    @Operation(summary = "Login", description = "Authenticate user and get JWT token")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Login", description = "Authenticate user and get JWT token. Returns 429 when too many logins are in progress")
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return authService.loginAsync(request).thenApply(ResponseEntity::ok);
     }
 }
@@ -0,0 +1,41 @@
+package org.example.colis.controller;
+
+import org.example.colis.exception.BusinessException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETag / If-Match helpers: the ETag of a colis or user is its document version.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    // 200 with the version as ETag (sent quoted, e.g. "3")
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(String.valueOf(version));
+        }
+        return builder.body(body);
+    }
+
+    // No header or "*" means unconditional (null). Weak tags are accepted: the version is the whole state
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("If-Match must be a single ETag returned by this API");
+        }
+    }
+}
@@ -5,21 +5,31 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
+import org.example.colis.dto.ColisSummaryDTO;
 import org.example.colis.dto.PageResponse;
 import org.example.colis.dto.UpdateStatutRequest;
-import org.example.colis.enums.StatutColis;
-import org.example.colis.enums.TypeColis;
+import org.example.colis.enums.CountMode;
 import org.example.colis.model.User;
+import org.example.colis.repository.ColisFilter;
 import org.example.colis.service.ColisService;
+import org.example.colis.service.ColisUpdateHub;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/transporteur/colis")
 @Tag(name = "Transporteur - Colis Management", description = "Transporteur endpoints for managing their colis")
 @SecurityRequirement(name = "Bearer Authentication")
@@ -28,22 +38,53 @@ public class TransporteurColisController {
     @Autowired
     private ColisService colisService;
 
+    @Autowired
+    private ColisUpdateHub colisUpdateHub;
+
     @GetMapping
     @PreAuthorize("hasRole('TRANSPORTEUR')")
-    @Operation(summary = "Get my colis", description = "Get paginated list of transporteur's colis with optional filters")
+    @Operation(summary = "Get my colis", description = "Get paginated list of transporteur's colis with optional filters. " +
+            "Pass after (empty for the first page, then nextCursor) for cursor pagination instead of page. " +
+            "count=NONE skips the total, count=APPROXIMATE returns a cached total. " +
+            "Filters (type, statut, poidsMin/poidsMax, adresse, createdFrom/createdTo) can be combined; " +
+            "sort=id|createdAt|poids[,desc]. Combinations without a supporting index are rejected with 400")
     public ResponseEntity<PageResponse<ColisDTO>> getMyColis(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) TypeColis type,
-            @RequestParam(required = false) StatutColis statut,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @AuthenticationPrincipal User currentUser) {
-        Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(PageResponse.from(colisService.getAllColis(currentUser, type, statut, pageable)));
+        if (after != null) {
+            return ResponseEntity.ok(colisService.getAllColisAfter(currentUser, filter, after, size));
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(colisService.getAllColis(currentUser, filter, pageable, count));
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Get my colis summaries", description = "Compact list view (id, type, statut, transporteurId, truncated address) " +
+            "with the same filters and pagination options as the full listing")
+    public ResponseEntity<PageResponse<ColisSummaryDTO>> getMyColisSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @AuthenticationPrincipal User currentUser) {
+        if (after != null) {
+            return ResponseEntity.ok(colisService.getColisSummariesAfter(currentUser, filter, after, size));
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(colisService.getColisSummaries(currentUser, filter, pageable, count));
     }
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('TRANSPORTEUR')")
-    @Operation(summary = "Search my colis by address", description = "Search transporteur's colis by destination address")
+    @Operation(summary = "Search my colis by address", description = "Full-text search on the destination address of transporteur's colis, best matches first")
     public ResponseEntity<PageResponse<ColisDTO>> searchMyColisByAddress(
             @RequestParam String adresse,
             @RequestParam(defaultValue = "0") int page,
@@ -55,13 +96,15 @@ public class TransporteurColisController {
 
     @PatchMapping("/{id}/statut")
     @PreAuthorize("hasRole('TRANSPORTEUR')")
-    @Operation(summary = "Update my colis statut", description = "Update the statut of transporteur's colis")
+    @Operation(summary = "Update my colis statut", description = "Update the statut of transporteur's colis along " +
+            "the allowed transitions, 409 otherwise. Honours If-Match")
     public ResponseEntity<ColisDTO> updateMyColisStatut(
             @PathVariable String id,
             @Valid @RequestBody UpdateStatutRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal User currentUser) {
-        ColisDTO updated = colisService.updateColisStatut(currentUser, id, request);
-        return ResponseEntity.ok(updated);
+        ColisDTO updated = colisService.updateColisStatut(currentUser, id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(updated, updated.getVersion());
     }
 
     @GetMapping("/{id}")
@@ -71,6 +114,29 @@ public class TransporteurColisController {
             @PathVariable String id,
             @AuthenticationPrincipal User currentUser) {
         ColisDTO colis = colisService.getColisById(currentUser, id);
-        return ResponseEntity.ok(colis);
+        return ETags.ok(colis, colis.getVersion());
+    }
+
+    @GetMapping("/{id}/events")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Get my colis timeline", description = "Statut transitions of the colis (from, to, who, when), oldest first")
+    public ResponseEntity<PageResponse<ColisEventDTO>> getMyColisEvents(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(colisService.getColisEvents(currentUser, id, page, size));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Stream my colis updates", description = "Server-Sent Events: a \"colis\" event (colisId, operation, colis) " +
+            "for each change to one of my colis, replacing polling of the list. On reconnect send the last event id as " +
+            "Last-Event-ID to receive what was missed; a \"resync\" event means reload the list instead. " +
+            "Heartbeat comments keep the connection open; a client that reads too slowly is disconnected")
+    public SseEmitter streamMyColis(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal User currentUser) {
+        return colisUpdateHub.subscribe(currentUser.getId(), lastEventId);
     }
 }
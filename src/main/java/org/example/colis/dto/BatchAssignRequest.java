@@ -0,0 +1,31 @@
+package org.example.colis.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAssignRequest {
+    
+    @NotEmpty(message = "Items are required")
+    private List<@Valid Item> items;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        
+        @NotBlank(message = "Colis ID is required")
+        private String colisId;
+        
+        @NotBlank(message = "Transporteur ID is required")
+        private String transporteurId;
+    }
+}
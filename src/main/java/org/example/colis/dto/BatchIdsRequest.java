@@ -0,0 +1,18 @@
+package org.example.colis.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIdsRequest {
+    
+    @NotEmpty(message = "IDs are required")
+    private List<@NotBlank String> ids;
+}
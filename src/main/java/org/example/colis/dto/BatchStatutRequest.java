@@ -0,0 +1,33 @@
+package org.example.colis.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.StatutColis;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStatutRequest {
+    
+    @NotEmpty(message = "Items are required")
+    private List<@Valid Item> items;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        
+        @NotBlank(message = "Colis ID is required")
+        private String colisId;
+        
+        @NotNull(message = "Statut is required")
+        private StatutColis statut;
+    }
+}
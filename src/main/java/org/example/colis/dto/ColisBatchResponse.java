@@ -0,0 +1,51 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch operation: one entry per requested item, in request order.
+ * status uses the HTTP code the single-item endpoint would have returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisBatchResponse {
+    
+    private int succeeded;
+    
+    private int failed;
+    
+    private List<ItemResult> results;
+    
+    public static ColisBatchResponse of(List<ItemResult> results) {
+        int succeeded = (int) results.stream().filter(result -> result.getStatus() < 300).count();
+        return new ColisBatchResponse(succeeded, results.size() - succeeded, results);
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        
+        private String id;
+        
+        private int status;
+        
+        private String message;
+        
+        // Null on failure and for deletions
+        private ColisDTO colis;
+        
+        public static ItemResult ok(String id, ColisDTO colis) {
+            return new ItemResult(id, 200, null, colis);
+        }
+        
+        public static ItemResult failed(String id, int status, String message) {
+            return new ItemResult(id, status, message, null);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import lombok.NoArgsConstructor;
 import org.example.colis.enums.StatutColis;
 import org.example.colis.enums.TypeColis;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,10 +21,16 @@ public class ColisDTO {
     
     private String adresseDestination;
     
+    private String codePostal;
+    
+    private String ville;
+    
     private StatutColis statut;
     
     private String transporteurId;
     
+    private String waveId;
+    
     // Specific to FRAGILE
     private String instructionsManutention;
     
@@ -30,4 +38,12 @@ public class ColisDTO {
     private Double temperatureMin;
     
     private Double temperatureMax;
+    
+    private Instant createdAt;
+    
+    private Instant updatedAt;
+    
+    private Instant deliveredAt;
+    
+    private Long version;
 }
@@ -0,0 +1,27 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisEventDTO {
+    
+    private String colisId;
+    
+    private StatutColis from;
+    
+    private StatutColis to;
+    
+    private String userId;
+    
+    private Role role;
+    
+    private Instant ts;
+}
@@ -0,0 +1,39 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk colis import. Line numbers are 1-based and count the CSV header;
+ * errors beyond colis.import.max-errors are counted in failed but not listed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisImportReport {
+    
+    private long received;
+    
+    private long inserted;
+    
+    private long failed;
+    
+    private List<LineError> errors;
+    
+    private long durationMs;
+    
+    private double colisPerSecond;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        
+        private long line;
+        
+        private String message;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+
+/**
+ * Compact list view of a colis, read straight from a Mongo projection.
+ * adresseDestination is truncated server-side (colis.summary.address-length).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisSummaryDTO {
+    
+    private String id;
+    
+    private TypeColis type;
+    
+    private StatutColis statut;
+    
+    private String transporteurId;
+    
+    private String adresseDestination;
+}
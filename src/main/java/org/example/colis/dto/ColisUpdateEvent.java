@@ -0,0 +1,19 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisUpdateEvent {
+    
+    private String colisId;
+    
+    // insert, update, replace or delete
+    private String operation;
+    
+    // State after the change, null for a delete
+    private ColisDTO colis;
+}
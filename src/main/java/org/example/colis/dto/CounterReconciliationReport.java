@@ -0,0 +1,25 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a colis counter rebuild. drift lists the counters that did not match the colis
+ * collection (at most 100), as "key: expected N, was M"; they have been corrected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CounterReconciliationReport {
+    
+    private int counters;
+    
+    private int drifted;
+    
+    private List<String> drift;
+    
+    private long durationMs;
+}
@@ -2,6 +2,7 @@ package org.example.colis.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +28,11 @@ public class CreateUserRequest {
     private StatutTransporteur statut;
     
     private Specialite specialite;
+    
+    // Vehicle capacity, TRANSPORTEUR only (absent = no limit)
+    @Positive(message = "Capacite poids max must be positive")
+    private Double capacitePoidsMax;
+    
+    @Positive(message = "Capacite colis max must be positive")
+    private Integer capaciteColisMax;
 }
@@ -0,0 +1,36 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin overview, computed in one pass and cached briefly (see computedAt). Every statut,
+ * type and specialite is present, with 0 when nothing matches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+
+    private long totalColis;
+
+    private Map<StatutColis, Map<TypeColis, Long>> colisByStatutAndType;
+
+    // Active DISPONIBLE transporteurs
+    private Map<Specialite, Long> availableTransporteursBySpecialite;
+
+    // Most loaded transporteurs first (chargeColis, then chargePoids)
+    private List<UserDTO> workloads;
+
+    private Instant computedAt;
+
+    private long durationMs;
+}
@@ -0,0 +1,39 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.StatutWave;
+import org.example.colis.enums.TypeColis;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryWaveDTO {
+    
+    private String id;
+    
+    private String codePostal;
+    
+    private String ville;
+    
+    private TypeColis type;
+    
+    private StatutWave statut;
+    
+    private int colisCount;
+    
+    private double poidsTotal;
+    
+    private String transporteurId;
+    
+    private Integer colisAssignes;
+    
+    private Instant createdAt;
+    
+    private Instant assignedAt;
+    
+    private Long version;
+}
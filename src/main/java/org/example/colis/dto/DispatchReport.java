@@ -0,0 +1,29 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one dispatch round. claimedElsewhere counts planned assignments whose colis
+ * was no longer waiting when written (assigned by another instance or an admin meanwhile).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchReport {
+
+    private int waiting;
+
+    private int transporteurs;
+
+    private int planned;
+
+    private long assigned;
+
+    private long claimedElsewhere;
+
+    private long durationMs;
+
+    private double colisPerSecond;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -20,10 +21,15 @@ public class PageResponse<T> {
     private List<T> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    // Null when the total was not computed (cursor mode, count=NONE)
+    private Long totalElements;
+    private Integer totalPages;
+    // True when totalElements comes from a cached, possibly stale count (count=APPROXIMATE)
+    private boolean totalApproximate;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Opaque token to pass as "after" for the next page (cursor mode only)
+    private String nextCursor;
 
     /**
      * Create a PageResponse from a Spring Page object.
@@ -35,7 +41,43 @@ public class PageResponse<T> {
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
+                false,
                 page.hasNext(),
-                page.hasPrevious());
+                page.hasPrevious(),
+                null);
+    }
+
+    /**
+     * Create a PageResponse from a Spring Slice, with an optional approximate total.
+     */
+    public static <T> PageResponse<T> fromSlice(Slice<T> slice, Long approximateTotal) {
+        Integer totalPages = approximateTotal == null ? null
+                : (int) Math.ceil((double) approximateTotal / slice.getSize());
+        return new PageResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                approximateTotal,
+                totalPages,
+                approximateTotal != null,
+                slice.hasNext(),
+                slice.hasPrevious(),
+                null);
+    }
+
+    /**
+     * Create a PageResponse for a keyset (cursor) page. No count is run in this mode.
+     */
+    public static <T> PageResponse<T> fromCursor(List<T> content, int size, boolean hasPrevious, String nextCursor) {
+        return new PageResponse<>(
+                content,
+                0,
+                size,
+                null,
+                null,
+                false,
+                nextCursor != null,
+                hasPrevious,
+                nextCursor);
     }
 }
@@ -0,0 +1,26 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Colis created, put in transit, delivered and cancelled during the hour or day starting at bucket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThroughputBucketDTO {
+    
+    private Instant bucket;
+    
+    private long created;
+    
+    private long inTransit;
+    
+    private long delivered;
+    
+    private long cancelled;
+}
@@ -1,5 +1,6 @@
 package org.example.colis.dto;
 
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,4 +22,11 @@ public class UpdateUserRequest {
     private StatutTransporteur statut;
     
     private Specialite specialite;
+    
+    // Vehicle capacity, TRANSPORTEUR only (absent = no limit)
+    @Positive(message = "Capacite poids max must be positive")
+    private Double capacitePoidsMax;
+    
+    @Positive(message = "Capacite colis max must be positive")
+    private Integer capaciteColisMax;
 }
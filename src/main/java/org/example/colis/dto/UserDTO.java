@@ -24,4 +24,14 @@ public class UserDTO {
     private StatutTransporteur statut;
     
     private Specialite specialite;
+    
+    private Double capacitePoidsMax;
+    
+    private Integer capaciteColisMax;
+    
+    private Double chargePoids;
+    
+    private Integer chargeColis;
+    
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package org.example.colis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one clustering run. grouped can be lower than the colis planned into the waves
+ * when some were assigned or edited between the read and the write.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaveClusteringReport {
+    
+    private int pending;
+    
+    private int waves;
+    
+    private long grouped;
+    
+    private long durationMs;
+}
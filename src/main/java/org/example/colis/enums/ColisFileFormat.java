@@ -0,0 +1,6 @@
+package org.example.colis.enums;
+
+public enum ColisFileFormat {
+    NDJSON,
+    CSV
+}
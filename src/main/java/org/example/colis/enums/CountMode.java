@@ -0,0 +1,8 @@
+package org.example.colis.enums;
+
+// How list endpoints compute totalElements
+public enum CountMode {
+    EXACT,
+    NONE,
+    APPROXIMATE
+}
@@ -0,0 +1,7 @@
+package org.example.colis.enums;
+
+// BALANCED spreads colis over the least loaded transporteurs, PACKED fills as few vehicles as possible
+public enum DispatchMode {
+    BALANCED,
+    PACKED
+}
@@ -0,0 +1,24 @@
+package org.example.colis.enums;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// Size of a rollup bucket; buckets start on UTC hours and days
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+    
+    private final ChronoUnit unit;
+    
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+    
+    public Instant bucketOf(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+    
+    public Instant next(Instant bucket) {
+        return bucket.plus(1, unit);
+    }
+}
@@ -1,8 +1,30 @@
 package org.example.colis.enums;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
 public enum StatutColis {
     EN_ATTENTE,
     EN_TRANSIT,
     LIVRE,
-    ANNULE
+    ANNULE;
+    
+    // Transition table: a colis in transit can come back to the depot; LIVRE and ANNULE are final
+    public Set<StatutColis> next() {
+        return switch (this) {
+            case EN_ATTENTE -> Set.of(EN_TRANSIT, ANNULE);
+            case EN_TRANSIT -> Set.of(LIVRE, ANNULE, EN_ATTENTE);
+            case LIVRE, ANNULE -> Set.of();
+        };
+    }
+    
+    public boolean canBecome(StatutColis target) {
+        return next().contains(target);
+    }
+    
+    // Statuts a colis may be in to move to target (the filter of a conditional statut update)
+    public static List<StatutColis> sourcesOf(StatutColis target) {
+        return Arrays.stream(values()).filter(statut -> statut.canBecome(target)).toList();
+    }
 }
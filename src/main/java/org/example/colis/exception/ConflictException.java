@@ -0,0 +1,8 @@
+package org.example.colis.exception;
+
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+}
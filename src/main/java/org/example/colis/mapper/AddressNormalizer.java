@@ -0,0 +1,72 @@
+package org.example.colis.mapper;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the postal code and city of a free-text adresseDestination, so colis can be filtered
+ * and grouped by zone on indexed fields. Both "12 rue X, 75002 Paris" and "Bd Y, Casablanca 20250"
+ * are understood; the city is stored upper case without accents ("Saint-Étienne" -> "SAINT-ETIENNE").
+ */
+public final class AddressNormalizer {
+
+    // The last 5-digit group that is not part of a longer number is the postal code
+    private static final Pattern POSTAL_CODE = Pattern.compile("(?<!\\d)(\\d{5})(?!\\d)");
+
+    private static final Pattern CITY = Pattern.compile("\\p{L}[\\p{L} '\\-]*");
+
+    private static final Pattern CEDEX = Pattern.compile("\\s+CEDEX(\\s*\\d*)?$");
+
+    private AddressNormalizer() {
+    }
+
+    public record Zone(String codePostal, String ville) {
+    }
+
+    // Fields are null when the address does not contain them
+    public static Zone normalize(String adresse) {
+        if (adresse == null || adresse.isBlank()) {
+            return new Zone(null, null);
+        }
+        Matcher code = POSTAL_CODE.matcher(adresse);
+        int start = -1;
+        int end = -1;
+        while (code.find()) {
+            start = code.start();
+            end = code.end();
+        }
+        if (start < 0) {
+            return new Zone(null, null);
+        }
+
+        // City after the code, else the words between the previous comma and the code
+        String ville = city(adresse.substring(end));
+        int comma = adresse.lastIndexOf(',', start);
+        if (ville == null && comma >= 0) {
+            ville = city(adresse.substring(comma + 1, start));
+        }
+        return new Zone(adresse.substring(start, end), ville);
+    }
+
+    // Stored form of a city name, also applied to the ville filter of the listings
+    public static String normalizeVille(String ville) {
+        if (ville == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(ville, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .trim();
+        normalized = CEDEX.matcher(normalized).replaceFirst("");
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static String city(String text) {
+        int comma = text.indexOf(',');
+        Matcher matcher = CITY.matcher(comma >= 0 ? text.substring(0, comma) : text);
+        return matcher.find() ? normalizeVille(matcher.group()) : null;
+    }
+}
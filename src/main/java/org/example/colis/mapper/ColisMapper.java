@@ -1,9 +1,11 @@
 package org.example.colis.mapper;
 
 import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
 import org.example.colis.dto.CreateColisRequest;
 import org.example.colis.enums.StatutColis;
 import org.example.colis.model.Colis;
+import org.example.colis.model.ColisEvent;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -19,15 +21,31 @@ public class ColisMapper {
         dto.setType(colis.getType());
         dto.setPoids(colis.getPoids());
         dto.setAdresseDestination(colis.getAdresseDestination());
+        dto.setCodePostal(colis.getCodePostal());
+        dto.setVille(colis.getVille());
         dto.setStatut(colis.getStatut());
         dto.setTransporteurId(colis.getTransporteurId());
+        dto.setWaveId(colis.getWaveId());
         dto.setInstructionsManutention(colis.getInstructionsManutention());
         dto.setTemperatureMin(colis.getTemperatureMin());
         dto.setTemperatureMax(colis.getTemperatureMax());
+        dto.setCreatedAt(colis.getCreatedAt());
+        dto.setUpdatedAt(colis.getUpdatedAt());
+        dto.setDeliveredAt(colis.getDeliveredAt());
+        dto.setVersion(colis.getVersion());
         
         return dto;
     }
     
+    public ColisEventDTO toDTO(ColisEvent event) {
+        if (event == null) {
+            return null;
+        }
+        
+        return new ColisEventDTO(event.getColisId(), event.getFrom(), event.getTo(), event.getUserId(),
+                event.getRole(), event.getTs());
+    }
+    
     public Colis toEntity(CreateColisRequest request) {
         if (request == null) {
             return null;
@@ -37,6 +55,9 @@ public class ColisMapper {
         colis.setType(request.getType());
         colis.setPoids(request.getPoids());
         colis.setAdresseDestination(request.getAdresseDestination());
+        AddressNormalizer.Zone zone = AddressNormalizer.normalize(request.getAdresseDestination());
+        colis.setCodePostal(zone.codePostal());
+        colis.setVille(zone.ville());
         colis.setStatut(StatutColis.EN_ATTENTE);
         colis.setInstructionsManutention(request.getInstructionsManutention());
         colis.setTemperatureMin(request.getTemperatureMin());
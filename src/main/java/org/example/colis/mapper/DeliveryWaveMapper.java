@@ -0,0 +1,31 @@
+package org.example.colis.mapper;
+
+import org.example.colis.dto.DeliveryWaveDTO;
+import org.example.colis.model.DeliveryWave;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeliveryWaveMapper {
+    
+    public DeliveryWaveDTO toDTO(DeliveryWave wave) {
+        if (wave == null) {
+            return null;
+        }
+        
+        DeliveryWaveDTO dto = new DeliveryWaveDTO();
+        dto.setId(wave.getId());
+        dto.setCodePostal(wave.getCodePostal());
+        dto.setVille(wave.getVille());
+        dto.setType(wave.getType());
+        dto.setStatut(wave.getStatut());
+        dto.setColisCount(wave.getColisCount());
+        dto.setPoidsTotal(wave.getPoidsTotal());
+        dto.setTransporteurId(wave.getTransporteurId());
+        dto.setColisAssignes(wave.getColisAssignes());
+        dto.setCreatedAt(wave.getCreatedAt());
+        dto.setAssignedAt(wave.getAssignedAt());
+        dto.setVersion(wave.getVersion());
+        
+        return dto;
+    }
+}
@@ -20,6 +20,11 @@ public class UserMapper {
         dto.setActive(user.getActive());
         dto.setStatut(user.getStatut());
         dto.setSpecialite(user.getSpecialite());
+        dto.setCapacitePoidsMax(user.getCapacitePoidsMax());
+        dto.setCapaciteColisMax(user.getCapaciteColisMax());
+        dto.setChargePoids(user.getChargePoids());
+        dto.setChargeColis(user.getChargeColis());
+        dto.setVersion(user.getVersion());
         
         return dto;
     }
@@ -36,6 +41,8 @@ public class UserMapper {
         user.setActive(true);
         user.setStatut(request.getStatut());
         user.setSpecialite(request.getSpecialite());
+        user.setCapacitePoidsMax(request.getCapacitePoidsMax());
+        user.setCapaciteColisMax(request.getCapaciteColisMax());
         
         return user;
     }
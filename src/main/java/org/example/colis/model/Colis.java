@@ -5,13 +5,36 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.example.colis.enums.StatutColis;
 import org.example.colis.enums.TypeColis;
+import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "colis")
+// French is the default text-index language: stemming, stop words, and (text index v3) accent-insensitive matching
+@Document(collection = "colis", language = "french")
+// Equality filters first and _id last, so filtered listings and keyset pages are index-backed
+@CompoundIndex(name = "type_statut_id", def = "{ 'type' : 1, 'statut' : 1, '_id' : 1 }")
+@CompoundIndex(name = "statut_id", def = "{ 'statut' : 1, '_id' : 1 }")
+@CompoundIndex(name = "transporteur_type_statut_id", def = "{ 'transporteurId' : 1, 'type' : 1, 'statut' : 1, '_id' : 1 }")
+// Date-range filters and createdAt / poids sorting (see ColisQueryPlanner)
+@CompoundIndex(name = "createdAt_id", def = "{ 'createdAt' : 1, '_id' : 1 }")
+@CompoundIndex(name = "statut_createdAt_id", def = "{ 'statut' : 1, 'createdAt' : 1, '_id' : 1 }")
+@CompoundIndex(name = "transporteur_createdAt_id", def = "{ 'transporteurId' : 1, 'createdAt' : 1, '_id' : 1 }")
+// Colis changed since the last rollup run (see ColisRollupService)
+@CompoundIndex(name = "updatedAt_id", def = "{ 'updatedAt' : 1, '_id' : 1 }")
+@CompoundIndex(name = "type_poids_id", def = "{ 'type' : 1, 'poids' : 1, '_id' : 1 }")
+// Zone filters of the admin list
+@CompoundIndex(name = "codePostal_statut_id", def = "{ 'codePostal' : 1, 'statut' : 1, '_id' : 1 }")
+@CompoundIndex(name = "ville_statut_id", def = "{ 'ville' : 1, 'statut' : 1, '_id' : 1 }")
+@CompoundIndex(name = "waveId", def = "{ 'waveId' : 1 }", sparse = true)
 public class Colis {
     
     @Id
@@ -21,12 +44,21 @@ public class Colis {
     
     private Double poids;
     
+    @TextIndexed
     private String adresseDestination;
     
+    // Extracted from adresseDestination on every write (see AddressNormalizer); null when absent
+    private String codePostal;
+    
+    private String ville;
+    
     private StatutColis statut = StatutColis.EN_ATTENTE;
     
     private String transporteurId;
     
+    // Delivery wave the colis was grouped into while waiting; cleared when its address changes
+    private String waveId;
+    
     // Specific to FRAGILE
     private String instructionsManutention;
     
@@ -34,4 +66,27 @@ public class Colis {
     private Double temperatureMin;
     
     private Double temperatureMax;
+    
+    // Set on insert by Mongo auditing; absent on colis created before the field existed
+    @CreatedDate
+    private Instant createdAt;
+    
+    // Set by save() and by every partial update (see ColisAudit)
+    @LastModifiedDate
+    private Instant updatedAt;
+    
+    // When the colis last entered EN_TRANSIT, LIVRE and ANNULE
+    private Instant inTransitAt;
+    
+    private Instant deliveredAt;
+    
+    private Instant cancelledAt;
+    
+    // Id of the batch or dispatch bulk write that last changed the colis, read back by that
+    // write to learn which of its conditional updates applied
+    private String lastWriteId;
+    
+    // Optimistic locking; exposed as the ETag and checked against If-Match
+    @Version
+    private Long version;
 }
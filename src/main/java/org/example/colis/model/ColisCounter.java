@@ -0,0 +1,32 @@
+package org.example.colis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Number of colis with one (transporteurId, type, statut), moved with $inc by ColisCounters on
+ * every colis write. transporteurId is null for unassigned colis and "*" for the global totals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "colis_counters")
+public class ColisCounter {
+    
+    // transporteurId:type:statut
+    @Id
+    private String id;
+    
+    private String transporteurId;
+    
+    private TypeColis type;
+    
+    private StatutColis statut;
+    
+    private long count;
+}
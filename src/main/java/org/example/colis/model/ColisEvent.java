@@ -0,0 +1,40 @@
+package org.example.colis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One statut transition of a colis. Append-only: events are inserted in batches by
+ * ColisEventRecorder and never updated; the (colisId, ts) index serves the timeline.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "colis_events")
+@CompoundIndex(name = "colisId_ts", def = "{ 'colisId' : 1, 'ts' : 1 }")
+public class ColisEvent {
+    
+    @Id
+    private String id;
+    
+    private String colisId;
+    
+    private StatutColis from;
+    
+    private StatutColis to;
+    
+    // Who made the change
+    private String userId;
+    
+    private Role role;
+    
+    private Instant ts;
+}
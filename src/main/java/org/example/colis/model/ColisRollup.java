@@ -0,0 +1,45 @@
+package org.example.colis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.RollupGranularity;
+import org.example.colis.enums.TypeColis;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Colis that were created or entered EN_TRANSIT, LIVRE or ANNULE during one hour or day, for
+ * one type and transporteur. Moved with $inc by ColisRollupService; transporteurId is null for
+ * unassigned colis and "*" for all transporteurs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "colis_rollups")
+@CompoundIndex(name = "granularity_transporteur_bucket", def = "{ 'granularity' : 1, 'transporteurId' : 1, 'bucket' : 1 }")
+public class ColisRollup {
+    
+    // granularity:bucket:type:transporteurId
+    @Id
+    private String id;
+    
+    private RollupGranularity granularity;
+    
+    private Instant bucket;
+    
+    private TypeColis type;
+    
+    private String transporteurId;
+    
+    private long created;
+    
+    private long inTransit;
+    
+    private long delivered;
+    
+    private long cancelled;
+}
@@ -0,0 +1,55 @@
+package org.example.colis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.StatutWave;
+import org.example.colis.enums.TypeColis;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Waiting colis of one zone (codePostal) and one type, grouped to be assigned to a transporteur
+ * in one operation. The colis point to their wave through Colis.waveId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "delivery_waves")
+@CompoundIndex(name = "statut_createdAt", def = "{ 'statut' : 1, 'createdAt' : 1 }")
+public class DeliveryWave {
+    
+    @Id
+    private String id;
+    
+    private String codePostal;
+    
+    private String ville;
+    
+    private TypeColis type;
+    
+    private StatutWave statut = StatutWave.OUVERTE;
+    
+    // Colis grouped when the wave was built
+    private int colisCount;
+    
+    private double poidsTotal;
+    
+    private String transporteurId;
+    
+    // Colis actually assigned with the wave (some may have been assigned or edited meanwhile)
+    private Integer colisAssignes;
+    
+    @CreatedDate
+    private Instant createdAt;
+    
+    private Instant assignedAt;
+    
+    @Version
+    private Long version;
+}
@@ -0,0 +1,25 @@
+package org.example.colis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * How far the colis rollups have been computed: every milestone before processedUpTo is
+ * counted, none after it. Advanced with a compare-and-set so that one instance runs each window.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rollup_watermarks")
+public class RollupWatermark {
+    
+    @Id
+    private String id;
+    
+    private Instant processedUpTo;
+}
@@ -7,17 +7,22 @@ import org.example.colis.enums.Role;
 import org.example.colis.enums.Specialite;
 import org.example.colis.enums.StatutTransporteur;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "users")
+@CompoundIndex(name = "role_specialite", def = "{ 'role' : 1, 'specialite' : 1 }")
 public class User {
     
     @Id
     private String id;
     
+    @Indexed(name = "login_unique", unique = true)
     private String login;
     
     private String password;
@@ -26,8 +31,27 @@ public class User {
     
     private Boolean active = true;
     
+    // Incremented to revoke every token issued before the change
+    @Indexed(name = "tokenVersion")
+    private Long tokenVersion = 0L;
+    
     // Fields specific to TRANSPORTEUR
     private StatutTransporteur statut;
     
     private Specialite specialite;
+    
+    // Vehicle capacity (null = no limit)
+    private Double capacitePoidsMax;
+    
+    private Integer capaciteColisMax;
+    
+    // Open (EN_ATTENTE / EN_TRANSIT) colis assigned to the transporteur, kept up to date
+    // by TransporteurChargeLedger with $inc; never written by the user service
+    private Double chargePoids = 0.0;
+    
+    private Integer chargeColis = 0;
+    
+    // Checked on every save; also the ETag of the admin user endpoints
+    @Version
+    private Long version;
 }
@@ -0,0 +1,64 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.Colis;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Audit timestamps for the partial updates, which bypass save() and its auditing: every write
+ * sets updatedAt, and a statut change also sets the milestone of the new statut. The rollups
+ * rely on a milestone never being later than the updatedAt written with it.
+ */
+public final class ColisAudit {
+    
+    public static final String UPDATED_AT = "updatedAt";
+    
+    private ColisAudit() {
+    }
+    
+    // Field set when a colis enters statut; null for EN_ATTENTE, whose milestone is createdAt
+    public static String milestoneOf(StatutColis statut) {
+        return switch (statut) {
+            case EN_ATTENTE -> null;
+            case EN_TRANSIT -> "inTransitAt";
+            case LIVRE -> "deliveredAt";
+            case ANNULE -> "cancelledAt";
+        };
+    }
+    
+    public static Map<String, Object> audited(Map<String, Object> changes, Instant now) {
+        Map<String, Object> audited = new HashMap<>(changes);
+        audited.put(UPDATED_AT, now);
+        if (changes.get("statut") instanceof StatutColis statut && milestoneOf(statut) != null) {
+            audited.put(milestoneOf(statut), now);
+        }
+        return audited;
+    }
+    
+    // statut is null when the update does not change it
+    public static Update audited(Update update, StatutColis statut, Instant now) {
+        update.set(UPDATED_AT, now);
+        if (statut != null && milestoneOf(statut) != null) {
+            update.set(milestoneOf(statut), now);
+        }
+        return update;
+    }
+    
+    // The same timestamps on a colis held in memory
+    public static void apply(Colis colis, StatutColis statut, Instant now) {
+        colis.setUpdatedAt(now);
+        if (statut != null) {
+            switch (statut) {
+                case EN_TRANSIT -> colis.setInTransitAt(now);
+                case LIVRE -> colis.setDeliveredAt(now);
+                case ANNULE -> colis.setCancelledAt(now);
+                default -> {
+                }
+            }
+        }
+    }
+}
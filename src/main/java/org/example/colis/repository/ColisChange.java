@@ -0,0 +1,11 @@
+package org.example.colis.repository;
+
+import org.example.colis.model.Colis;
+
+/**
+ * Result of an atomic single-colis write: the document as the write found it and as it left it.
+ * Both come from the same findAndModify, so before is exactly the state that was replaced.
+ * after is null for a removal.
+ */
+public record ColisChange(Colis before, Colis after) {
+}
@@ -0,0 +1,14 @@
+package org.example.colis.repository;
+
+import org.example.colis.model.ColisEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ColisEventRepository extends MongoRepository<ColisEvent, String> {
+    
+    // Sorted by ts through the colisId_ts index
+    Page<ColisEvent> findByColisId(String colisId, Pageable pageable);
+}
@@ -0,0 +1,52 @@
+package org.example.colis.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/**
+ * Optional filters for colis listings; null fields are ignored.
+ * Bound directly from the query string of the list endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisFilter {
+    
+    private String transporteurId;
+    
+    private TypeColis type;
+    
+    private StatutColis statut;
+    
+    // Zone, as extracted from adresseDestination (ville upper case, without accents)
+    private String codePostal;
+    
+    private String ville;
+    
+    // Inclusive weight range
+    private Double poidsMin;
+    
+    private Double poidsMax;
+    
+    // Full-text search on adresseDestination
+    private String adresse;
+    
+    // createdAt range: from inclusive, to exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant createdFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant createdTo;
+    
+    public ColisFilter(String transporteurId, TypeColis type, StatutColis statut) {
+        this.transporteurId = transporteurId;
+        this.type = type;
+        this.statut = statut;
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.mapper.AddressNormalizer;
+import org.example.colis.model.Colis;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the single Mongo query for any combination of {@link ColisFilter} fields and sort,
+ * and rejects combinations that none of the indexes declared on {@link Colis} can serve,
+ * so ad-hoc listings cannot turn into collection scans.
+ *
+ * An index supports a query when its leading keys are the equality filters (transporteurId,
+ * type, statut, codePostal, ville) and the next key is the sort field or, without a sort, a
+ * range filter (poids, createdAt). Unfiltered type/statut keys in that prefix are expanded to
+ * $in over every enum value, which Mongo merges in index order.
+ */
+@Component
+public class ColisQueryPlanner {
+    
+    private static final String ID = "_id";
+    
+    private static final Map<String, List<?>> ENUM_FIELDS = Map.of(
+            "type", List.of(TypeColis.values()),
+            "statut", List.of(StatutColis.values()));
+    
+    private static final Set<String> SORTABLE = Set.of(ID, "createdAt", "poids");
+    
+    // Key names of every non-text index on colis, including the implicit _id index
+    private final List<List<String>> indexes;
+    
+    public ColisQueryPlanner(MongoMappingContext mappingContext) {
+        List<List<String>> keys = new ArrayList<>();
+        keys.add(List.of(ID));
+        for (IndexDefinition definition : IndexResolver.create(mappingContext).resolveIndexFor(Colis.class)) {
+            if (!definition.getIndexKeys().containsValue("text")) {
+                keys.add(List.copyOf(definition.getIndexKeys().keySet()));
+            }
+        }
+        this.indexes = List.copyOf(keys);
+    }
+    
+    /**
+     * Returns the query for the filter, sorted as requested (an _id tie-break is added when the
+     * index provides it). Throws BusinessException when no index supports the combination.
+     */
+    public Query plan(ColisFilter filter, Sort sort) {
+        Sort.Order order = singleOrder(sort);
+        
+        if (filter.getAdresse() != null && !filter.getAdresse().isBlank()) {
+            // The text index drives the query; results are ranked by relevance
+            if (order != null) {
+                throw new BusinessException("Address search results are ranked by relevance and cannot be sorted");
+            }
+            Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(filter.getAdresse()))
+                    .sortByScore();
+            filterCriteria(filter).forEach(query::addCriteria);
+            return query;
+        }
+        
+        Query query = new Query();
+        filterCriteria(filter).forEach(query::addCriteria);
+        
+        Set<String> equality = equalityFields(filter);
+        Set<String> ranges = rangeFields(filter);
+        String sortField = order != null ? order.getProperty() : null;
+        
+        if (equality.isEmpty() && ranges.isEmpty() && (sortField == null || ID.equals(sortField))) {
+            return order != null ? query.with(Sort.by(order)) : query;
+        }
+        
+        IndexMatch match = null;
+        for (List<String> index : indexes) {
+            IndexMatch candidate = match(index, equality, ranges, sortField);
+            if (candidate != null && (match == null || candidate.expanded().size() < match.expanded().size())) {
+                match = candidate;
+            }
+        }
+        if (match == null) {
+            throw new BusinessException("No index supports filtering on " + describe(equality, ranges)
+                    + (sortField != null ? " sorted by " + order.getProperty() : ""));
+        }
+        
+        for (String field : match.expanded()) {
+            query.addCriteria(Criteria.where(field).in(ENUM_FIELDS.get(field)));
+        }
+        if (order != null) {
+            List<Sort.Order> orders = new ArrayList<>(List.of(order));
+            if (!ID.equals(sortField) && match.hasIdAfterSort()) {
+                // Stable order for pagination when several colis share the sort value
+                orders.add(new Sort.Order(order.getDirection(), ID));
+            }
+            query.with(Sort.by(orders));
+        }
+        return query;
+    }
+    
+    // True when the filter has no condition at all (the whole collection matches)
+    public static boolean isEmpty(ColisFilter filter) {
+        return equalityFields(filter).isEmpty() && rangeFields(filter).isEmpty()
+                && (filter.getAdresse() == null || filter.getAdresse().isBlank());
+    }
+    
+    private static IndexMatch match(List<String> index, Set<String> equality, Set<String> ranges, String sortField) {
+        Set<String> remaining = new HashSet<>(equality);
+        List<String> expanded = new ArrayList<>();
+        
+        for (int prefix = 0; prefix <= index.size(); prefix++) {
+            String next = prefix < index.size() ? index.get(prefix) : null;
+            if (remaining.isEmpty() && supportsRest(index, next, equality, ranges, sortField)) {
+                boolean idAfterSort = prefix + 1 < index.size() && ID.equals(index.get(prefix + 1));
+                return new IndexMatch(List.copyOf(expanded), idAfterSort);
+            }
+            if (next == null) {
+                break;
+            }
+            if (remaining.remove(next)) {
+                continue;
+            }
+            if (ENUM_FIELDS.containsKey(next)) {
+                expanded.add(next);
+                continue;
+            }
+            break;
+        }
+        return null;
+    }
+    
+    // Once the equality prefix is consumed: the next key must be the sort field, and the scan must
+    // be bounded by an equality match or by ranges the index covers
+    private static boolean supportsRest(List<String> index, String next, Set<String> equality,
+                                        Set<String> ranges, String sortField) {
+        if (sortField != null) {
+            return sortField.equals(next) && (!equality.isEmpty() || index.containsAll(ranges));
+        }
+        return !equality.isEmpty() || ranges.contains(next);
+    }
+    
+    private static List<Criteria> filterCriteria(ColisFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter.getTransporteurId() != null) {
+            criteria.add(Criteria.where("transporteurId").is(filter.getTransporteurId()));
+        }
+        if (filter.getType() != null) {
+            criteria.add(Criteria.where("type").is(filter.getType()));
+        }
+        if (filter.getStatut() != null) {
+            criteria.add(Criteria.where("statut").is(filter.getStatut()));
+        }
+        if (filter.getCodePostal() != null) {
+            criteria.add(Criteria.where("codePostal").is(filter.getCodePostal()));
+        }
+        if (filter.getVille() != null) {
+            criteria.add(Criteria.where("ville").is(AddressNormalizer.normalizeVille(filter.getVille())));
+        }
+        if (filter.getPoidsMin() != null || filter.getPoidsMax() != null) {
+            Criteria poids = Criteria.where("poids");
+            if (filter.getPoidsMin() != null) {
+                poids.gte(filter.getPoidsMin());
+            }
+            if (filter.getPoidsMax() != null) {
+                poids.lte(filter.getPoidsMax());
+            }
+            criteria.add(poids);
+        }
+        if (filter.getCreatedFrom() != null || filter.getCreatedTo() != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (filter.getCreatedFrom() != null) {
+                createdAt.gte(filter.getCreatedFrom());
+            }
+            if (filter.getCreatedTo() != null) {
+                createdAt.lt(filter.getCreatedTo());
+            }
+            criteria.add(createdAt);
+        }
+        return criteria;
+    }
+    
+    private static Set<String> equalityFields(ColisFilter filter) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (filter.getTransporteurId() != null) {
+            fields.add("transporteurId");
+        }
+        if (filter.getType() != null) {
+            fields.add("type");
+        }
+        if (filter.getStatut() != null) {
+            fields.add("statut");
+        }
+        if (filter.getCodePostal() != null) {
+            fields.add("codePostal");
+        }
+        if (filter.getVille() != null) {
+            fields.add("ville");
+        }
+        return fields;
+    }
+    
+    private static Set<String> rangeFields(ColisFilter filter) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (filter.getPoidsMin() != null || filter.getPoidsMax() != null) {
+            fields.add("poids");
+        }
+        if (filter.getCreatedFrom() != null || filter.getCreatedTo() != null) {
+            fields.add("createdAt");
+        }
+        return fields;
+    }
+    
+    // One sort property at most, on an indexed field; "id" is accepted for _id
+    private static Sort.Order singleOrder(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return null;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() > 1) {
+            throw new BusinessException("Only one sort property is supported");
+        }
+        Sort.Order order = orders.get(0);
+        String property = "id".equals(order.getProperty()) ? ID : order.getProperty();
+        if (!SORTABLE.contains(property)) {
+            throw new BusinessException("Sorting is only supported on id, createdAt and poids");
+        }
+        return new Sort.Order(order.getDirection(), property);
+    }
+    
+    private static String describe(Set<String> equality, Set<String> ranges) {
+        Set<String> fields = new LinkedHashSet<>(equality);
+        fields.addAll(ranges);
+        return fields.isEmpty() ? "no field" : String.join(", ", fields);
+    }
+    
+    private record IndexMatch(List<String> expanded, boolean hasIdAfterSort) {
+    }
+}
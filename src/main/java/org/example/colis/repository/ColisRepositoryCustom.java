@@ -0,0 +1,67 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.model.Colis;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Filtered colis queries built by {@link ColisQueryPlanner}: any subset of {@link ColisFilter}
+ * fields in one query, rejected with a BusinessException when no index supports it.
+ */
+public interface ColisRepositoryCustom {
+    
+    // Offset page with an exact count; the pageable sort must be on id, createdAt or poids
+    Page<Colis> findMatching(ColisFilter filter, Pageable pageable);
+    
+    // Keyset page: colis matching the filter with an _id greater than afterId (null = first page), in _id order
+    default List<Colis> findAfter(ColisFilter filter, String afterId, int limit) {
+        return findAfter(filter, afterId, limit, Colis.class);
+    }
+    
+    // Same as above, read into a projection class (Colis, ColisSummaryDTO)
+    <T> List<T> findAfter(ColisFilter filter, String afterId, int limit, Class<T> view);
+    
+    // Offset page without a count query: fetches size + 1 rows to know whether a next page exists
+    default Slice<Colis> findSlice(ColisFilter filter, Pageable pageable) {
+        return findSlice(filter, pageable, Colis.class);
+    }
+    
+    <T> Slice<T> findSlice(ColisFilter filter, Pageable pageable, Class<T> view);
+    
+    // Single server-side cursor over every matching colis, fetched batchSize documents per
+    // round trip; the caller must close the stream to release the cursor
+    Stream<Colis> streamMatching(ColisFilter filter, Sort sort, int batchSize);
+    
+    // Atomic single-document writes ($set of the given fields only, one round trip, version
+    // incremented); each returns the colis before and after the write, or null when no document
+    // matched the id and the extra conditions. A non-null expectedVersion must equal the stored version
+    
+    // With a transporteurId, only that transporteur's colis can match; only legal transitions (StatutColis.next) match
+    ColisChange updateStatut(String id, String transporteurId, StatutColis statut, Long expectedVersion);
+    
+    // Only matches a colis of the given type, so the specialite check and the write are one operation;
+    // with an expectedVersion, the statut, poids and previous transporteur are also those that were read
+    ColisChange assignTransporteur(String id, String transporteurId, TypeColis type, Long expectedVersion);
+    
+    ColisChange updateFields(String id, Map<String, Object> changes, Long expectedVersion);
+    
+    ColisChange deleteIfPresent(String id);
+    
+    // Uses the collection metadata (no scan) when the filter is empty
+    long countMatching(ColisFilter filter);
+    
+    // Full-text search on adresseDestination (text index), best matches first; transporteurId is optional
+    default Page<Colis> searchByAddress(String transporteurId, String text, Pageable pageable) {
+        ColisFilter filter = new ColisFilter(transporteurId, null, null);
+        filter.setAdresse(text);
+        return findMatching(filter, pageable);
+    }
+}
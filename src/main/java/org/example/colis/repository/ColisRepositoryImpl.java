@@ -0,0 +1,160 @@
+package org.example.colis.repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.colis.dto.ColisSummaryDTO;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.model.Colis;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ColisRepositoryImpl implements ColisRepositoryCustom {
+    
+    private static final String COLLECTION = "colis";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ColisQueryPlanner queryPlanner;
+    
+    @Value("${colis.summary.address-length:40}")
+    private int summaryAddressLength;
+    
+    @Override
+    public Page<Colis> findMatching(ColisFilter filter, Pageable pageable) {
+        Query query = queryPlanner.plan(filter, pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize());
+        List<Colis> content = mongoTemplate.find(query, Colis.class);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countMatching(filter));
+    }
+    
+    @Override
+    public <T> List<T> findAfter(ColisFilter filter, String afterId, int limit, Class<T> view) {
+        Query query = queryPlanner.plan(filter, Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(afterId)));
+        }
+        return mongoTemplate.find(applyView(query, view), view, COLLECTION);
+    }
+    
+    @Override
+    public <T> Slice<T> findSlice(ColisFilter filter, Pageable pageable, Class<T> view) {
+        Query query = queryPlanner.plan(filter, pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+        List<T> rows = mongoTemplate.find(applyView(query, view), view, COLLECTION);
+        
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+    
+    @Override
+    public Stream<Colis> streamMatching(ColisFilter filter, Sort sort, int batchSize) {
+        Query query = queryPlanner.plan(filter, sort).cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, Colis.class);
+    }
+    
+    @Override
+    public ColisChange updateStatut(String id, String transporteurId, StatutColis statut, Long expectedVersion) {
+        return modify(statutQuery(id, transporteurId, statut, expectedVersion), Map.of("statut", statut));
+    }
+    
+    @Override
+    public ColisChange assignTransporteur(String id, String transporteurId, TypeColis type, Long expectedVersion) {
+        Query query = byId(id, expectedVersion).addCriteria(Criteria.where("type").is(type));
+        return modify(query, Map.of("transporteurId", transporteurId));
+    }
+    
+    @Override
+    public ColisChange updateFields(String id, Map<String, Object> changes, Long expectedVersion) {
+        return modify(byId(id, expectedVersion), changes);
+    }
+    
+    @Override
+    public ColisChange deleteIfPresent(String id) {
+        Colis removed = mongoTemplate.findAndRemove(byId(id, null), Colis.class);
+        return removed != null ? new ColisChange(removed, null) : null;
+    }
+    
+    @Override
+    public long countMatching(ColisFilter filter) {
+        if (ColisQueryPlanner.isEmpty(filter)) {
+            return mongoTemplate.estimatedCount(Colis.class);
+        }
+        return mongoTemplate.count(queryPlanner.plan(filter, Sort.unsorted()), Colis.class);
+    }
+    
+    // The transition table is part of the filter: an illegal transition matches nothing
+    static Query statutQuery(String id, String transporteurId, StatutColis statut, Long expectedVersion) {
+        Query query = byId(id, expectedVersion);
+        if (transporteurId != null) {
+            query.addCriteria(Criteria.where("transporteurId").is(transporteurId));
+        }
+        return query.addCriteria(Criteria.where("statut").in(StatutColis.sourcesOf(statut)));
+    }
+    
+    static Query byId(String id, Long expectedVersion) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        return query;
+    }
+    
+    // Partial updates bypass save(), so they bump @Version themselves
+    static Update versioned(Update update) {
+        return update.inc("version", 1);
+    }
+    
+    // findAndModify returns the document as it was before the update by default
+    private ColisChange modify(Query query, Map<String, Object> changes) {
+        Map<String, Object> audited = ColisAudit.audited(changes, Instant.now());
+        Update update = new Update();
+        audited.forEach(update::set);
+        Colis before = mongoTemplate.findAndModify(query, versioned(update), Colis.class);
+        return before != null ? new ColisChange(before, applied(mongoTemplate.getConverter(), before, audited)) : null;
+    }
+    
+    // The updated document, rebuilt from before rather than read again
+    static Colis applied(MongoConverter converter, Colis before, Map<String, Object> changes) {
+        Document document = new Document();
+        converter.write(before, document);
+        changes.forEach((field, value) -> document.put(field, converter.convertToMongoType(value)));
+        document.put("version", before.getVersion() != null ? before.getVersion() + 1 : 1L);
+        return converter.read(Colis.class, document);
+    }
+    
+    // Summary rows only decode the fields they show, and the address is cut by Mongo ($substrCP)
+    // so long addresses never reach the application
+    private Query applyView(Query query, Class<?> view) {
+        if (view == ColisSummaryDTO.class) {
+            query.fields()
+                    .include("type", "statut", "transporteurId")
+                    .project(MongoExpression.create(
+                            "{ '$substrCP' : [ '$adresseDestination', 0, " + summaryAddressLength + " ] }"))
+                    .as("adresseDestination");
+        }
+        return query;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.StatutWave;
+import org.example.colis.model.DeliveryWave;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DeliveryWaveRepository extends MongoRepository<DeliveryWave, String> {
+    
+    Page<DeliveryWave> findByStatut(StatutWave statut, Pageable pageable);
+}
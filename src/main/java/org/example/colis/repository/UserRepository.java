@@ -6,12 +6,14 @@ import org.example.colis.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     
     Optional<User> findByLogin(String login);
     
@@ -20,4 +22,8 @@ public interface UserRepository extends MongoRepository<User, String> {
     Page<User> findByRole(Role role, Pageable pageable);
     
     Page<User> findByRoleAndSpecialite(Role role, Specialite specialite, Pageable pageable);
+    
+    // Only id and tokenVersion are read, for the in-memory revocation map
+    @Query(value = "{ 'tokenVersion' : { $gt : 0 } }", fields = "{ 'tokenVersion' : 1 }")
+    List<User> findTokenVersions();
 }
@@ -0,0 +1,15 @@
+package org.example.colis.repository;
+
+import org.example.colis.model.User;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    
+    // Keyset page: users with an _id greater than afterId (null = first page), in _id order
+    List<User> findAfter(String afterId, int limit);
+    
+    // save() of an existing user that leaves chargePoids / chargeColis to TransporteurChargeLedger;
+    // fails with OptimisticLockingFailureException when the user changed since it was read
+    User saveExceptCharge(User user);
+}
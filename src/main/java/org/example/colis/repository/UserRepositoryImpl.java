@@ -0,0 +1,55 @@
+package org.example.colis.repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.colis.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Set;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    // Never written by saveExceptCharge: the key, the version it bumps and the ledger counters
+    private static final Set<String> UNSAVED_FIELDS = Set.of("_id", "_class", "version", "chargePoids", "chargeColis");
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<User> findAfter(String afterId, int limit) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(afterId)));
+        }
+        return mongoTemplate.find(query, User.class);
+    }
+    
+    @Override
+    public User saveExceptCharge(User user) {
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(user, fields);
+        Update update = new Update();
+        fields.forEach((field, value) -> {
+            if (!UNSAVED_FIELDS.contains(field)) {
+                update.set(field, value);
+            }
+        });
+        Query query = new Query(Criteria.where("_id").is(user.getId()).and("version").is(user.getVersion()));
+        User saved = mongoTemplate.findAndModify(query, update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (saved == null) {
+            throw new OptimisticLockingFailureException("User " + user.getId() + " was modified concurrently");
+        }
+        return saved;
+    }
+}
@@ -1,58 +1,54 @@
 package org.example.colis.security;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.example.colis.model.User;
-import org.example.colis.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Optional;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
+
     @Autowired
     private JwtUtil jwtUtil;
-    
+
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Autowired
-    private UserRepository userRepository;
-    
+    private JwtAuthenticator jwtAuthenticator;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        
+
         String authHeader = request.getHeader("Authorization");
-        
+
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            
+
             try {
-                String username = jwtUtil.extractUsername(token);
-                
+                DecodedJWT jwt = jwtUtil.validateToken(token);
+                String username = jwt.getSubject();
+
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    Optional<User> userOptional = userRepository.findByLoginAndActiveTrue(username);
-                    
-                    if (userOptional.isPresent()) {
-                        User user = userOptional.get();
-                        
-                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                user,
-                                null,
-                                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-                        );
-                        
+                    UsernamePasswordAuthenticationToken authentication = jwtAuthenticator.isStateless()
+                            ? jwtAuthenticator.fromClaims(jwt)
+                            : jwtAuthenticator.fromPrincipal(jwt, principalCache.get(username));
+
+                    if (authentication != null) {
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                     }
@@ -61,7 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 logger.error("JWT validation failed: " + e.getMessage());
             }
         }
-        
+
         filterChain.doFilter(request, response);
     }
 }
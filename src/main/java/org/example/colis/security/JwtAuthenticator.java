@@ -0,0 +1,90 @@
+package org.example.colis.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.example.colis.enums.Role;
+import org.example.colis.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Turns a verified JWT into an authentication, shared by the servlet and reactive filters.
+ * In stateless mode the principal comes from the claims alone; otherwise from the
+ * {@link PrincipalCache} entry the caller looked up (how it looks it up depends on the stack).
+ */
+@Component
+public class JwtAuthenticator {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticator.class);
+
+    // Authorities are immutable, so one list per role is shared by all requests
+    private static final Map<Role, List<GrantedAuthority>> ROLE_AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            ROLE_AUTHORITIES.put(role, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    // When true the principal is built from the JWT claims alone, without any Mongo lookup
+    @Value("${security.auth.stateless:false}")
+    private boolean stateless;
+
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    // Null when the account is unknown or disabled, or the token was revoked
+    public UsernamePasswordAuthenticationToken fromPrincipal(DecodedJWT jwt,
+                                                             Optional<PrincipalCache.CachedPrincipal> principal) {
+        if (principal.isEmpty()) {
+            return null;
+        }
+        if (JwtUtil.extractTokenVersion(jwt) < JwtUtil.tokenVersion(principal.get().user())) {
+            log.debug("Rejected revoked token for {}", jwt.getSubject());
+            return null;
+        }
+
+        return new UsernamePasswordAuthenticationToken(
+                principal.get().user(),
+                null,
+                principal.get().authorities()
+        );
+    }
+
+    public UsernamePasswordAuthenticationToken fromClaims(DecodedJWT jwt) {
+        String userId = jwt.getClaim(JwtUtil.USER_ID_CLAIM).asString();
+        String role = jwt.getClaim(JwtUtil.ROLE_CLAIM).asString();
+
+        // Tokens issued before the uid claim existed cannot be checked for revocation
+        if (userId == null || role == null) {
+            return null;
+        }
+        if (!tokenEpochRegistry.isCurrent(userId, JwtUtil.extractTokenVersion(jwt))) {
+            log.debug("Rejected revoked token for {}", jwt.getSubject());
+            return null;
+        }
+
+        User user = new User();
+        user.setId(userId);
+        user.setLogin(jwt.getSubject());
+        user.setRole(Role.valueOf(role));
+        user.setTokenVersion(JwtUtil.extractTokenVersion(jwt));
+
+        return new UsernamePasswordAuthenticationToken(user, null, ROLE_AUTHORITIES.get(user.getRole()));
+    }
+}
@@ -1,54 +1,129 @@
 package org.example.colis.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
 import org.example.colis.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
-    
+
     @Value("${jwt.secret}")
     private String secret;
-    
+
     @Value("${jwt.expiration}")
     private Long expiration;
-    
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
     private static final String ISSUER = "colis-api";
-    private static final String ROLE_CLAIM = "role";
-    
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    // Both are immutable and thread-safe, so they are built once and shared
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    // Already-verified tokens keyed by SHA-256 digest; each entry expires with its token
+    private Cache<String, DecodedJWT> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, DecodedJWT>() {
+                    @Override
+                    public long expireAfterCreate(String key, DecodedJWT jwt, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(0, jwt.getExpiresAt().getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateToken(User user) {
-        Algorithm algorithm = Algorithm.HMAC256(secret);
-        
         return JWT.create()
                 .withIssuer(ISSUER)
                 .withSubject(user.getLogin())
                 .withClaim(ROLE_CLAIM, user.getRole().name())
+                .withClaim(USER_ID_CLAIM, user.getId())
+                .withClaim(TOKEN_VERSION_CLAIM, tokenVersion(user))
                 .withExpiresAt(new Date(System.currentTimeMillis() + expiration))
                 .sign(algorithm);
     }
-    
+
     public DecodedJWT validateToken(String token) throws JWTVerificationException {
-        Algorithm algorithm = Algorithm.HMAC256(secret);
-        
-        return JWT.require(algorithm)
-                .withIssuer(ISSUER)
-                .build()
-                .verify(token);
+        String digest = digest(token);
+        DecodedJWT cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Failures are never cached: a bad token always goes through the verifier
+        DecodedJWT jwt = verifier.verify(token);
+        if (jwt.getExpiresAt() != null) {
+            verifiedTokens.put(digest, jwt);
+        }
+        return jwt;
     }
-    
+
     public String extractUsername(String token) {
         DecodedJWT jwt = validateToken(token);
         return jwt.getSubject();
     }
-    
+
     public String extractRole(String token) {
         DecodedJWT jwt = validateToken(token);
         return jwt.getClaim(ROLE_CLAIM).asString();
     }
+
+    // Tokens issued before versioning carry no claim and count as version 0
+    public static long extractTokenVersion(DecodedJWT jwt) {
+        Long version = jwt.getClaim(TOKEN_VERSION_CLAIM).asLong();
+        return version != null ? version : 0L;
+    }
+
+    public static long tokenVersion(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0L;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
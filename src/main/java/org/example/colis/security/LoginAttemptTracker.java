@@ -0,0 +1,147 @@
+package org.example.colis.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks login outcomes: global Micrometer counters, bounded per-login counters
+ * (exposed on /actuator/logins) and a short-lived cache of rejected credentials
+ * so that repeating the same bad password does not cost another BCrypt check.
+ */
+@Component
+@Endpoint(id = "logins")
+public class LoginAttemptTracker {
+
+    private static final int TOP_LOGINS = 20;
+
+    // Keyed by login + HMAC of the password; the HMAC key only lives in this process
+    private final Cache<String, Boolean> failedCredentials;
+
+    private final Cache<String, LoginStats> perLogin;
+
+    private final SecretKey digestKey;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter cachedFailures;
+    private final Counter rejected;
+
+    public LoginAttemptTracker(MeterRegistry meterRegistry,
+                               @Value("${auth.login.failure-cache.max-size:10000}") long failureCacheSize,
+                               @Value("${auth.login.failure-cache.ttl:PT5M}") Duration failureCacheTtl,
+                               @Value("${auth.login.stats.max-logins:10000}") long maxTrackedLogins) {
+        this.failedCredentials = Caffeine.newBuilder()
+                .maximumSize(failureCacheSize)
+                .expireAfterWrite(failureCacheTtl)
+                .build();
+        this.perLogin = Caffeine.newBuilder()
+                .maximumSize(maxTrackedLogins)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+        try {
+            this.digestKey = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+        this.successes = counter(meterRegistry, "success");
+        this.failures = counter(meterRegistry, "failure");
+        this.cachedFailures = counter(meterRegistry, "cached_failure");
+        this.rejected = counter(meterRegistry, "rejected");
+    }
+
+    public boolean isKnownFailure(String login, String password) {
+        return failedCredentials.getIfPresent(credentialKey(login, password)) != null;
+    }
+
+    public void recordSuccess(String login) {
+        successes.increment();
+        stats(login).successes.increment();
+    }
+
+    public void recordFailure(String login, String password) {
+        failedCredentials.put(credentialKey(login, password), Boolean.TRUE);
+        failures.increment();
+        stats(login).failures.increment();
+    }
+
+    public void recordCachedFailure(String login) {
+        cachedFailures.increment();
+        stats(login).failures.increment();
+    }
+
+    public void recordRejected(String login) {
+        rejected.increment();
+        stats(login).rejected.increment();
+    }
+
+    // A changed password may turn a previously failed attempt into a valid one
+    public void clearFailures(String login) {
+        String prefix = login + ':';
+        failedCredentials.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Long>> topFailingLogins() {
+        Map<String, Map<String, Long>> top = new LinkedHashMap<>();
+        perLogin.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, LoginStats> e) -> e.getValue().failures.sum()).reversed())
+                .limit(TOP_LOGINS)
+                .forEach(e -> top.put(e.getKey(), e.getValue().toMap()));
+        return top;
+    }
+
+    private LoginStats stats(String login) {
+        return perLogin.get(login, key -> new LoginStats());
+    }
+
+    private String credentialKey(String login, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(digestKey);
+            byte[] digest = mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+            return login + ':' + Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.login.attempts")
+                .description("Login attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static class LoginStats {
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put("successes", successes.sum());
+            map.put("failures", failures.sum());
+            map.put("rejected", rejected.sum());
+            return map;
+        }
+    }
+}
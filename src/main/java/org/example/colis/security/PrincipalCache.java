@@ -0,0 +1,107 @@
+package org.example.colis.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.colis.model.User;
+import org.example.colis.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by login.
+ * Avoids a Mongo round trip on every authenticated request; entries are
+ * evicted by {@link org.example.colis.service.UserService} whenever an account changes.
+ * Entries are futures so that a miss queries Mongo outside the cache's map lock (a virtual
+ * thread would otherwise pin its carrier for the whole query); concurrent misses for the same
+ * login still share one query.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String CACHE_NAME = "principals";
+
+    private final UserRepository userRepository;
+
+    private final AsyncCache<String, CachedPrincipal> cache;
+
+    private final Counter invalidations;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.invalidations = Counter.builder("cache.invalidations")
+                .description("Explicit invalidations after account changes")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Returns the active user for this login, loading it from Mongo on a miss.
+    // Inactive or unknown logins are not cached.
+    public Optional<CachedPrincipal> get(String login) {
+        CompletableFuture<CachedPrincipal> cached = cache.getIfPresent(login);
+        if (cached != null) {
+            return Optional.ofNullable(cached.join());
+        }
+        CompletableFuture<CachedPrincipal> loading = new CompletableFuture<>();
+        CompletableFuture<CachedPrincipal> concurrent = cache.asMap().putIfAbsent(login, loading);
+        if (concurrent != null) {
+            return Optional.ofNullable(concurrent.join());
+        }
+        // A null or failed result is dropped from the cache by Caffeine; an evict() meanwhile
+        // removes the pending entry, so a stale load is never kept
+        try {
+            CachedPrincipal principal = load(login);
+            loading.complete(principal);
+            return Optional.ofNullable(principal);
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Never touches Mongo: empty on a miss or while a load is pending, for callers that must not block (reactive stack)
+    public Optional<CachedPrincipal> getIfPresent(String login) {
+        CompletableFuture<CachedPrincipal> cached = cache.getIfPresent(login);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cached.join());
+    }
+
+    public void evict(String login) {
+        if (login != null) {
+            cache.synchronous().invalidate(login);
+            invalidations.increment();
+        }
+    }
+
+    private CachedPrincipal load(String login) {
+        return userRepository.findByLoginAndActiveTrue(login)
+                .map(user -> new CachedPrincipal(
+                        user,
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))))
+                .orElse(null);
+    }
+
+    public record CachedPrincipal(User user, List<GrantedAuthority> authorities) {
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.colis.security;
+
+import org.example.colis.model.RevokedToken;
+import org.example.colis.model.User;
+import org.example.colis.repository.RevokedTokenRepository;
+import org.example.colis.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory map of per-user token epochs used by the stateless authentication mode.
+ * Only users whose epoch was bumped at least once are tracked, so the map stays small.
+ * Local bumps apply immediately; bumps made on other instances are picked up by the
+ * periodic refresh from the users collection, and from revoked_tokens for deleted users.
+ */
+@Component
+public class TokenEpochRegistry {
+
+    private final UserRepository userRepository;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final boolean stateless;
+
+    private final long tokenLifetimeMs;
+
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+
+    public TokenEpochRegistry(UserRepository userRepository,
+                              RevokedTokenRepository revokedTokenRepository,
+                              @Value("${security.auth.stateless:false}") boolean stateless,
+                              @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.userRepository = userRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.stateless = stateless;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    // A token is current when its version is not older than the user's epoch
+    public boolean isCurrent(String userId, long tokenVersion) {
+        return tokenVersion >= epochs.getOrDefault(userId, 0L);
+    }
+
+    public void advance(String userId, long epoch) {
+        epochs.merge(userId, epoch, Math::max);
+    }
+
+    // For users whose document is deleted: kept in Mongo as long as a token issued now could live
+    public void revoke(String userId, long epoch) {
+        revokedTokenRepository.save(new RevokedToken(userId, epoch, Instant.now().plusMillis(tokenLifetimeMs)));
+        advance(userId, epoch);
+    }
+
+    @Scheduled(fixedDelayString = "${security.token-epoch.refresh-ms:30000}")
+    public void refresh() {
+        if (!stateless) {
+            return;
+        }
+        for (User user : userRepository.findTokenVersions()) {
+            advance(user.getId(), JwtUtil.tokenVersion(user));
+        }
+        for (RevokedToken revoked : revokedTokenRepository.findAll()) {
+            advance(revoked.getId(), revoked.getEpoch());
+        }
+    }
+}
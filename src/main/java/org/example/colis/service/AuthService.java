@@ -1,37 +1,67 @@
 package org.example.colis.service;
 
+import org.example.colis.config.LoginExecutor;
 import org.example.colis.dto.LoginRequest;
 import org.example.colis.dto.LoginResponse;
+import org.example.colis.exception.TooManyRequestsException;
 import org.example.colis.exception.UnauthorizedException;
 import org.example.colis.model.User;
 import org.example.colis.repository.UserRepository;
 import org.example.colis.security.JwtUtil;
+import org.example.colis.security.LoginAttemptTracker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 public class AuthService {
-    
+
     @Autowired
     private UserRepository userRepository;
-    
+
     @Autowired
     private PasswordEncoder passwordEncoder;
-    
+
     @Autowired
     private JwtUtil jwtUtil;
-    
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private LoginExecutor loginExecutor;
+
+    // Runs the login on the dedicated BCrypt executor, failing fast when it is saturated
+    public CompletableFuture<LoginResponse> loginAsync(LoginRequest request) {
+        try {
+            return loginExecutor.supply(() -> login(request));
+        } catch (RejectedExecutionException e) {
+            loginAttemptTracker.recordRejected(request.getLogin());
+            throw new TooManyRequestsException("Too many concurrent logins, please retry");
+        }
+    }
+
     public LoginResponse login(LoginRequest request) {
+        // The same bad password was rejected recently: skip the BCrypt check
+        if (loginAttemptTracker.isKnownFailure(request.getLogin(), request.getPassword())) {
+            loginAttemptTracker.recordCachedFailure(request.getLogin());
+            throw new UnauthorizedException("Invalid credentials");
+        }
+
         User user = userRepository.findByLoginAndActiveTrue(request.getLogin())
                 .orElseThrow(() -> new UnauthorizedException("Invalid credentials or account disabled"));
-        
+
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            loginAttemptTracker.recordFailure(request.getLogin(), request.getPassword());
             throw new UnauthorizedException("Invalid credentials");
         }
-        
+
+        loginAttemptTracker.recordSuccess(request.getLogin());
         String token = jwtUtil.generateToken(user);
-        
+
         return new LoginResponse(token, user.getLogin(), user.getRole().name());
     }
 }
@@ -0,0 +1,98 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.TypeColis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Spreads the work: one priority queue of waiting colis per type (oldest first) and one min-heap
+ * of transporteurs per specialite ordered by open colis. Each colis goes to the least loaded
+ * transporteur with room for its poids, until the queue is empty or every vehicle is full.
+ */
+public class BalancedDispatchPlanner implements DispatchPlanner {
+
+    // Colis created before auditing have no createdAt and are the oldest
+    private static final Comparator<WaitingColis> OLDEST_FIRST = Comparator
+            .comparing(WaitingColis::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(WaitingColis::id);
+
+    private static final Comparator<Slot> LEAST_LOADED = Comparator
+            .comparingInt((Slot slot) -> slot.load)
+            .thenComparing(slot -> slot.transporteurId);
+
+    private final int maxLoad;
+
+    public BalancedDispatchPlanner(int maxLoad) {
+        if (maxLoad < 1) {
+            throw new IllegalArgumentException("maxLoad must be positive");
+        }
+        this.maxLoad = maxLoad;
+    }
+
+    @Override
+    public List<Assignment> plan(Collection<WaitingColis> waiting, Collection<Candidate> transporteurs) {
+        Map<TypeColis, PriorityQueue<WaitingColis>> queues = new EnumMap<>(TypeColis.class);
+        for (WaitingColis colis : waiting) {
+            queues.computeIfAbsent(colis.type(), type -> new PriorityQueue<>(OLDEST_FIRST)).add(colis);
+        }
+
+        Map<Specialite, PriorityQueue<Slot>> heaps = new EnumMap<>(Specialite.class);
+        for (Candidate candidate : transporteurs) {
+            Slot slot = new Slot(candidate, maxLoad);
+            if (candidate.specialite() != null && slot.load < slot.limit) {
+                heaps.computeIfAbsent(candidate.specialite(), specialite -> new PriorityQueue<>(LEAST_LOADED)).add(slot);
+            }
+        }
+
+        List<Assignment> assignments = new ArrayList<>(waiting.size());
+        List<Slot> tooSmall = new ArrayList<>();
+        queues.forEach((type, queue) -> {
+            PriorityQueue<Slot> heap = heaps.get(ColisService.mapTypeToSpecialite(type));
+            while (heap != null && !heap.isEmpty() && !queue.isEmpty()) {
+                WaitingColis colis = queue.poll();
+                // Vehicles without room for this poids are skipped for this colis only
+                Slot slot = heap.poll();
+                while (slot != null && slot.poidsLeft < colis.poids()) {
+                    tooSmall.add(slot);
+                    slot = heap.poll();
+                }
+                heap.addAll(tooSmall);
+                tooSmall.clear();
+                if (slot == null) {
+                    continue;
+                }
+                assignments.add(new Assignment(colis, slot.transporteurId));
+                slot.poidsLeft -= colis.poids();
+                if (++slot.load < slot.limit) {
+                    heap.add(slot);
+                }
+            }
+        });
+        return assignments;
+    }
+
+    private static final class Slot {
+
+        private final String transporteurId;
+
+        private final int limit;
+
+        private int load;
+
+        private double poidsLeft;
+
+        private Slot(Candidate candidate, int defaultMaxLoad) {
+            this.transporteurId = candidate.id();
+            this.limit = candidate.colisLimit(defaultMaxLoad);
+            this.load = candidate.chargeColis();
+            this.poidsLeft = candidate.poidsLeft();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.TypeColis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Fills vehicles: best-fit decreasing bin packing per specialite. Colis are taken heaviest
+ * first (oldest first on equal poids) and each goes to the compatible vehicle with the least
+ * remaining poids that still fits it, so few vehicles are used and large ones stay free for
+ * heavy colis. The vehicles of a specialite sit in a tree ordered by remaining poids, which
+ * makes each placement O(log transporteurs).
+ */
+public class CapacityPlanner implements DispatchPlanner {
+
+    private static final Comparator<WaitingColis> HEAVIEST_FIRST = Comparator
+            .comparingDouble(WaitingColis::poids).reversed()
+            .thenComparing(WaitingColis::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(WaitingColis::id);
+
+    private static final Comparator<Bin> LEAST_ROOM = Comparator
+            .comparingDouble((Bin bin) -> bin.poidsLeft)
+            .thenComparing(bin -> bin.transporteurId);
+
+    private final int defaultMaxColis;
+
+    public CapacityPlanner(int defaultMaxColis) {
+        if (defaultMaxColis < 1) {
+            throw new IllegalArgumentException("defaultMaxColis must be positive");
+        }
+        this.defaultMaxColis = defaultMaxColis;
+    }
+
+    @Override
+    public List<Assignment> plan(Collection<WaitingColis> waiting, Collection<Candidate> transporteurs) {
+        Map<Specialite, TreeSet<Bin>> bins = new EnumMap<>(Specialite.class);
+        for (Candidate candidate : transporteurs) {
+            Bin bin = new Bin(candidate, defaultMaxColis);
+            if (candidate.specialite() != null && bin.colisLeft > 0 && bin.poidsLeft > 0) {
+                bins.computeIfAbsent(candidate.specialite(), specialite -> new TreeSet<>(LEAST_ROOM)).add(bin);
+            }
+        }
+
+        Map<TypeColis, List<WaitingColis>> byType = new EnumMap<>(TypeColis.class);
+        for (WaitingColis colis : waiting) {
+            byType.computeIfAbsent(colis.type(), type -> new ArrayList<>()).add(colis);
+        }
+
+        List<Assignment> assignments = new ArrayList<>(waiting.size());
+        Bin probe = new Bin();
+        byType.forEach((type, colisOfType) -> {
+            TreeSet<Bin> open = bins.get(ColisService.mapTypeToSpecialite(type));
+            if (open == null) {
+                return;
+            }
+            colisOfType.sort(HEAVIEST_FIRST);
+            for (WaitingColis colis : colisOfType) {
+                if (open.isEmpty()) {
+                    break;
+                }
+                // Smallest remaining poids >= colis poids (the probe id sorts before any real one)
+                probe.poidsLeft = colis.poids();
+                Bin bin = open.ceiling(probe);
+                if (bin == null) {
+                    continue;
+                }
+                open.remove(bin);
+                assignments.add(new Assignment(colis, bin.transporteurId));
+                bin.poidsLeft -= colis.poids();
+                if (--bin.colisLeft > 0) {
+                    open.add(bin);
+                }
+            }
+        });
+        return assignments;
+    }
+
+    private static final class Bin {
+
+        private final String transporteurId;
+
+        private int colisLeft;
+
+        private double poidsLeft;
+
+        private Bin() {
+            this.transporteurId = "";
+        }
+
+        private Bin(Candidate candidate, int defaultMaxColis) {
+            this.transporteurId = candidate.id();
+            this.colisLeft = candidate.colisLimit(defaultMaxColis) - candidate.chargeColis();
+            this.poidsLeft = candidate.poidsLeft();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package org.example.colis.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.example.colis.dto.BatchAssignRequest;
+import org.example.colis.dto.BatchIdsRequest;
+import org.example.colis.dto.BatchStatutRequest;
+import org.example.colis.dto.ColisBatchResponse;
+import org.example.colis.dto.ColisBatchResponse.ItemResult;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisAudit;
+import org.example.colis.repository.ColisRepository;
+import org.example.colis.repository.UserRepository;
+import org.example.colis.service.TransporteurChargeLedger.Deltas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Admin operations on many colis at once. Each operation loads the referenced colis (and
+ * transporteurs) with one $in query, applies the same rules as the single-item endpoints in
+ * memory, and writes every accepted change in one unordered bulk write. One item failing
+ * never fails the others; an item whose colis changed after it was read fails with 409.
+ */
+@Service
+public class ColisBatchService {
+    
+    @Autowired
+    private ColisRepository colisRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ColisMapper colisMapper;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Autowired
+    private ColisEventRecorder eventRecorder;
+    
+    @Autowired
+    private ColisCounters colisCounters;
+    
+    @Value("${colis.batch.max-size:1000}")
+    private int maxSize;
+    
+    public ColisBatchResponse getColis(BatchIdsRequest request) {
+        checkSize(request.getIds().size());
+        Map<String, Colis> colis = loadColis(request.getIds());
+        
+        List<ItemResult> results = new ArrayList<>(request.getIds().size());
+        for (String id : request.getIds()) {
+            Colis found = colis.get(id);
+            results.add(found != null ? ItemResult.ok(id, colisMapper.toDTO(found)) : notFound(id));
+        }
+        return ColisBatchResponse.of(results);
+    }
+    
+    public ColisBatchResponse assignColis(BatchAssignRequest request) {
+        List<BatchAssignRequest.Item> items = request.getItems();
+        checkSize(items.size());
+        Map<String, Colis> colis = loadColis(items.stream().map(BatchAssignRequest.Item::getColisId).toList());
+        Map<String, User> transporteurs = byId(userRepository.findAllById(
+                items.stream().map(BatchAssignRequest.Item::getTransporteurId).distinct().toList()), User::getId);
+        
+        ItemResult[] results = new ItemResult[items.size()];
+        Set<String> seen = new HashSet<>();
+        // Capacity is checked against the charges read above, then reserved per transporteur
+        Map<String, Reservation> reservations = new HashMap<>();
+        Map<Integer, Reservation> reservedBy = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchAssignRequest.Item item = items.get(i);
+            Colis target = colis.get(item.getColisId());
+            User transporteur = transporteurs.get(item.getTransporteurId());
+            if (target == null) {
+                results[i] = notFound(item.getColisId());
+                continue;
+            }
+            if (!seen.add(target.getId())) {
+                results[i] = duplicate(target.getId());
+                continue;
+            }
+            if (transporteur == null) {
+                results[i] = ItemResult.failed(item.getColisId(), 404,
+                        "Transporteur not found with id: " + item.getTransporteurId());
+                continue;
+            }
+            try {
+                ColisService.checkAssignable(target, transporteur);
+            } catch (BusinessException e) {
+                results[i] = ItemResult.failed(item.getColisId(), 400, e.getMessage());
+                continue;
+            }
+            if (TransporteurChargeLedger.isOpen(target.getStatut()) && !transporteur.getId().equals(target.getTransporteurId())) {
+                Reservation reservation = reservations.computeIfAbsent(transporteur.getId(), id -> new Reservation(transporteur));
+                if (!reservation.fits(target)) {
+                    results[i] = ItemResult.failed(item.getColisId(), 400,
+                            "Transporteur " + transporteur.getLogin() + " has no capacity left for this colis");
+                    continue;
+                }
+                reservation.add(target);
+                reservedBy.put(i, reservation);
+            }
+        }
+        
+        Deltas adjustments = new Deltas();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.count == 0) {
+                continue;
+            }
+            reservation.granted = chargeLedger.reserve(reservation.transporteurId, reservation.poids, reservation.count);
+            if (reservation.granted) {
+                adjustments.add(reservation.transporteurId, -reservation.poids, -reservation.count);
+            }
+        }
+        
+        PendingWrites writes = new PendingWrites();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Colis target = colis.get(items.get(i).getColisId());
+            Reservation reservation = reservedBy.get(i);
+            if (reservation != null && !reservation.granted) {
+                results[i] = ItemResult.failed(target.getId(), 409,
+                        "The charge of the transporteur changed concurrently, please retry");
+                continue;
+            }
+            String transporteurId = items.get(i).getTransporteurId();
+            writes.add(i, target, ColisAudit.audited(Update.update("transporteurId", transporteurId), null, writes.now),
+                    colisToChange -> {
+                        colisToChange.setTransporteurId(transporteurId);
+                        ColisAudit.apply(colisToChange, null, writes.now);
+                    }, results);
+        }
+        writes.execute(results, adjustments);
+        return ColisBatchResponse.of(Arrays.asList(results));
+    }
+    
+    public ColisBatchResponse updateStatut(User currentUser, BatchStatutRequest request) {
+        List<BatchStatutRequest.Item> items = request.getItems();
+        checkSize(items.size());
+        Map<String, Colis> colis = loadColis(items.stream().map(BatchStatutRequest.Item::getColisId).toList());
+        
+        ItemResult[] results = new ItemResult[items.size()];
+        // The write is conditioned on the version read, so the statut checked here is the one replaced
+        StatutColis[] previous = new StatutColis[items.size()];
+        Set<String> seen = new HashSet<>();
+        PendingWrites writes = new PendingWrites();
+        for (int i = 0; i < items.size(); i++) {
+            BatchStatutRequest.Item item = items.get(i);
+            Colis target = colis.get(item.getColisId());
+            if (target == null) {
+                results[i] = notFound(item.getColisId());
+                continue;
+            }
+            if (!seen.add(target.getId())) {
+                results[i] = duplicate(target.getId());
+                continue;
+            }
+            if (!target.getStatut().canBecome(item.getStatut())) {
+                results[i] = ItemResult.failed(target.getId(), 409, "Colis cannot go from " + target.getStatut()
+                        + " to " + item.getStatut());
+                continue;
+            }
+            previous[i] = target.getStatut();
+            writes.add(i, target, ColisAudit.audited(Update.update("statut", item.getStatut()), item.getStatut(), writes.now),
+                    colisToChange -> {
+                        colisToChange.setStatut(item.getStatut());
+                        ColisAudit.apply(colisToChange, item.getStatut(), writes.now);
+                    }, results);
+        }
+        writes.execute(results, new Deltas());
+        for (int i = 0; i < items.size(); i++) {
+            if (previous[i] != null && results[i].getStatus() == 200) {
+                eventRecorder.record(results[i].getId(), previous[i], items.get(i).getStatut(), currentUser);
+            }
+        }
+        return ColisBatchResponse.of(Arrays.asList(results));
+    }
+    
+    public ColisBatchResponse deleteColis(BatchIdsRequest request) {
+        checkSize(request.getIds().size());
+        // Only what the charges and counters need, plus the version the removal is conditioned on
+        Query existingColis = query(where("_id").in(request.getIds()));
+        existingColis.fields().include("transporteurId", "type", "statut", "poids", "version");
+        Map<String, Colis> existing = byId(mongoTemplate.find(existingColis, Colis.class), Colis::getId);
+        
+        Set<String> changed = new HashSet<>();
+        if (!existing.isEmpty()) {
+            List<Criteria> unchanged = existing.values().stream()
+                    .map(colis -> where("_id").is(colis.getId()).and("version").is(colis.getVersion()))
+                    .toList();
+            mongoTemplate.remove(new Query(new Criteria().orOperator(unchanged)), Colis.class);
+            
+            // Still there: modified between the read and the removal
+            Query remaining = query(where("_id").in(existing.keySet()));
+            remaining.fields().include("_id");
+            mongoTemplate.find(remaining, Colis.class).forEach(colis -> changed.add(colis.getId()));
+            
+            Deltas released = new Deltas();
+            ColisCounters.Changes removed = new ColisCounters.Changes();
+            existing.values().stream()
+                    .filter(colis -> !changed.contains(colis.getId()))
+                    .forEach(colis -> {
+                        released.remove(colis);
+                        removed.remove(colis);
+                    });
+            chargeLedger.apply(released);
+            colisCounters.apply(removed);
+        }
+        
+        List<ItemResult> results = new ArrayList<>(request.getIds().size());
+        for (String id : request.getIds()) {
+            if (!existing.containsKey(id)) {
+                results.add(notFound(id));
+            } else if (changed.contains(id)) {
+                results.add(ItemResult.failed(id, 409, "Colis was modified concurrently, please retry"));
+            } else {
+                results.add(new ItemResult(id, 204, null, null));
+            }
+        }
+        return ColisBatchResponse.of(results);
+    }
+    
+    private void checkSize(int size) {
+        if (size > maxSize) {
+            throw new BusinessException("A batch is limited to " + maxSize + " items");
+        }
+    }
+    
+    private Map<String, Colis> loadColis(Collection<String> ids) {
+        return byId(colisRepository.findAllById(ids.stream().distinct().toList()), Colis::getId);
+    }
+    
+    private static <T> Map<String, T> byId(Iterable<T> entities, Function<T, String> id) {
+        Map<String, T> map = new HashMap<>();
+        entities.forEach(entity -> map.put(id.apply(entity), entity));
+        return map;
+    }
+    
+    private static ItemResult notFound(String id) {
+        return ItemResult.failed(id, 404, "Colis not found with id: " + id);
+    }
+    
+    private static ItemResult duplicate(String id) {
+        return ItemResult.failed(id, 400, "Colis " + id + " appears more than once in the batch");
+    }
+    
+    // Capacity taken by the items of one transporteur, checked in memory first
+    private static class Reservation {
+        
+        private final String transporteurId;
+        private final Double capacitePoidsMax;
+        private final Integer capaciteColisMax;
+        private final double chargePoids;
+        private final int chargeColis;
+        private double poids;
+        private int count;
+        private boolean granted;
+        
+        Reservation(User transporteur) {
+            this.transporteurId = transporteur.getId();
+            this.capacitePoidsMax = transporteur.getCapacitePoidsMax();
+            this.capaciteColisMax = transporteur.getCapaciteColisMax();
+            this.chargePoids = transporteur.getChargePoids() != null ? transporteur.getChargePoids() : 0.0;
+            this.chargeColis = transporteur.getChargeColis() != null ? transporteur.getChargeColis() : 0;
+        }
+        
+        boolean fits(Colis colis) {
+            return (capacitePoidsMax == null || chargePoids + poids + TransporteurChargeLedger.poidsOf(colis) <= capacitePoidsMax)
+                    && (capaciteColisMax == null || chargeColis + count + 1 <= capaciteColisMax);
+        }
+        
+        void add(Colis colis) {
+            poids += TransporteurChargeLedger.poidsOf(colis);
+            count++;
+        }
+    }
+    
+    // Accepted changes, written together once every item has been checked. Each update only
+    // applies to the version that was read and tags the colis with the id of this write, so the
+    // updates that really applied can be read back: their charge and counter changes are recorded, the
+    // others are reported as conflicts
+    private class PendingWrites {
+        
+        private final String writeId = UUID.randomUUID().toString();
+        private final Instant now = Instant.now();
+        private final List<Integer> itemIndexes = new ArrayList<>();
+        private final List<String> colisIds = new ArrayList<>();
+        private final List<Deltas> changes = new ArrayList<>();
+        private final List<ColisCounters.Changes> counted = new ArrayList<>();
+        private final BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class);
+        
+        // Applies the change to target as well, for the item result
+        void add(int itemIndex, Colis target, Update update, Consumer<Colis> change, ItemResult[] results) {
+            Long readVersion = target.getVersion();
+            Deltas charges = new Deltas().remove(target);
+            ColisCounters.Changes counts = new ColisCounters.Changes().remove(target);
+            change.accept(target);
+            target.setVersion(readVersion != null ? readVersion + 1 : 1L);
+            
+            itemIndexes.add(itemIndex);
+            colisIds.add(target.getId());
+            changes.add(charges.add(target));
+            counted.add(counts.add(target));
+            // Bulk updates bypass save(), so the version is bumped here
+            bulk.updateOne(query(where("_id").is(target.getId()).and("version").is(readVersion)),
+                    update.set("lastWriteId", writeId).inc("version", 1));
+            results[itemIndex] = ItemResult.ok(target.getId(), colisMapper.toDTO(target));
+        }
+        
+        void execute(ItemResult[] results, Deltas adjustments) {
+            ColisCounters.Changes counts = new ColisCounters.Changes();
+            if (!itemIndexes.isEmpty()) {
+                try {
+                    bulk.execute();
+                } catch (BulkOperationException e) {
+                    for (BulkWriteError error : e.getErrors()) {
+                        int item = itemIndexes.get(error.getIndex());
+                        results[item] = ItemResult.failed(results[item].getId(), 500, error.getMessage());
+                    }
+                }
+                
+                Query written = query(where("_id").in(colisIds).and("lastWriteId").is(writeId));
+                written.fields().include("_id");
+                Set<String> applied = mongoTemplate.find(written, Colis.class).stream()
+                        .map(Colis::getId)
+                        .collect(Collectors.toSet());
+                for (int k = 0; k < itemIndexes.size(); k++) {
+                    int item = itemIndexes.get(k);
+                    if (applied.contains(colisIds.get(k))) {
+                        adjustments.add(changes.get(k));
+                        counts.add(counted.get(k));
+                    } else if (results[item].getStatus() == 200) {
+                        results[item] = ItemResult.failed(colisIds.get(k), 409, "Colis was modified concurrently, please retry");
+                    }
+                }
+            }
+            chargeLedger.apply(adjustments);
+            colisCounters.apply(counts);
+        }
+    }
+}
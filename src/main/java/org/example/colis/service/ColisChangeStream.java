@@ -0,0 +1,164 @@
+package org.example.colis.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisUpdateEvent;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One change stream on the colis collection per instance, read by a single thread and handed
+ * to {@link ColisUpdateHub}. The last resume token is kept, so a dropped connection resumes
+ * where it stopped. The update goes to the transporteur of the colis after the change and, when
+ * the collection records pre-images (changeStreamPreAndPostImages), to the one before it too;
+ * without pre-images a transporteur losing a colis only sees it on its next list.
+ * Change streams need a replica set, hence disabled by default.
+ */
+@Component
+public class ColisChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ColisChangeStream.class);
+
+    // ChangeStreamHistoryLost: the resume token fell off the oplog
+    private static final int HISTORY_LOST = 286;
+
+    private static final long RETRY_DELAY_MS = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ColisMapper colisMapper;
+
+    @Autowired
+    private ColisUpdateHub hub;
+
+    @Value("${colis.stream.enabled:false}")
+    private boolean enabled;
+
+    private BsonDocument resumeToken;
+
+    private Thread reader;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        reader = new CustomizableThreadFactory("colis-changes-").newThread(this::read);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (reader != null) {
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void read() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                while (running) {
+                    // Returns null after maxAwaitTime, so stop() is noticed within a second
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        resumeToken = change.getResumeToken();
+                        // A change that cannot be published is skipped rather than stopping the reader
+                        try {
+                            publish(change);
+                        } catch (RuntimeException e) {
+                            log.error("Could not publish colis change {}", change.getDocumentKey(), e);
+                        }
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == HISTORY_LOST) {
+                    log.warn("Colis change stream could not resume, restarting from now");
+                    resumeToken = null;
+                    hub.resync();
+                } else {
+                    retryLater(e);
+                }
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        var stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Colis.class))
+                .watch(List.of(Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete"))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void publish(ChangeStreamDocument<Document> change) {
+        Document after = change.getFullDocument();
+        Document before = change.getFullDocumentBeforeChange();
+        Set<String> transporteurIds = new HashSet<>();
+        addTransporteur(transporteurIds, after);
+        addTransporteur(transporteurIds, before);
+        if (transporteurIds.isEmpty()) {
+            return;
+        }
+        ColisDTO colis = after != null ? colisMapper.toDTO(mongoTemplate.getConverter().read(Colis.class, after)) : null;
+        ColisUpdateEvent event = new ColisUpdateEvent(id(change.getDocumentKey().get("_id")),
+                change.getOperationTypeString(), colis);
+        hub.publish(new ColisUpdateHub.Update(change.getResumeToken().getString("_data").getValue(),
+                transporteurIds, event));
+    }
+
+    private static void addTransporteur(Set<String> transporteurIds, Document colis) {
+        if (colis != null && colis.getString("transporteurId") != null) {
+            transporteurIds.add(colis.getString("transporteurId"));
+        }
+    }
+
+    private static String id(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private void retryLater(RuntimeException e) {
+        log.warn("Colis change stream interrupted, retrying in {} ms: {}", RETRY_DELAY_MS, e.getMessage());
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.colis.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.repository.ColisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Counts for the APPROXIMATE count mode. Filters on transporteur / type / statut only are
+ * answered by ColisCounters without a query; other filters get a short-lived count per filter,
+ * up to one TTL old, which is fine for "about N results" displays.
+ * As in PrincipalCache, the count query runs outside the cache's map lock so that virtual
+ * threads do not pin their carrier; concurrent misses for one filter share the query.
+ */
+@Component
+public class ColisCountCache {
+    
+    private final ColisRepository colisRepository;
+    
+    private final ColisCounters colisCounters;
+    
+    private final AsyncCache<ColisFilter, Long> counts;
+    
+    public ColisCountCache(ColisRepository colisRepository,
+                           ColisCounters colisCounters,
+                           @Value("${colis.count-cache.max-size:10000}") long maxSize,
+                           @Value("${colis.count-cache.ttl:PT30S}") Duration ttl) {
+        this.colisRepository = colisRepository;
+        this.colisCounters = colisCounters;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+    
+    public long count(ColisFilter filter) {
+        OptionalLong counted = colisCounters.count(filter);
+        if (counted.isPresent()) {
+            return counted.getAsLong();
+        }
+        CompletableFuture<Long> counting = new CompletableFuture<>();
+        CompletableFuture<Long> cached = counts.asMap().putIfAbsent(filter, counting);
+        if (cached != null) {
+            return cached.join();
+        }
+        try {
+            long count = colisRepository.countMatching(filter);
+            counting.complete(count);
+            return count;
+        } catch (RuntimeException e) {
+            counting.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
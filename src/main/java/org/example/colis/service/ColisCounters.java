@@ -0,0 +1,337 @@
+package org.example.colis.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.example.colis.dto.CounterReconciliationReport;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.model.Colis;
+import org.example.colis.model.ColisCounter;
+import org.example.colis.model.JobLease;
+import org.example.colis.repository.ColisFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Colis counts per (transporteurId, type, statut) and per (type, statut) overall, kept in
+ * colis_counters with $inc from the before / after state of every colis write, so counting
+ * never scans the colis collection. Reads come from an in-process LongAdder mirror: this
+ * instance's writes show immediately, other instances' writes after the next refresh.
+ * The writes and their counter updates are not atomic (a crash in between leaves drift);
+ * reconcile() corrects the counters from the colis and reports what was off. It holds a
+ * lease in job_leases, so only one instance corrects at a time.
+ */
+@Component
+public class ColisCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(ColisCounters.class);
+
+    // transporteurId of the global totals
+    public static final String ALL = "*";
+
+    private static final int MAX_REPORTED_DRIFT = 100;
+
+    private static final String RECONCILE_LEASE = "colis-counters-reconcile";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Duration reconcileLease;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Replaced as a whole by refresh(), so counts never read a half-reloaded mirror
+    private volatile Map<Key, LongAdder> mirror = new ConcurrentHashMap<>();
+
+    // Local writes hold the read side from their $inc to their mirror update; refresh() holds
+    // the write side, so what it loads contains each local write exactly once
+    private final ReadWriteLock mirrorLock = new ReentrantReadWriteLock();
+
+    private final AtomicInteger lastDrift = new AtomicInteger();
+
+    public record Key(String transporteurId, TypeColis type, StatutColis statut) {
+    }
+
+    public ColisCounters(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                         @Value("${colis.counters.reconcile-lease:PT10M}") Duration reconcileLease) {
+        this.mongoTemplate = mongoTemplate;
+        this.reconcileLease = reconcileLease;
+        Gauge.builder("colis.counters.drift", lastDrift, AtomicInteger::get)
+                .description("Counters found wrong by the last reconciliation")
+                .register(meterRegistry);
+    }
+
+    public void record(Colis before, Colis after) {
+        apply(new Changes().remove(before).add(after));
+    }
+
+    public void apply(Changes changes) {
+        Map<Key, Long> deltas = changes.nonZero();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisCounter.class);
+        deltas.forEach((key, delta) -> bulk.upsert(query(where("_id").is(idOf(key))),
+                new Update().setOnInsert("transporteurId", key.transporteurId())
+                        .setOnInsert("type", key.type())
+                        .setOnInsert("statut", key.statut())
+                        .inc("count", delta)));
+        mirrorLock.readLock().lock();
+        try {
+            bulk.execute();
+            Map<Key, LongAdder> current = mirror;
+            deltas.forEach((key, delta) -> adder(current, key).add(delta));
+        } finally {
+            mirrorLock.readLock().unlock();
+        }
+    }
+
+    // Counts for a filter on transporteurId / type / statut only (null = any); empty for any
+    // other filter, which the counters cannot answer
+    public OptionalLong count(ColisFilter filter) {
+        ColisFilter counted = new ColisFilter(filter.getTransporteurId(), filter.getType(), filter.getStatut());
+        if (!counted.equals(filter)) {
+            return OptionalLong.empty();
+        }
+        String transporteurId = filter.getTransporteurId() != null ? filter.getTransporteurId() : ALL;
+        long count = 0;
+        for (TypeColis type : filter.getType() != null ? List.of(filter.getType()) : List.of(TypeColis.values())) {
+            for (StatutColis statut : filter.getStatut() != null ? List.of(filter.getStatut()) : List.of(StatutColis.values())) {
+                LongAdder adder = mirror.get(new Key(transporteurId, type, statut));
+                count += adder != null ? adder.sum() : 0;
+            }
+        }
+        return OptionalLong.of(count);
+    }
+
+    // Every statut and type, 0 when there is no colis; transporteurId null = all colis
+    public Map<StatutColis, Map<TypeColis, Long>> byStatutAndType(String transporteurId) {
+        String scope = transporteurId != null ? transporteurId : ALL;
+        Map<StatutColis, Map<TypeColis, Long>> counts = new EnumMap<>(StatutColis.class);
+        for (StatutColis statut : StatutColis.values()) {
+            Map<TypeColis, Long> byType = new EnumMap<>(TypeColis.class);
+            for (TypeColis type : TypeColis.values()) {
+                LongAdder adder = mirror.get(new Key(scope, type, statut));
+                byType.put(type, adder != null ? adder.sum() : 0L);
+            }
+            counts.put(statut, byType);
+        }
+        return counts;
+    }
+
+    // Reloads the mirror, picking up what other instances wrote
+    @Scheduled(fixedDelayString = "${colis.counters.refresh-ms:5000}")
+    public void refresh() {
+        mirrorLock.writeLock().lock();
+        try {
+            Map<Key, LongAdder> loaded = new ConcurrentHashMap<>();
+            storedCounts().forEach((key, count) -> adder(loaded, key).add(count));
+            mirror = loaded;
+        } finally {
+            mirrorLock.writeLock().unlock();
+        }
+    }
+
+    // "-" disables the nightly run; every instance fires it, the one holding the lease runs it
+    @Scheduled(cron = "${colis.counters.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (ConflictException e) {
+            log.info("Skipped the colis counter reconciliation: {}", e.getMessage());
+        }
+    }
+
+    // Corrects every counter from the colis (startup, nightly, admin endpoint). Corrections are
+    // $inc of (expected - stored), so writes landing after the stored counts were read are kept;
+    // a counter that moved while the colis were being counted is left for the next run.
+    // ConflictException when another instance is reconciling
+    public CounterReconciliationReport reconcile() {
+        if (!acquireLease()) {
+            throw new ConflictException("Colis counters are being reconciled by another instance");
+        }
+        try {
+            return reconcileCounters();
+        } finally {
+            releaseLease();
+        }
+    }
+
+    private CounterReconciliationReport reconcileCounters() {
+        long start = System.nanoTime();
+        Map<Key, Long> storedBefore = storedCounts();
+        // Only the grouped fields are read, so the hinted index covers the whole pipeline
+        Aggregation aggregation = Aggregation.newAggregation(
+                project("transporteurId", "type", "statut").andExclude("_id"),
+                group("transporteurId", "type", "statut").count().as("count"))
+                .withOptions(AggregationOptions.builder().hint("transporteur_type_statut_id").build());
+        Changes expected = new Changes();
+        for (Document row : mongoTemplate.aggregate(aggregation, Colis.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            String type = id.getString("type");
+            String statut = id.getString("statut");
+            expected.add(id.getString("transporteurId"),
+                    type != null ? TypeColis.valueOf(type) : null,
+                    statut != null ? StatutColis.valueOf(statut) : null,
+                    row.get("count", Number.class).longValue());
+        }
+        Map<Key, Long> counts = expected.nonZero();
+        Map<Key, Long> stored = storedCounts();
+
+        Set<Key> keys = new HashSet<>(stored.keySet());
+        keys.addAll(counts.keySet());
+        keys.addAll(storedBefore.keySet());
+
+        List<String> drift = new ArrayList<>();
+        int drifted = 0;
+        int moved = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisCounter.class);
+        for (Key key : keys) {
+            long count = counts.getOrDefault(key, 0L);
+            long was = stored.getOrDefault(key, 0L);
+            if (was == count) {
+                continue;
+            }
+            if (!Objects.equals(storedBefore.get(key), stored.get(key))) {
+                moved++;
+                continue;
+            }
+            if (drifted++ < MAX_REPORTED_DRIFT) {
+                drift.add(idOf(key) + ": expected " + count + ", was " + was);
+            }
+            bulk.upsert(query(where("_id").is(idOf(key))),
+                    new Update().setOnInsert("transporteurId", key.transporteurId())
+                            .setOnInsert("type", key.type())
+                            .setOnInsert("statut", key.statut())
+                            .inc("count", count - was));
+        }
+        if (drifted > 0) {
+            bulk.execute();
+            log.warn("Corrected {} colis counter(s): {}", drifted, drift);
+        }
+        if (moved > 0) {
+            log.info("{} colis counter(s) were written during the reconciliation, left for the next run", moved);
+        }
+        lastDrift.set(drifted);
+        refresh();
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Reconciled {} colis counters in {} ms, {} drifted", keys.size(), durationMs, drifted);
+        return new CounterReconciliationReport(keys.size(), drifted, drift, durationMs);
+    }
+
+    private Map<Key, Long> storedCounts() {
+        Map<Key, Long> stored = new HashMap<>();
+        for (ColisCounter counter : mongoTemplate.findAll(ColisCounter.class)) {
+            stored.put(new Key(counter.getTransporteurId(), counter.getType(), counter.getStatut()), counter.getCount());
+        }
+        return stored;
+    }
+
+    // Takes the lease when it is free or expired; the upsert of a held lease hits the unique _id
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        Query free = query(where("_id").is(RECONCILE_LEASE).orOperator(
+                where("lockedUntil").lt(now), where("lockedUntil").exists(false)));
+        try {
+            mongoTemplate.upsert(free, new Update().set("owner", instanceId).set("lockedUntil", now.plus(reconcileLease)),
+                    JobLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void releaseLease() {
+        mongoTemplate.updateFirst(query(where("_id").is(RECONCILE_LEASE).and("owner").is(instanceId)),
+                new Update().set("lockedUntil", Instant.now()), JobLease.class);
+    }
+
+    private static LongAdder adder(Map<Key, LongAdder> mirror, Key key) {
+        return mirror.computeIfAbsent(key, ignored -> new LongAdder());
+    }
+
+    static String idOf(Key key) {
+        return (key.transporteurId() != null ? key.transporteurId() : "") + ":" + key.type() + ":" + key.statut();
+    }
+
+    /**
+     * Counter changes accumulated over one or more colis writes, applied in one bulk write.
+     * Every change also moves the global total of its (type, statut).
+     */
+    public static final class Changes {
+
+        private final Map<Key, Long> byKey = new HashMap<>();
+
+        public Changes add(Colis colis) {
+            return contribution(colis, 1);
+        }
+
+        public Changes remove(Colis colis) {
+            return contribution(colis, -1);
+        }
+
+        public Changes add(Changes other) {
+            other.byKey.forEach((key, delta) -> byKey.merge(key, delta, Long::sum));
+            return this;
+        }
+
+        // For writes whose before / after state is known without the colis, e.g. a claim of waiting colis
+        public Changes add(String transporteurId, TypeColis type, StatutColis statut, long delta) {
+            byKey.merge(new Key(transporteurId, type, statut), delta, Long::sum);
+            byKey.merge(new Key(ALL, type, statut), delta, Long::sum);
+            return this;
+        }
+
+        private Changes contribution(Colis colis, int sign) {
+            if (colis != null) {
+                add(colis.getTransporteurId(), colis.getType(), colis.getStatut(), sign);
+            }
+            return this;
+        }
+
+        private Map<Key, Long> nonZero() {
+            Map<Key, Long> changes = new HashMap<>();
+            byKey.forEach((key, delta) -> {
+                if (delta != 0) {
+                    changes.put(key, delta);
+                }
+            });
+            return changes;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.colis.service;
+
+import com.mongodb.ErrorCategory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.ColisEvent;
+import org.example.colis.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the colis history off the request path: record() only enqueues the event, and one
+ * writer thread inserts whatever is queued in unordered bulk inserts of up to batch-size
+ * events. When the queue is full the caller inserts its event itself, so the history slows
+ * down under overload rather than losing events. A failed batch is retried with backoff;
+ * events get their id when recorded, so a retry does not insert an event twice. A batch still
+ * failing after retry-attempts is dropped and logged. The queue is drained on shutdown.
+ */
+@Component
+public class ColisEventRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(ColisEventRecorder.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${colis.events.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${colis.events.batch-size:1000}")
+    private int batchSize;
+
+    // Longest an event waits in the queue when traffic is low
+    @Value("${colis.events.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // Attempts per batch; the wait between them doubles from flush-interval-ms
+    @Value("${colis.events.retry-attempts:5}")
+    private int retryAttempts;
+
+    private BlockingQueue<ColisEvent> queue;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new CustomizableThreadFactory("colis-events-").newThread(this::drain);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public void record(String colisId, StatutColis from, StatutColis to, User by) {
+        ColisEvent event = new ColisEvent(new ObjectId().toHexString(), colisId, from, to,
+                by != null ? by.getId() : null, by != null ? by.getRole() : null, Instant.now());
+        if (!queue.offer(event)) {
+            mongoTemplate.insert(event);
+        }
+    }
+
+    private void drain() {
+        List<ColisEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ColisEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ColisEvent> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisEvent.class).insert(batch).execute();
+                return;
+            } catch (BulkOperationException e) {
+                // Unordered: everything but the duplicates (written by an earlier attempt) is in
+                if (onlyDuplicates(e)) {
+                    return;
+                }
+                if (!retry(batch, attempt, e)) {
+                    return;
+                }
+            } catch (DataAccessException e) {
+                if (!retry(batch, attempt, e)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Waits before the next attempt; false once the batch is given up
+    private boolean retry(List<ColisEvent> batch, int attempt, DataAccessException e) throws InterruptedException {
+        if (attempt >= retryAttempts) {
+            log.error("Dropped {} colis events after {} attempts: {}", batch.size(), attempt, e.getMessage());
+            return false;
+        }
+        log.warn("Could not write {} colis events (attempt {}/{}), retrying: {}", batch.size(), attempt, retryAttempts,
+                e.getMessage());
+        Thread.sleep(flushIntervalMs << (attempt - 1));
+        return true;
+    }
+
+    private static boolean onlyDuplicates(BulkOperationException e) {
+        return !e.getErrors().isEmpty()
+                && e.getErrors().stream().allMatch(error -> error.getCategory() == ErrorCategory.DUPLICATE_KEY);
+    }
+}
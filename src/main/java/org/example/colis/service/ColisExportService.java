@@ -0,0 +1,132 @@
+package org.example.colis.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.enums.ColisFileFormat;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.repository.ColisRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every colis matching a filter to an output stream, one row at a time, straight
+ * from a Mongo cursor. Memory use does not depend on the number of colis exported.
+ */
+@Service
+public class ColisExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ColisExportService.class);
+    
+    private static final String CSV_HEADER = "id,type,poids,adresseDestination,statut,transporteurId,"
+            + "instructionsManutention,temperatureMin,temperatureMax,createdAt";
+    
+    @Autowired
+    private ColisRepository colisRepository;
+    
+    @Autowired
+    private ColisMapper colisMapper;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Documents per cursor round trip; the output is also flushed once per batch
+    @Value("${colis.export.batch-size:1000}")
+    private int batchSize;
+    
+    // The query is planned and the cursor opened right away, so an unsupported filter fails
+    // with a 400 before any byte is written. The body closes the cursor when it ends, including
+    // when the client goes away mid-export (the write fails with an IOException)
+    public StreamingResponseBody export(ColisFilter filter, Sort sort, ColisFileFormat format) {
+        Stream<Colis> colis = colisRepository.streamMatching(filter, sort, batchSize);
+        return out -> {
+            try (colis) {
+                Iterator<ColisDTO> rows = colis.map(colisMapper::toDTO).iterator();
+                long written = format == ColisFileFormat.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+                log.debug("Exported {} colis as {}", written, format);
+            } catch (IOException e) {
+                log.info("Colis export stopped, client disconnected: {}", e.getMessage());
+            }
+        };
+    }
+    
+    private long writeNdjson(Iterator<ColisDTO> rows, OutputStream out) throws IOException {
+        long written = 0;
+        // Flushed once per batch rather than after every value; the servlet container owns the response stream
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            while (rows.hasNext()) {
+                sequence.write(rows.next());
+                if (++written % batchSize == 0) {
+                    sequence.flush();
+                }
+            }
+        }
+        // The separator only goes between rows
+        if (written > 0) {
+            out.write('\n');
+        }
+        return written;
+    }
+    
+    private long writeCsv(Iterator<ColisDTO> rows, OutputStream out) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            ColisDTO dto = rows.next();
+            writer.write(String.join(",",
+                    csv(dto.getId()),
+                    csv(dto.getType()),
+                    csv(dto.getPoids()),
+                    csv(dto.getAdresseDestination()),
+                    csv(dto.getStatut()),
+                    csv(dto.getTransporteurId()),
+                    csv(dto.getInstructionsManutention()),
+                    csv(dto.getTemperatureMin()),
+                    csv(dto.getTemperatureMax()),
+                    csv(dto.getCreatedAt())));
+            writer.write('\n');
+            if (++written % batchSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return written;
+    }
+    
+    // RFC 4180 quoting: only values containing a separator, quote or line break are quoted
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
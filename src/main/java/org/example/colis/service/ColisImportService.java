@@ -0,0 +1,273 @@
+package org.example.colis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.colis.dto.ColisImportReport;
+import org.example.colis.dto.CreateColisRequest;
+import org.example.colis.enums.ColisFileFormat;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports colis from a streamed CSV or NDJSON upload. Lines are read in batches; each batch
+ * is parsed and validated in parallel (same rules as createColis) and the valid rows are
+ * written with one unordered bulk insert. A bad line is reported and skipped, it never
+ * aborts the rest of the file.
+ */
+@Service
+public class ColisImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ColisImportService.class);
+    
+    // CSV columns read by the import; other columns (e.g. those of an export) are ignored
+    private static final Set<String> CSV_COLUMNS = Set.of("type", "poids", "adresseDestination",
+            "instructionsManutention", "temperatureMin", "temperatureMax");
+    
+    @Autowired
+    private ColisService colisService;
+    
+    @Autowired
+    private ColisMapper colisMapper;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ColisCounters colisCounters;
+    
+    // Lines per parallel validation round and per bulk insert
+    @Value("${colis.import.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${colis.import.max-errors:1000}")
+    private int maxErrors;
+    
+    public ColisImportReport importColis(InputStream input, ColisFileFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        
+        long lineNumber = 0;
+        List<String> header = null;
+        if (format == ColisFileFormat.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new BusinessException("CSV import requires a header line");
+            }
+            lineNumber++;
+            header = parseCsvLine(headerLine);
+            if (!header.containsAll(Set.of("type", "poids", "adresseDestination"))) {
+                throw new BusinessException("CSV header must contain type, poids and adresseDestination");
+            }
+        }
+        
+        List<RawLine> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(new RawLine(lineNumber, line));
+            if (batch.size() == batchSize) {
+                importBatch(batch, format, header, progress);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, format, header, progress);
+        }
+        
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rate = progress.inserted * 1000.0 / durationMs;
+        log.info("Imported {} colis ({} rejected) in {} ms, {} colis/s",
+                progress.inserted, progress.failed, durationMs, Math.round(rate));
+        return new ColisImportReport(progress.received, progress.inserted, progress.failed,
+                progress.errors, durationMs, rate);
+    }
+    
+    private void importBatch(List<RawLine> batch, ColisFileFormat format, List<String> header, ImportProgress progress) {
+        progress.received += batch.size();
+        
+        // Parsing and validation are CPU-bound and independent per line
+        List<ParsedLine> parsed = batch.parallelStream()
+                .map(raw -> parse(raw, format, header))
+                .toList();
+        
+        List<ParsedLine> valid = new ArrayList<>(parsed.size());
+        for (ParsedLine line : parsed) {
+            if (line.error() != null) {
+                progress.reject(line.number(), line.error(), maxErrors);
+            } else {
+                valid.add(line);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class);
+        bulk.insert(valid.stream().map(ParsedLine::colis).collect(Collectors.toList()));
+        Set<Integer> failed = new HashSet<>();
+        try {
+            progress.inserted += bulk.execute().getInsertedCount();
+        } catch (BulkOperationException e) {
+            // Unordered: every document without an error was still written
+            progress.inserted += e.getResult().getInsertedCount();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                progress.reject(valid.get(error.getIndex()).number(), error.getMessage(), maxErrors);
+            }
+        }
+        ColisCounters.Changes counts = new ColisCounters.Changes();
+        for (int i = 0; i < valid.size(); i++) {
+            if (!failed.contains(i)) {
+                counts.add(valid.get(i).colis());
+            }
+        }
+        colisCounters.apply(counts);
+    }
+    
+    private ParsedLine parse(RawLine raw, ColisFileFormat format, List<String> header) {
+        try {
+            CreateColisRequest request = format == ColisFileFormat.CSV
+                    ? fromCsv(parseCsvLine(raw.text()), header)
+                    : objectMapper.readValue(raw.text(), CreateColisRequest.class);
+            
+            Set<ConstraintViolation<CreateColisRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                return new ParsedLine(raw.number(), null, message);
+            }
+            colisService.validateColisRequest(request);
+            Colis colis = colisMapper.toEntity(request);
+            // Bulk inserts skip the @Version initialisation that save() does, and with a version
+            // set auditing takes the colis for an existing one, so the timestamps are set here
+            colis.setVersion(0L);
+            Instant now = Instant.now();
+            colis.setCreatedAt(now);
+            colis.setUpdatedAt(now);
+            return new ParsedLine(raw.number(), colis, null);
+        } catch (BusinessException e) {
+            return new ParsedLine(raw.number(), null, e.getMessage());
+        } catch (JsonProcessingException e) {
+            return new ParsedLine(raw.number(), null, "Invalid JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ParsedLine(raw.number(), null, "Invalid value: " + e.getMessage());
+        }
+    }
+    
+    private static CreateColisRequest fromCsv(List<String> values, List<String> header) {
+        if (values.size() != header.size()) {
+            throw new BusinessException("Expected " + header.size() + " columns, found " + values.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            if (CSV_COLUMNS.contains(header.get(i)) && !values.get(i).isEmpty()) {
+                row.put(header.get(i), values.get(i));
+            }
+        }
+        
+        CreateColisRequest request = new CreateColisRequest();
+        request.setType(row.containsKey("type") ? TypeColis.valueOf(row.get("type")) : null);
+        request.setPoids(toDouble(row.get("poids")));
+        request.setAdresseDestination(row.get("adresseDestination"));
+        request.setInstructionsManutention(row.get("instructionsManutention"));
+        request.setTemperatureMin(toDouble(row.get("temperatureMin")));
+        request.setTemperatureMax(toDouble(row.get("temperatureMax")));
+        return request;
+    }
+    
+    private static Double toDouble(String value) {
+        return value != null ? Double.valueOf(value) : null;
+    }
+    
+    // One RFC 4180 record per line (the format written by the export): quoted fields may
+    // contain commas and doubled quotes, but not line breaks
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new BusinessException("Unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values;
+    }
+    
+    private record RawLine(long number, String text) {
+    }
+    
+    private record ParsedLine(long number, Colis colis, String error) {
+    }
+    
+    private static class ImportProgress {
+        private long received;
+        private long inserted;
+        private long failed;
+        private final List<ColisImportReport.LineError> errors = new ArrayList<>();
+        
+        private void reject(long line, String message, int maxErrors) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ColisImportReport.LineError(line, message));
+            }
+        }
+    }
+}
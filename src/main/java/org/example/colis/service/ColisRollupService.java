@@ -0,0 +1,214 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.ThroughputBucketDTO;
+import org.example.colis.enums.RollupGranularity;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.model.Colis;
+import org.example.colis.model.ColisRollup;
+import org.example.colis.model.RollupWatermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Hourly and daily colis throughput per type and transporteur, kept in colis_rollups. Each run
+ * covers the window from the watermark to now minus a lag (writes still in flight), reads only
+ * the colis updated since the watermark and counts the milestones (createdAt, inTransitAt,
+ * deliveredAt, cancelledAt) that fall in the window, so each milestone is counted once. The
+ * reports read the buckets and never the colis.
+ */
+@Service
+public class ColisRollupService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ColisRollupService.class);
+    
+    static final String WATERMARK_ID = "colis";
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    // Longest report, in buckets
+    private static final int MAX_BUCKETS = 1000;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    private final boolean enabled;
+    
+    private final Duration lag;
+    
+    // Runs of this instance never overlap; other instances are kept out by the watermark
+    private final ReentrantLock runLock = new ReentrantLock();
+    
+    public ColisRollupService(MongoTemplate mongoTemplate,
+                              @Value("${colis.rollups.enabled:true}") boolean enabled,
+                              @Value("${colis.rollups.lag:PT1M}") Duration lag) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.lag = lag;
+    }
+    
+    @Scheduled(fixedDelayString = "${colis.rollups.interval-ms:60000}")
+    public void scheduledRollUp() {
+        if (enabled && runLock.tryLock()) {
+            try {
+                rollUp(Instant.now().minus(lag));
+            } finally {
+                runLock.unlock();
+            }
+        }
+    }
+    
+    // Counts the milestones in [watermark, upTo); returns the colis read, or -1 when another
+    // instance moved the watermark first
+    long rollUp(Instant upTo) {
+        // Mongo dates keep milliseconds: a finer upTo would be stored truncated as the watermark,
+        // and the milestones of its last millisecond counted by this run and again by the next
+        upTo = upTo.truncatedTo(ChronoUnit.MILLIS);
+        RollupWatermark watermark = mongoTemplate.findById(WATERMARK_ID, RollupWatermark.class);
+        Instant from = watermark != null ? watermark.getProcessedUpTo() : Instant.EPOCH;
+        if (!upTo.isAfter(from)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        
+        // A milestone is never later than the updatedAt written with it, so every colis with a
+        // milestone in the window has updatedAt >= from; colis updated again since are read as well
+        Query changed = query(where("updatedAt").gte(from)).withHint("updatedAt_id");
+        changed.fields().include("type", "transporteurId", "createdAt", "inTransitAt", "deliveredAt", "cancelledAt");
+        Map<String, ColisRollup> rollups = new HashMap<>();
+        long read = 0;
+        try (Stream<Colis> stream = mongoTemplate.stream(changed.cursorBatchSize(BATCH_SIZE), Colis.class)) {
+            Iterator<Colis> colis = stream.iterator();
+            while (colis.hasNext()) {
+                count(rollups, colis.next(), from, upTo);
+                read++;
+            }
+        }
+        
+        if (!claim(watermark != null, from, upTo)) {
+            log.info("Colis rollup window {} - {} was taken by another instance", from, upTo);
+            return -1;
+        }
+        write(rollups.values());
+        log.info("Rolled up {} changed colis into {} buckets up to {} in {} ms",
+                read, rollups.size(), upTo, (System.nanoTime() - start) / 1_000_000);
+        return read;
+    }
+    
+    // Every bucket of [from, to), 0 when nothing happened; transporteurId null = all transporteurs
+    public List<ThroughputBucketDTO> getThroughput(RollupGranularity granularity, Instant from, Instant to,
+                                                   TypeColis type, String transporteurId) {
+        if (!from.isBefore(to)) {
+            throw new BusinessException("from must be before to");
+        }
+        Map<Instant, ThroughputBucketDTO> buckets = new LinkedHashMap<>();
+        for (Instant bucket = granularity.bucketOf(from); bucket.isBefore(to); bucket = granularity.next(bucket)) {
+            if (buckets.size() == MAX_BUCKETS) {
+                throw new BusinessException("A report is limited to " + MAX_BUCKETS + " buckets, use a larger granularity");
+            }
+            buckets.put(bucket, new ThroughputBucketDTO(bucket, 0, 0, 0, 0));
+        }
+        
+        Query rollupQuery = query(where("granularity").is(granularity)
+                .and("transporteurId").is(transporteurId != null ? transporteurId : ColisCounters.ALL)
+                .and("bucket").gte(granularity.bucketOf(from)).lt(to));
+        if (type != null) {
+            rollupQuery.addCriteria(where("type").is(type));
+        }
+        for (ColisRollup rollup : mongoTemplate.find(rollupQuery, ColisRollup.class)) {
+            ThroughputBucketDTO bucket = buckets.get(rollup.getBucket());
+            bucket.setCreated(bucket.getCreated() + rollup.getCreated());
+            bucket.setInTransit(bucket.getInTransit() + rollup.getInTransit());
+            bucket.setDelivered(bucket.getDelivered() + rollup.getDelivered());
+            bucket.setCancelled(bucket.getCancelled() + rollup.getCancelled());
+        }
+        return new ArrayList<>(buckets.values());
+    }
+    
+    private static void count(Map<String, ColisRollup> rollups, Colis colis, Instant from, Instant upTo) {
+        add(rollups, colis, colis.getCreatedAt(), from, upTo, rollup -> rollup.setCreated(rollup.getCreated() + 1));
+        add(rollups, colis, colis.getInTransitAt(), from, upTo, rollup -> rollup.setInTransit(rollup.getInTransit() + 1));
+        add(rollups, colis, colis.getDeliveredAt(), from, upTo, rollup -> rollup.setDelivered(rollup.getDelivered() + 1));
+        add(rollups, colis, colis.getCancelledAt(), from, upTo, rollup -> rollup.setCancelled(rollup.getCancelled() + 1));
+    }
+    
+    // The milestone counts for the transporteur the colis has now and for all transporteurs
+    private static void add(Map<String, ColisRollup> rollups, Colis colis, Instant at, Instant from, Instant upTo,
+                            Consumer<ColisRollup> increment) {
+        if (at == null || at.isBefore(from) || !at.isBefore(upTo)) {
+            return;
+        }
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Instant bucket = granularity.bucketOf(at);
+            for (String transporteurId : Arrays.asList(colis.getTransporteurId(), ColisCounters.ALL)) {
+                String id = idOf(granularity, bucket, colis.getType(), transporteurId);
+                increment.accept(rollups.computeIfAbsent(id, ignored ->
+                        new ColisRollup(id, granularity, bucket, colis.getType(), transporteurId, 0, 0, 0, 0)));
+            }
+        }
+    }
+    
+    // Compare-and-set of the watermark; false when another instance moved it first
+    private boolean claim(boolean exists, Instant from, Instant upTo) {
+        if (exists) {
+            Query current = query(where("_id").is(WATERMARK_ID).and("processedUpTo").is(from));
+            return mongoTemplate.updateFirst(current, Update.update("processedUpTo", upTo), RollupWatermark.class)
+                    .getModifiedCount() == 1;
+        }
+        try {
+            mongoTemplate.insert(new RollupWatermark(WATERMARK_ID, upTo));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    private void write(Iterable<ColisRollup> rollups) {
+        BulkOperations bulk = null;
+        for (ColisRollup rollup : rollups) {
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisRollup.class);
+            }
+            bulk.upsert(query(where("_id").is(rollup.getId())),
+                    new Update().setOnInsert("granularity", rollup.getGranularity())
+                            .setOnInsert("bucket", rollup.getBucket())
+                            .setOnInsert("type", rollup.getType())
+                            .setOnInsert("transporteurId", rollup.getTransporteurId())
+                            .inc("created", rollup.getCreated())
+                            .inc("inTransit", rollup.getInTransit())
+                            .inc("delivered", rollup.getDelivered())
+                            .inc("cancelled", rollup.getCancelled()));
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+    }
+    
+    static String idOf(RollupGranularity granularity, Instant bucket, TypeColis type, String transporteurId) {
+        return granularity + ":" + bucket + ":" + type + ":" + (transporteurId != null ? transporteurId : "");
+    }
+}
@@ -2,26 +2,46 @@ package org.example.colis.service;
 
 import org.example.colis.dto.AssignColisRequest;
 import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
+import org.example.colis.dto.ColisSummaryDTO;
 import org.example.colis.dto.CreateColisRequest;
+import org.example.colis.dto.PageResponse;
 import org.example.colis.dto.UpdateColisRequest;
 import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.CountMode;
 import org.example.colis.enums.Role;
 import org.example.colis.enums.Specialite;
 import org.example.colis.enums.StatutColis;
 import org.example.colis.enums.TypeColis;
 import org.example.colis.exception.BusinessException;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.exception.PreconditionFailedException;
 import org.example.colis.exception.ResourceNotFoundException;
 import org.example.colis.exception.UnauthorizedException;
+import org.example.colis.mapper.AddressNormalizer;
 import org.example.colis.mapper.ColisMapper;
 import org.example.colis.model.Colis;
 import org.example.colis.model.User;
+import org.example.colis.repository.ColisChange;
+import org.example.colis.repository.ColisEventRepository;
+import org.example.colis.repository.ColisFilter;
 import org.example.colis.repository.ColisRepository;
 import org.example.colis.repository.UserRepository;
+import org.example.colis.service.TransporteurChargeLedger.Deltas;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 @Service
 public class ColisService {
     
@@ -34,47 +54,74 @@ public class ColisService {
     @Autowired
     private ColisMapper colisMapper;
     
-    // Get all colis (ADMIN) or transporteur's colis (TRANSPORTEUR)
-    public Page<ColisDTO> getAllColis(User currentUser, TypeColis type, StatutColis statut, Pageable pageable) {
-        if (currentUser.getRole() == Role.ADMIN) {
-            // Admin can see all colis
-            if (type != null && statut != null) {
-                return colisRepository.findByTypeAndStatut(type, statut, pageable).map(colisMapper::toDTO);
-            } else if (type != null) {
-                return colisRepository.findByType(type, pageable).map(colisMapper::toDTO);
-            } else if (statut != null) {
-                return colisRepository.findByStatut(statut, pageable).map(colisMapper::toDTO);
-            } else {
-                return colisRepository.findAll(pageable).map(colisMapper::toDTO);
-            }
-        } else {
-            // Transporteur can only see their colis
-            if (type != null && statut != null) {
-                return colisRepository.findByTransporteurIdAndTypeAndStatut(currentUser.getId(), type, statut, pageable)
-                        .map(colisMapper::toDTO);
-            } else if (type != null) {
-                return colisRepository.findByTransporteurIdAndType(currentUser.getId(), type, pageable)
-                        .map(colisMapper::toDTO);
-            } else if (statut != null) {
-                return colisRepository.findByTransporteurIdAndStatut(currentUser.getId(), statut, pageable)
-                        .map(colisMapper::toDTO);
-            } else {
-                return colisRepository.findByTransporteurId(currentUser.getId(), pageable)
-                        .map(colisMapper::toDTO);
-            }
+    @Autowired
+    private ColisCountCache colisCountCache;
+    
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Autowired
+    private ColisCounters colisCounters;
+    
+    @Autowired
+    private ColisEventRepository colisEventRepository;
+    
+    @Autowired
+    private ColisEventRecorder eventRecorder;
+    
+    // Get all colis (ADMIN) or transporteur's colis (TRANSPORTEUR), filtered by any subset of
+    // ColisFilter fields. EXACT runs countDocuments, NONE only reports hasNext, APPROXIMATE
+    // reuses a short-lived cached count per filter
+    public PageResponse<ColisDTO> getAllColis(User currentUser, ColisFilter filter, Pageable pageable, CountMode countMode) {
+        ColisFilter scoped = scopedTo(currentUser, filter);
+        if (countMode == null || countMode == CountMode.EXACT) {
+            return PageResponse.from(colisRepository.findMatching(scoped, pageable).map(colisMapper::toDTO));
         }
+        
+        Slice<ColisDTO> slice = colisRepository.findSlice(scoped, pageable).map(colisMapper::toDTO);
+        Long total = countMode == CountMode.APPROXIMATE ? colisCountCache.count(scoped) : null;
+        return PageResponse.fromSlice(slice, total);
     }
     
-    // Search colis by address
-    public Page<ColisDTO> searchColisByAddress(User currentUser, String adresse, Pageable pageable) {
-        if (currentUser.getRole() == Role.ADMIN) {
-            return colisRepository.findByAdresseDestinationContainingIgnoreCase(adresse, pageable)
-                    .map(colisMapper::toDTO);
-        } else {
-            return colisRepository.findByTransporteurIdAndAdresseDestinationContainingIgnoreCase(
-                    currentUser.getId(), adresse, pageable
-            ).map(colisMapper::toDTO);
+    // Keyset (cursor) pagination over the same filters as getAllColis: an index-backed
+    // range query on _id instead of a skip, so every page costs the same
+    public PageResponse<ColisDTO> getAllColisAfter(User currentUser, ColisFilter filter, String after, int size) {
+        checkPageSize(size);
+        String afterId = CursorCodec.decode(after);
+        
+        List<Colis> rows = colisRepository.findAfter(scopedTo(currentUser, filter), afterId, size + 1);
+        PageResponse<Colis> page = cursorPage(rows, size, afterId != null, Colis::getId);
+        return PageResponse.fromCursor(page.getContent().stream().map(colisMapper::toDTO).toList(),
+                size, page.isHasPrevious(), page.getNextCursor());
+    }
+    
+    // Summary listing: Mongo returns only the list columns (address already truncated),
+    // mapped straight into ColisSummaryDTO without loading Colis or going through the mapper
+    public PageResponse<ColisSummaryDTO> getColisSummaries(User currentUser, ColisFilter filter, Pageable pageable, CountMode countMode) {
+        ColisFilter scoped = scopedTo(currentUser, filter);
+        Slice<ColisSummaryDTO> slice = colisRepository.findSlice(scoped, pageable, ColisSummaryDTO.class);
+        
+        if (countMode == null || countMode == CountMode.EXACT) {
+            return PageResponse.from(new PageImpl<>(slice.getContent(), pageable, colisRepository.countMatching(scoped)));
         }
+        Long total = countMode == CountMode.APPROXIMATE ? colisCountCache.count(scoped) : null;
+        return PageResponse.fromSlice(slice, total);
+    }
+    
+    public PageResponse<ColisSummaryDTO> getColisSummariesAfter(User currentUser, ColisFilter filter, String after, int size) {
+        checkPageSize(size);
+        String afterId = CursorCodec.decode(after);
+        
+        List<ColisSummaryDTO> rows = colisRepository.findAfter(
+                scopedTo(currentUser, filter), afterId, size + 1, ColisSummaryDTO.class);
+        return cursorPage(rows, size, afterId != null, ColisSummaryDTO::getId);
+    }
+    
+    // Search colis by address (text index: whole words, accent-insensitive, ranked by relevance)
+    public Page<ColisDTO> searchColisByAddress(User currentUser, String adresse, Pageable pageable) {
+        String transporteurId = currentUser.getRole() == Role.ADMIN ? null : currentUser.getId();
+        return colisRepository.searchByAddress(transporteurId, adresse, pageable)
+                .map(colisMapper::toDTO);
     }
     
     // Create new colis (ADMIN only)
@@ -83,105 +130,204 @@ public class ColisService {
         
         Colis colis = colisMapper.toEntity(request);
         Colis saved = colisRepository.save(colis);
+        colisCounters.record(null, saved);
         return colisMapper.toDTO(saved);
     }
     
-    // Assign colis to transporteur (ADMIN only)
+    // Assign colis to transporteur (ADMIN only). The vehicle capacity is reserved from the colis
+    // as read, so the write only applies to that version: a concurrent assignment, statut or poids
+    // change makes it match nothing, and the reservation is given back before reporting the conflict
     public ColisDTO assignColis(String colisId, AssignColisRequest request) {
-        Colis colis = colisRepository.findById(colisId)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + colisId));
-        
         User transporteur = userRepository.findById(request.getTransporteurId())
                 .orElseThrow(() -> new ResourceNotFoundException("Transporteur not found with id: " + request.getTransporteurId()));
         
-        // Validate transporteur role
         if (transporteur.getRole() != Role.TRANSPORTEUR) {
             throw new BusinessException("User is not a TRANSPORTEUR");
         }
         
-        // Validate specialite matches type
-        Specialite requiredSpecialite = mapTypeToSpecialite(colis.getType());
-        if (transporteur.getSpecialite() != requiredSpecialite) {
-            throw new BusinessException(
-                    "Transporteur specialite (" + transporteur.getSpecialite() + 
-                    ") does not match colis type (" + colis.getType() + ")"
-            );
+        Colis colis = colisRepository.findById(colisId)
+                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + colisId));
+        checkAssignable(colis, transporteur);
+        
+        double poids = TransporteurChargeLedger.poidsOf(colis);
+        boolean reserved = TransporteurChargeLedger.isOpen(colis.getStatut())
+                && !transporteur.getId().equals(colis.getTransporteurId());
+        if (reserved && !chargeLedger.reserve(transporteur.getId(), poids, 1)) {
+            throw new BusinessException("Transporteur " + transporteur.getLogin() + " has no capacity left for this colis");
         }
         
-        colis.setTransporteurId(transporteur.getId());
-        Colis saved = colisRepository.save(colis);
-        return colisMapper.toDTO(saved);
+        ColisChange change = colisRepository.assignTransporteur(colisId, transporteur.getId(), colis.getType(), colis.getVersion());
+        Deltas deltas = new Deltas();
+        if (reserved) {
+            deltas.add(transporteur.getId(), -poids, -1);
+        }
+        if (change == null) {
+            chargeLedger.apply(deltas);
+            // Deleted or modified since it was read
+            Colis current = colisRepository.findById(colisId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + colisId));
+            checkAssignable(current, transporteur);
+            throw new ConflictException("Colis was modified concurrently, please retry");
+        }
+        chargeLedger.apply(deltas.remove(change.before()).add(change.after()));
+        colisCounters.record(change.before(), change.after());
+        return colisMapper.toDTO(change.after());
     }
     
-    // Update colis (ADMIN only)
+    // Update colis (ADMIN only): only the provided fields are written
     public ColisDTO updateColis(String id, UpdateColisRequest request) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + id));
-        
-        if (request.getType() != null) {
-            colis.setType(request.getType());
-        }
-        if (request.getPoids() != null) {
-            colis.setPoids(request.getPoids());
-        }
+        return updateColis(id, request, null);
+    }
+    
+    // With an expectedVersion (from If-Match) the write only applies to that version
+    public ColisDTO updateColis(String id, UpdateColisRequest request, Long expectedVersion) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, "type", request.getType());
+        putIfPresent(changes, "poids", request.getPoids());
+        putIfPresent(changes, "adresseDestination", request.getAdresseDestination());
+        putIfPresent(changes, "instructionsManutention", request.getInstructionsManutention());
+        putIfPresent(changes, "temperatureMin", request.getTemperatureMin());
+        putIfPresent(changes, "temperatureMax", request.getTemperatureMax());
         if (request.getAdresseDestination() != null) {
-            colis.setAdresseDestination(request.getAdresseDestination());
+            AddressNormalizer.Zone zone = AddressNormalizer.normalize(request.getAdresseDestination());
+            changes.put("codePostal", zone.codePostal());
+            changes.put("ville", zone.ville());
         }
-        if (request.getInstructionsManutention() != null) {
-            colis.setInstructionsManutention(request.getInstructionsManutention());
-        }
-        if (request.getTemperatureMin() != null) {
-            colis.setTemperatureMin(request.getTemperatureMin());
-        }
-        if (request.getTemperatureMax() != null) {
-            colis.setTemperatureMax(request.getTemperatureMax());
+        if (request.getAdresseDestination() != null || request.getType() != null) {
+            // A wave groups one zone and one type: the colis leaves its wave
+            changes.put("waveId", null);
         }
         
-        Colis saved = colisRepository.save(colis);
-        return colisMapper.toDTO(saved);
+        ColisChange change = changes.isEmpty()
+                ? colisRepository.findById(id)
+                        .filter(colis -> expectedVersion == null || expectedVersion.equals(colis.getVersion()))
+                        .map(colis -> new ColisChange(colis, colis))
+                        .orElse(null)
+                : colisRepository.updateFields(id, changes, expectedVersion);
+        if (change == null) {
+            throw noMatch(id, null, expectedVersion, null);
+        }
+        // A new poids moves the charge of the transporteur, even past its capacity
+        chargeLedger.record(change.before(), change.after());
+        colisCounters.record(change.before(), change.after());
+        return colisMapper.toDTO(change.after());
     }
     
-    // Update colis statut (TRANSPORTEUR can update their colis, ADMIN can update all)
+    // Update colis statut (TRANSPORTEUR can update their colis, ADMIN can update all).
+    // For a transporteur the ownership check is part of the update filter
     public ColisDTO updateColisStatut(User currentUser, String id, UpdateStatutRequest request) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + id));
-        
-        // Check authorization
-        if (currentUser.getRole() == Role.TRANSPORTEUR) {
-            if (colis.getTransporteurId() == null || !colis.getTransporteurId().equals(currentUser.getId())) {
-                throw new UnauthorizedException("You can only update your own colis");
-            }
+        return updateColisStatut(currentUser, id, request, null);
+    }
+    
+    public ColisDTO updateColisStatut(User currentUser, String id, UpdateStatutRequest request, Long expectedVersion) {
+        String ownerId = currentUser.getRole() == Role.TRANSPORTEUR ? currentUser.getId() : null;
+        ColisChange change = colisRepository.updateStatut(id, ownerId, request.getStatut(), expectedVersion);
+        if (change == null) {
+            throw noMatch(id, ownerId, expectedVersion, "You can only update your own colis", request.getStatut());
         }
-        
-        colis.setStatut(request.getStatut());
-        Colis saved = colisRepository.save(colis);
-        return colisMapper.toDTO(saved);
+        // Delivering or cancelling frees the capacity, going back to the depot keeps it
+        chargeLedger.record(change.before(), change.after());
+        colisCounters.record(change.before(), change.after());
+        eventRecorder.record(id, change.before().getStatut(), request.getStatut(), currentUser);
+        return colisMapper.toDTO(change.after());
     }
     
     // Delete colis (ADMIN only)
     public void deleteColis(String id) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + id));
-        colisRepository.delete(colis);
+        ColisChange change = colisRepository.deleteIfPresent(id);
+        if (change == null) {
+            throw new ResourceNotFoundException("Colis not found with id: " + id);
+        }
+        chargeLedger.record(change.before(), null);
+        colisCounters.record(change.before(), null);
+    }
+    
+    // Statut history of a colis, oldest first; a transporteur only sees the history of their colis
+    public PageResponse<ColisEventDTO> getColisEvents(User currentUser, String id, int page, int size) {
+        checkPageSize(size);
+        getColisById(currentUser, id);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("ts"));
+        return PageResponse.from(colisEventRepository.findByColisId(id, pageable).map(colisMapper::toDTO));
     }
     
     // Get colis by id
     public ColisDTO getColisById(User currentUser, String id) {
-        Colis colis = colisRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + id));
-        
-        // Check authorization for TRANSPORTEUR
         if (currentUser.getRole() == Role.TRANSPORTEUR) {
-            if (colis.getTransporteurId() == null || !colis.getTransporteurId().equals(currentUser.getId())) {
-                throw new UnauthorizedException("You can only view your own colis");
-            }
+            return colisRepository.findByIdAndTransporteurId(id, currentUser.getId())
+                    .map(colisMapper::toDTO)
+                    .orElseThrow(() -> noMatch(id, currentUser.getId(), null, "You can only view your own colis"));
         }
         
+        Colis colis = colisRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Colis not found with id: " + id));
         return colisMapper.toDTO(colis);
     }
     
     // Helper methods
-    private void validateColisRequest(CreateColisRequest request) {
+    static void checkPageSize(int size) {
+        if (size < 1) {
+            throw new BusinessException("Size must be positive");
+        }
+    }
+    
+    // rows holds up to size + 1 entries: the extra one only tells whether a next page exists
+    private <T> PageResponse<T> cursorPage(List<T> rows, int size, boolean hasPrevious, Function<T, String> idOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? CursorCodec.encode(idOf.apply(page.get(page.size() - 1))) : null;
+        return PageResponse.fromCursor(page, size, hasPrevious, nextCursor);
+    }
+    
+    // Only called once a filtered write or read matched nothing: tells a missing colis (404)
+    // from someone else's (Unauthorized) and a stale If-Match (412). Anything else means the
+    // document changed between the write and this read, which the client resolves (409)
+    private RuntimeException noMatch(String id, String ownerId, Long expectedVersion, String notOwnedMessage) {
+        return noMatch(id, ownerId, expectedVersion, notOwnedMessage, null);
+    }
+    
+    private RuntimeException noMatch(String id, String ownerId, Long expectedVersion, String notOwnedMessage,
+                                     StatutColis targetStatut) {
+        return mismatch(colisRepository.findById(id).orElse(null), id, ownerId, expectedVersion, notOwnedMessage,
+                targetStatut);
+    }
+    
+    // The mapping itself, given the colis as it is now; shared with the reactive service
+    static RuntimeException mismatch(Colis current, String id, String ownerId, Long expectedVersion,
+                                     String notOwnedMessage, StatutColis targetStatut) {
+        if (current == null) {
+            return new ResourceNotFoundException("Colis not found with id: " + id);
+        }
+        if (ownerId != null && !ownerId.equals(current.getTransporteurId())) {
+            return new UnauthorizedException(notOwnedMessage);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            return new PreconditionFailedException("Colis " + id + " is at version " + current.getVersion()
+                    + ", not " + expectedVersion);
+        }
+        if (targetStatut != null && !current.getStatut().canBecome(targetStatut)) {
+            return new ConflictException("Colis " + id + " cannot go from " + current.getStatut() + " to " + targetStatut
+                    + " (allowed: " + current.getStatut().next() + ")");
+        }
+        return new ConflictException("Colis " + id + " was modified concurrently");
+    }
+    
+    private static void putIfPresent(Map<String, Object> changes, String field, Object value) {
+        if (value != null) {
+            changes.put(field, value);
+        }
+    }
+    
+    // Transporteurs only ever see their own colis, whatever transporteurId they passed
+    static ColisFilter scopedTo(User currentUser, ColisFilter filter) {
+        ColisFilter scoped = filter != null ? filter : new ColisFilter();
+        if (currentUser.getRole() != Role.ADMIN) {
+            scoped.setTransporteurId(currentUser.getId());
+        }
+        return scoped;
+    }
+    
+    // Rules bean validation cannot express; also applied per line by the bulk import
+    public void validateColisRequest(CreateColisRequest request) {
         if (request.getType() == TypeColis.FRAGILE && request.getInstructionsManutention() == null) {
             throw new BusinessException("Instructions manutention is required for FRAGILE colis");
         }
@@ -196,7 +342,22 @@ public class ColisService {
         }
     }
     
-    private Specialite mapTypeToSpecialite(TypeColis type) {
+    // Role and specialite rules for an assignment; shared with the batch endpoints
+    static void checkAssignable(Colis colis, User transporteur) {
+        if (transporteur.getRole() != Role.TRANSPORTEUR) {
+            throw new BusinessException("User is not a TRANSPORTEUR");
+        }
+        
+        Specialite requiredSpecialite = mapTypeToSpecialite(colis.getType());
+        if (transporteur.getSpecialite() != requiredSpecialite) {
+            throw new BusinessException(
+                    "Transporteur specialite (" + transporteur.getSpecialite() + 
+                    ") does not match colis type (" + colis.getType() + ")"
+            );
+        }
+    }
+    
+    static Specialite mapTypeToSpecialite(TypeColis type) {
         return switch (type) {
             case STANDARD -> Specialite.STANDARD;
             case FRAGILE -> Specialite.FRAGILE;
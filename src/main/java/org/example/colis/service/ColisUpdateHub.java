@@ -0,0 +1,274 @@
+package org.example.colis.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.colis.dto.ColisUpdateEvent;
+import org.example.colis.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fans the colis change stream out to the SSE subscribers of each transporteur, in memory.
+ * Every subscriber has a bounded buffer drained by a small sender pool; a subscriber whose
+ * buffer is full is dropped and reconnects with Last-Event-ID. The most recent updates are
+ * kept so that a reconnect replays what it missed; when its id is older than that, or it
+ * missed more than its buffer holds, the subscriber gets a "resync" event and reloads its
+ * list instead.
+ */
+@Component
+public class ColisUpdateHub {
+
+    private static final Supplier<SseEmitter.SseEventBuilder> HEARTBEAT = () -> SseEmitter.event().comment("heartbeat");
+
+    private static final Supplier<SseEmitter.SseEventBuilder> RESYNC = () -> SseEmitter.event().name("resync").data("");
+
+    // One change of the colis collection; token is the change stream resume token, sent as the SSE id
+    public record Update(String token, Set<String> transporteurIds, ColisUpdateEvent event) {
+    }
+
+    private final boolean enabled;
+
+    private final int bufferSize;
+
+    private final int replaySize;
+
+    private final long timeoutMs;
+
+    private final ThreadPoolExecutor sender;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Guarded by recentLock, which also orders a reconnect's replay against updates published meanwhile.
+    // A lock rather than synchronized so that virtual request threads never pin their carrier here
+    private final ArrayDeque<Update> recent = new ArrayDeque<>();
+
+    private final ReentrantLock recentLock = new ReentrantLock();
+
+    private final Counter dropped;
+
+    public ColisUpdateHub(MeterRegistry meterRegistry,
+                          @Value("${colis.stream.enabled:false}") boolean enabled,
+                          @Value("${colis.stream.buffer-size:256}") int bufferSize,
+                          @Value("${colis.stream.replay-size:10000}") int replaySize,
+                          @Value("${colis.stream.timeout:PT30M}") Duration timeout,
+                          @Value("${colis.stream.sender-threads:0}") int senderThreads) {
+        this.enabled = enabled;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.timeoutMs = timeout.toMillis();
+        int threads = senderThreads > 0 ? senderThreads : Runtime.getRuntime().availableProcessors();
+        // Unbounded queue, but each subscriber has at most one flush task in it
+        this.sender = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("colis-sse-"));
+        Gauge.builder("colis.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open SSE subscriptions to colis updates")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("colis.stream.dropped")
+                .description("Subscribers dropped because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public SseEmitter subscribe(String transporteurId, String lastEventId) {
+        if (!enabled) {
+            throw new BusinessException("Colis updates streaming is not enabled");
+        }
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(transporteurId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        recentLock.lock();
+        try {
+            // Registered before the replay, so that a remove() during it undoes the registration
+            subscribers.compute(transporteurId, (id, targets) -> {
+                Set<Subscriber> updated = targets != null ? targets : ConcurrentHashMap.newKeySet();
+                updated.add(subscriber);
+                return updated;
+            });
+            subscriberCount.incrementAndGet();
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(subscriber, lastEventId);
+            }
+        } finally {
+            recentLock.unlock();
+        }
+        return emitter;
+    }
+
+    // Called by the single change stream thread, in stream order
+    public void publish(Update update) {
+        recentLock.lock();
+        try {
+            if (recent.size() == replaySize) {
+                recent.removeFirst();
+            }
+            recent.addLast(update);
+            for (String transporteurId : update.transporteurIds()) {
+                Set<Subscriber> targets = subscribers.get(transporteurId);
+                if (targets != null) {
+                    targets.forEach(subscriber -> enqueue(subscriber, message(update)));
+                }
+            }
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    // The stream restarted without its resume token: nobody can trust its last id any more
+    public void resync() {
+        recentLock.lock();
+        try {
+            recent.clear();
+            forEachSubscriber(subscriber -> enqueue(subscriber, RESYNC));
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects the ones that are gone
+    @Scheduled(fixedDelayString = "${colis.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        forEachSubscriber(subscriber -> enqueue(subscriber, HEARTBEAT));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+        sender.shutdown();
+    }
+
+    protected SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        boolean seen = false;
+        List<Update> missed = new ArrayList<>();
+        for (Update update : recent) {
+            if (!seen) {
+                seen = update.token().equals(lastEventId);
+            } else if (update.transporteurIds().contains(subscriber.transporteurId)) {
+                missed.add(update);
+            }
+        }
+        // More than the buffer holds would drop the subscriber, and its reconnect would replay the same
+        if (!seen || missed.size() > bufferSize) {
+            enqueue(subscriber, RESYNC);
+            return;
+        }
+        missed.forEach(update -> enqueue(subscriber, message(update)));
+    }
+
+    private static Supplier<SseEmitter.SseEventBuilder> message(Update update) {
+        // A builder is consumed by one send, so each subscriber builds its own
+        return () -> SseEmitter.event().id(update.token()).name("colis").data(update.event());
+    }
+
+    private void enqueue(Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.buffer.offer(message)) {
+            // Too slow to keep up: the client reconnects and replays from its last id
+            dropped.increment();
+            remove(subscriber);
+            // complete() waits for a send in progress, so not on the publishing thread
+            sender.execute(subscriber.emitter::complete);
+            return;
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> flush(subscriber));
+        }
+    }
+
+    private void flush(Subscriber subscriber) {
+        while (true) {
+            Supplier<SseEmitter.SseEventBuilder> message = subscriber.buffer.poll();
+            if (message == null) {
+                subscriber.scheduled.set(false);
+                // An enqueue between the poll and the reset saw scheduled=true and did not resubmit
+                if (subscriber.buffer.isEmpty() || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                subscriber.emitter.send(message.get());
+            } catch (IOException | IllegalStateException e) {
+                remove(subscriber);
+                return;
+            }
+        }
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        subscribers.values().forEach(targets -> targets.forEach(action));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriber.buffer.clear();
+        subscribers.computeIfPresent(subscriber.transporteurId, (id, targets) -> {
+            targets.remove(subscriber);
+            return targets.isEmpty() ? null : targets;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private static final class Subscriber {
+
+        private final String transporteurId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> buffer;
+
+        // A flush task is queued or running; at most one per subscriber
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(String transporteurId, SseEmitter emitter, int bufferSize) {
+            this.transporteurId = transporteurId;
+            this.emitter = emitter;
+            // Linked, so an idle subscriber does not hold a full buffer
+            this.buffer = new LinkedBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.colis.service;
+
+import org.bson.types.ObjectId;
+import org.example.colis.exception.BusinessException;
+
+import java.util.Base64;
+
+/**
+ * Encodes the opaque "after" cursors used by keyset pagination.
+ * A cursor wraps the _id of the last document of the previous page.
+ */
+public final class CursorCodec {
+    
+    private CursorCodec() {
+    }
+    
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(new ObjectId(id).toByteArray());
+    }
+    
+    // Returns null for a blank cursor, which means the first page
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new ObjectId(Base64.getUrlDecoder().decode(cursor)).toHexString();
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+    }
+}
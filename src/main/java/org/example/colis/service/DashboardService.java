@@ -0,0 +1,162 @@
+package org.example.colis.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.example.colis.dto.DashboardDTO;
+import org.example.colis.dto.UserDTO;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.StatutTransporteur;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.mapper.UserMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.facet;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Admin dashboard in two aggregations run in parallel instead of one count per statut x type:
+ * colis grouped by statut and type (a covered scan of the type_statut_id index), and a $facet
+ * over transporteurs giving the available ones per specialite and the most loaded ones (the
+ * charge counters kept by TransporteurChargeLedger). The result is cached for a few seconds
+ * under a single key; concurrent refreshes share the computation in flight.
+ */
+@Service
+public class DashboardService {
+
+    private static final String KEY = "dashboard";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final UserMapper userMapper;
+
+    private final int workloadLimit;
+
+    private final ExecutorService executor;
+
+    private final AsyncCache<String, DashboardDTO> cache;
+
+    public DashboardService(MongoTemplate mongoTemplate,
+                            UserMapper userMapper,
+                            @Value("${colis.dashboard.ttl:PT10S}") Duration ttl,
+                            @Value("${colis.dashboard.workload-limit:50}") int workloadLimit) {
+        this.mongoTemplate = mongoTemplate;
+        this.userMapper = userMapper;
+        this.workloadLimit = workloadLimit;
+        // One thread per aggregation
+        this.executor = Executors.newFixedThreadPool(2, new CustomizableThreadFactory("dashboard-"));
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    public CompletableFuture<DashboardDTO> getDashboardAsync() {
+        return cache.get(KEY, (key, ignored) -> compute());
+    }
+
+    private CompletableFuture<DashboardDTO> compute() {
+        long start = System.nanoTime();
+        CompletableFuture<ColisCounts> colis = CompletableFuture.supplyAsync(this::colisCounts, executor);
+        CompletableFuture<Document> transporteurs =
+                CompletableFuture.supplyAsync(this::transporteurFacets, executor);
+        return colis.thenCombine(transporteurs, (colisCounts, facets) -> new DashboardDTO(
+                colisCounts.total(),
+                colisCounts.byStatutAndType(),
+                availableBySpecialite(facets.getList("available", Document.class)),
+                facets.getList("workloads", Document.class).stream()
+                        .map(row -> userMapper.toDTO(mongoTemplate.getConverter().read(User.class, row)))
+                        .toList(),
+                Instant.now(),
+                (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private record ColisCounts(long total, Map<StatutColis, Map<TypeColis, Long>> byStatutAndType) {
+    }
+
+    private ColisCounts colisCounts() {
+        // Only statut and type are read, so the hinted index covers the whole pipeline
+        Aggregation aggregation = Aggregation.newAggregation(
+                project("statut", "type").andExclude("_id"),
+                group("statut", "type").count().as("count"))
+                .withOptions(AggregationOptions.builder().hint("type_statut_id").build());
+        Map<StatutColis, Map<TypeColis, Long>> counts = new EnumMap<>(StatutColis.class);
+        for (StatutColis statut : StatutColis.values()) {
+            Map<TypeColis, Long> byType = new EnumMap<>(TypeColis.class);
+            for (TypeColis type : TypeColis.values()) {
+                byType.put(type, 0L);
+            }
+            counts.put(statut, byType);
+        }
+        long total = 0;
+        for (Document row : mongoTemplate.aggregate(aggregation, Colis.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            String statut = id.getString("statut");
+            String type = id.getString("type");
+            long count = row.get("count", Number.class).longValue();
+            total += count;
+            // Colis without statut or type only show in the total
+            if (statut != null && type != null) {
+                counts.get(StatutColis.valueOf(statut)).put(TypeColis.valueOf(type), count);
+            }
+        }
+        return new ColisCounts(total, counts);
+    }
+
+    private Document transporteurFacets() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("role").is(Role.TRANSPORTEUR)),
+                facet(match(where("active").is(true).and("statut").is(StatutTransporteur.DISPONIBLE)),
+                        group("specialite").count().as("count"))
+                        .as("available")
+                        .and(sort(Sort.by(Sort.Direction.DESC, "chargeColis", "chargePoids")),
+                                limit(workloadLimit),
+                                project().andExclude("password"))
+                        .as("workloads"));
+        Document facets = mongoTemplate.aggregate(aggregation, User.class, Document.class).getUniqueMappedResult();
+        return facets != null ? facets : new Document("available", List.of()).append("workloads", List.of());
+    }
+
+    private static Map<Specialite, Long> availableBySpecialite(List<Document> rows) {
+        Map<Specialite, Long> available = new EnumMap<>(Specialite.class);
+        for (Specialite specialite : Specialite.values()) {
+            available.put(specialite, 0L);
+        }
+        for (Document row : rows) {
+            String specialite = row.getString("_id");
+            if (specialite != null) {
+                available.put(Specialite.valueOf(specialite), row.get("count", Number.class).longValue());
+            }
+        }
+        return available;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
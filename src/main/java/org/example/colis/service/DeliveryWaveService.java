@@ -0,0 +1,318 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.DeliveryWaveDTO;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.WaveClusteringReport;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.StatutWave;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.exception.ResourceNotFoundException;
+import org.example.colis.mapper.DeliveryWaveMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.model.DeliveryWave;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisAudit;
+import org.example.colis.repository.DeliveryWaveRepository;
+import org.example.colis.repository.UserRepository;
+import org.example.colis.service.TransporteurChargeLedger.Deltas;
+import org.example.colis.service.WavePlanner.PendingColis;
+import org.example.colis.service.WavePlanner.PlannedWave;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Delivery waves: waiting colis grouped by zone and type (see WavePlanner) so a dispatcher
+ * assigns a whole wave to one transporteur in a single write instead of colis by colis.
+ *
+ * Clustering only takes unassigned EN_ATTENTE colis that have a codePostal and no wave yet.
+ * The waves are inserted first, then each colis is tagged with its waveId by a conditional
+ * update, so a colis assigned or grouped elsewhere in the meantime is left out (and the wave
+ * counts corrected). Assigning a wave claims it, reserves the capacity of the transporteur and
+ * assigns its still waiting colis with one updateMulti.
+ */
+@Service
+public class DeliveryWaveService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryWaveService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeliveryWaveRepository waveRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryWaveMapper waveMapper;
+
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+
+    @Autowired
+    private ColisCounters colisCounters;
+
+    @Value("${colis.waves.enabled:false}")
+    private boolean enabled;
+
+    @Value("${colis.waves.round-size:50000}")
+    private int roundSize;
+
+    @Value("${colis.waves.max-colis:50}")
+    private int maxColis;
+
+    @Value("${colis.waves.max-poids:1000}")
+    private double maxPoids;
+
+    // Clustering runs of this instance never overlap (scheduled and on-demand)
+    private final ReentrantLock clusteringLock = new ReentrantLock();
+
+    @Scheduled(fixedDelayString = "${colis.waves.interval-ms:300000}")
+    public void scheduledClustering() {
+        if (enabled && clusteringLock.tryLock()) {
+            try {
+                runClustering();
+            } finally {
+                clusteringLock.unlock();
+            }
+        }
+    }
+
+    public WaveClusteringReport cluster() {
+        if (!clusteringLock.tryLock()) {
+            throw new ConflictException("A clustering run is already in progress");
+        }
+        try {
+            return runClustering();
+        } finally {
+            clusteringLock.unlock();
+        }
+    }
+
+    public PageResponse<DeliveryWaveDTO> getWaves(StatutWave statut, Pageable pageable) {
+        return PageResponse.from((statut != null
+                ? waveRepository.findByStatut(statut, pageable)
+                : waveRepository.findAll(pageable)).map(waveMapper::toDTO));
+    }
+
+    public DeliveryWaveDTO getWave(String id) {
+        return waveMapper.toDTO(findWave(id));
+    }
+
+    // Assign every colis of the wave that is still waiting to one transporteur
+    public DeliveryWaveDTO assignWave(String waveId, String transporteurId) {
+        DeliveryWave wave = findWave(waveId);
+        if (wave.getStatut() != StatutWave.OUVERTE) {
+            throw new ConflictException("Wave is already assigned");
+        }
+        User transporteur = userRepository.findById(transporteurId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transporteur not found with id: " + transporteurId));
+        if (transporteur.getRole() != Role.TRANSPORTEUR) {
+            throw new BusinessException("User is not a TRANSPORTEUR");
+        }
+        Specialite required = ColisService.mapTypeToSpecialite(wave.getType());
+        if (transporteur.getSpecialite() != required) {
+            throw new BusinessException("Transporteur specialite (" + transporteur.getSpecialite()
+                    + ") does not match wave type (" + wave.getType() + ")");
+        }
+
+        List<Colis> waiting = mongoTemplate.find(stillWaiting(waveId), Colis.class);
+        if (waiting.isEmpty()) {
+            throw new BusinessException("Wave has no waiting colis left");
+        }
+        double poids = waiting.stream().mapToDouble(TransporteurChargeLedger::poidsOf).sum();
+        if (!chargeLedger.reserve(transporteurId, poids, waiting.size())) {
+            throw new BusinessException("Transporteur " + transporteur.getLogin() + " has no capacity left for this wave");
+        }
+        Deltas deltas = new Deltas().add(transporteurId, -poids, -waiting.size());
+
+        // Claiming the wave first makes two concurrent assignments of it fail fast
+        DeliveryWave claimed = mongoTemplate.findAndModify(
+                query(where("_id").is(waveId).and("statut").is(StatutWave.OUVERTE)),
+                new Update().set("statut", StatutWave.ASSIGNEE)
+                        .set("transporteurId", transporteurId)
+                        .set("assignedAt", Instant.now())
+                        .inc("version", 1),
+                DeliveryWave.class);
+        if (claimed == null) {
+            chargeLedger.apply(deltas);
+            throw new ConflictException("Wave is already assigned");
+        }
+
+        // One write for the whole wave; the marker tells which colis it actually assigned
+        String writeId = UUID.randomUUID().toString();
+        Query reserved = stillWaiting(waveId)
+                .addCriteria(where("_id").in(waiting.stream().map(Colis::getId).toList()));
+        mongoTemplate.updateMulti(reserved, ColisAudit.audited(new Update().set("transporteurId", transporteurId), null, Instant.now())
+                .set("lastWriteId", writeId)
+                .inc("version", 1), Colis.class);
+        Query written = query(where("waveId").is(waveId).and("lastWriteId").is(writeId));
+        written.fields().include("transporteurId", "statut", "poids");
+        List<Colis> assigned = mongoTemplate.find(written, Colis.class);
+        assigned.forEach(deltas::add);
+        chargeLedger.apply(deltas);
+        if (assigned.isEmpty()) {
+            // Every colis was assigned or cancelled since it was read: give the wave back
+            mongoTemplate.updateFirst(query(where("_id").is(waveId).and("statut").is(StatutWave.ASSIGNEE)
+                            .and("transporteurId").is(transporteurId)),
+                    new Update().set("statut", StatutWave.OUVERTE)
+                            .unset("transporteurId")
+                            .unset("assignedAt")
+                            .inc("version", 1),
+                    DeliveryWave.class);
+            throw new ConflictException("None of the wave's colis is still waiting");
+        }
+        // The colis of a wave share its type and were unassigned and EN_ATTENTE
+        colisCounters.apply(new ColisCounters.Changes()
+                .add(null, wave.getType(), StatutColis.EN_ATTENTE, -assigned.size())
+                .add(transporteurId, wave.getType(), StatutColis.EN_ATTENTE, assigned.size()));
+
+        DeliveryWave result = mongoTemplate.findAndModify(query(where("_id").is(waveId)),
+                new Update().set("colisAssignes", assigned.size()).inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), DeliveryWave.class);
+        return waveMapper.toDTO(result);
+    }
+
+    private WaveClusteringReport runClustering() {
+        long start = System.nanoTime();
+        Query pendingQuery = query(where("statut").is(StatutColis.EN_ATTENTE)
+                .and("transporteurId").is(null)
+                .and("waveId").is(null)
+                .and("codePostal").ne(null))
+                .with(Sort.by("createdAt", "_id"))
+                .limit(roundSize);
+        pendingQuery.fields().include("type", "codePostal", "ville", "poids", "createdAt");
+        List<PendingColis> pending = mongoTemplate.find(pendingQuery, Colis.class).stream()
+                .map(colis -> new PendingColis(colis.getId(), colis.getType(), colis.getCodePostal(),
+                        colis.getVille(), TransporteurChargeLedger.poidsOf(colis), colis.getCreatedAt()))
+                .toList();
+        List<PlannedWave> planned = new WavePlanner(maxColis, maxPoids).plan(pending);
+        long grouped = planned.isEmpty() ? 0 : write(planned);
+
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        if (!planned.isEmpty()) {
+            log.info("Grouped {} of {} waiting colis into {} waves in {} ms", grouped, pending.size(),
+                    planned.size(), durationMs);
+        }
+        return new WaveClusteringReport(pending.size(), planned.size(), grouped, durationMs);
+    }
+
+    // Returns how many colis were tagged with a wave
+    private long write(List<PlannedWave> planned) {
+        List<DeliveryWave> waves = new ArrayList<>(planned.size());
+        for (PlannedWave plannedWave : planned) {
+            DeliveryWave wave = new DeliveryWave();
+            wave.setCodePostal(plannedWave.codePostal());
+            wave.setVille(plannedWave.ville());
+            wave.setType(plannedWave.type());
+            wave.setColisCount(plannedWave.colis().size());
+            wave.setPoidsTotal(plannedWave.poids());
+            waves.add(wave);
+        }
+        List<DeliveryWave> inserted = new ArrayList<>(mongoTemplate.insertAll(waves));
+
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class);
+        for (int i = 0; i < planned.size(); i++) {
+            List<String> ids = planned.get(i).colis().stream().map(PendingColis::id).toList();
+            bulk.updateMulti(query(where("_id").in(ids)
+                            .and("waveId").is(null)
+                            .and("statut").is(StatutColis.EN_ATTENTE)
+                            .and("transporteurId").is(null)),
+                    ColisAudit.audited(new Update().set("waveId", inserted.get(i).getId()), null, now).inc("version", 1));
+        }
+        long grouped;
+        boolean complete;
+        try {
+            grouped = bulk.execute().getModifiedCount();
+            complete = grouped == planned.stream().mapToLong(wave -> wave.colis().size()).sum();
+        } catch (BulkOperationException e) {
+            // Unordered: the other waves were still written
+            log.warn("Wave clustering: {} write(s) failed, first error: {}",
+                    e.getErrors().size(), e.getErrors().get(0).getMessage());
+            grouped = e.getResult().getModifiedCount();
+            complete = false;
+        }
+        if (!complete) {
+            recount(inserted);
+        }
+        return grouped;
+    }
+
+    // Some colis changed between the read and the tagging: recompute the waves from their colis
+    private void recount(Collection<DeliveryWave> waves) {
+        List<String> ids = waves.stream().map(DeliveryWave::getId).toList();
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("waveId").in(ids)),
+                group("waveId").count().as("colisCount").sum("poids").as("poidsTotal"));
+        Map<String, WaveTotals> totals = mongoTemplate.aggregate(aggregation, Colis.class, WaveTotals.class)
+                .getMappedResults().stream()
+                .collect(Collectors.toMap(WaveTotals::id, total -> total));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DeliveryWave.class);
+        int corrections = 0;
+        for (DeliveryWave wave : waves) {
+            WaveTotals total = totals.get(wave.getId());
+            if (total == null) {
+                bulk.remove(query(where("_id").is(wave.getId())));
+                corrections++;
+            } else if (total.colisCount() != wave.getColisCount()) {
+                bulk.updateOne(query(where("_id").is(wave.getId())), new Update()
+                        .set("colisCount", total.colisCount())
+                        .set("poidsTotal", total.poidsTotal())
+                        .inc("version", 1));
+                corrections++;
+            }
+        }
+        if (corrections > 0) {
+            bulk.execute();
+        }
+    }
+
+    private static Query stillWaiting(String waveId) {
+        Query query = query(where("waveId").is(waveId)
+                .and("transporteurId").is(null)
+                .and("statut").is(StatutColis.EN_ATTENTE));
+        query.fields().include("poids");
+        return query;
+    }
+
+    private DeliveryWave findWave(String id) {
+        return waveRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Wave not found with id: " + id));
+    }
+
+    private record WaveTotals(String id, int colisCount, double poidsTotal) {
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.TypeColis;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Plans one dispatch round in memory: which waiting colis go to which transporteur, following
+ * the type / specialite rule of ColisService and the vehicle capacities. No I/O, so the
+ * implementations can be benchmarked on their own.
+ */
+public interface DispatchPlanner {
+
+    List<Assignment> plan(Collection<WaitingColis> waiting, Collection<Candidate> transporteurs);
+
+    record WaitingColis(String id, TypeColis type, Instant createdAt, double poids, Long version) {
+    }
+
+    // chargeColis / chargePoids = open colis already assigned; a null capacity has no limit
+    // (colis count then falls back to the planner's default maximum)
+    record Candidate(String id, Specialite specialite, int chargeColis, double chargePoids,
+                     Integer capaciteColisMax, Double capacitePoidsMax) {
+
+        int colisLimit(int defaultMaxColis) {
+            return capaciteColisMax != null ? capaciteColisMax : defaultMaxColis;
+        }
+
+        double poidsLeft() {
+            return capacitePoidsMax != null ? capacitePoidsMax - chargePoids : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    record Assignment(WaitingColis colis, String transporteurId) {
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.DispatchReport;
+import org.example.colis.enums.DispatchMode;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.StatutTransporteur;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisAudit;
+import org.example.colis.service.DispatchPlanner.Assignment;
+import org.example.colis.service.DispatchPlanner.Candidate;
+import org.example.colis.service.DispatchPlanner.WaitingColis;
+import org.example.colis.service.TransporteurChargeLedger.Deltas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Automatic assignment of waiting colis. A round loads the oldest unassigned EN_ATTENTE colis
+ * and the available transporteurs with their charges, plans in memory (BALANCED or PACKED,
+ * see DispatchPlanner), reserves the planned capacity of each transporteur and writes every
+ * assignment in one unordered bulk write.
+ *
+ * Each write only matches a colis that is still unassigned, waiting and at the version that
+ * was read, so several instances (or an admin assigning by hand) can run concurrently: a colis
+ * is claimed by exactly one of them. The writes are tagged with the round id and read back, so
+ * the capacity reserved for colis claimed elsewhere is given back.
+ */
+@Service
+public class DispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+
+    @Autowired
+    private ColisCounters colisCounters;
+
+    @Value("${colis.dispatch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${colis.dispatch.mode:BALANCED}")
+    private DispatchMode defaultMode;
+
+    @Value("${colis.dispatch.round-size:5000}")
+    private int roundSize;
+
+    // Open colis per transporteur when it has no capaciteColisMax
+    @Value("${colis.dispatch.max-load:20}")
+    private int maxLoad;
+
+    // Rounds of this instance never overlap (scheduled and on-demand)
+    private final ReentrantLock roundLock = new ReentrantLock();
+
+    @Scheduled(fixedDelayString = "${colis.dispatch.interval-ms:60000}")
+    public void scheduledRound() {
+        if (enabled && roundLock.tryLock()) {
+            try {
+                runRound(defaultMode);
+            } finally {
+                roundLock.unlock();
+            }
+        }
+    }
+
+    public DispatchReport dispatch(DispatchMode mode) {
+        if (!roundLock.tryLock()) {
+            throw new ConflictException("A dispatch round is already running");
+        }
+        try {
+            return runRound(mode != null ? mode : defaultMode);
+        } finally {
+            roundLock.unlock();
+        }
+    }
+
+    private DispatchReport runRound(DispatchMode mode) {
+        long start = System.nanoTime();
+        List<WaitingColis> waiting = loadWaiting();
+        List<Candidate> transporteurs = waiting.isEmpty() ? List.of() : loadCandidates();
+        DispatchPlanner planner = mode == DispatchMode.PACKED
+                ? new CapacityPlanner(maxLoad)
+                : new BalancedDispatchPlanner(maxLoad);
+        List<Assignment> plan = planner.plan(waiting, transporteurs);
+        long assigned = plan.isEmpty() ? 0 : claim(plan);
+
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rate = assigned * 1000.0 / durationMs;
+        if (!plan.isEmpty()) {
+            log.info("Dispatched ({}) {} of {} waiting colis to {} transporteurs in {} ms, {} colis/s ({} not claimed)",
+                    mode, assigned, waiting.size(), transporteurs.size(), durationMs, Math.round(rate), plan.size() - assigned);
+        }
+        return new DispatchReport(waiting.size(), transporteurs.size(), plan.size(), assigned,
+                plan.size() - assigned, durationMs, rate);
+    }
+
+    // Oldest first, served by the statut_createdAt_id index
+    private List<WaitingColis> loadWaiting() {
+        Query waiting = query(where("statut").is(StatutColis.EN_ATTENTE).and("transporteurId").is(null))
+                .with(Sort.by("createdAt", "_id"))
+                .limit(roundSize);
+        waiting.fields().include("type", "createdAt", "poids", "version");
+        return mongoTemplate.find(waiting, Colis.class).stream()
+                .map(colis -> new WaitingColis(colis.getId(), colis.getType(), colis.getCreatedAt(),
+                        TransporteurChargeLedger.poidsOf(colis), colis.getVersion()))
+                .toList();
+    }
+
+    private List<Candidate> loadCandidates() {
+        Query available = query(where("role").is(Role.TRANSPORTEUR)
+                .and("active").is(true)
+                .and("statut").is(StatutTransporteur.DISPONIBLE));
+        available.fields().include("specialite", "chargeColis", "chargePoids", "capaciteColisMax", "capacitePoidsMax");
+        return mongoTemplate.find(available, User.class).stream()
+                .map(user -> new Candidate(user.getId(), user.getSpecialite(),
+                        user.getChargeColis() != null ? user.getChargeColis() : 0,
+                        user.getChargePoids() != null ? user.getChargePoids() : 0.0,
+                        user.getCapaciteColisMax(), user.getCapacitePoidsMax()))
+                .toList();
+    }
+
+    // Returns how many colis this round actually claimed
+    private long claim(List<Assignment> plan) {
+        // Reserve what the plan gives each transporteur; a refused reservation (charge changed
+        // since it was read) drops that transporteur's colis from this round
+        Map<String, List<Assignment>> byTransporteur = plan.stream()
+                .collect(Collectors.groupingBy(Assignment::transporteurId));
+        Deltas adjustments = new Deltas();
+        List<Assignment> reserved = new ArrayList<>(plan.size());
+        byTransporteur.forEach((transporteurId, assignments) -> {
+            double poids = assignments.stream().mapToDouble(assignment -> assignment.colis().poids()).sum();
+            if (chargeLedger.reserve(transporteurId, poids, assignments.size())) {
+                adjustments.add(transporteurId, -poids, -assignments.size());
+                reserved.addAll(assignments);
+            }
+        });
+        if (reserved.isEmpty()) {
+            return 0;
+        }
+
+        String roundId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class);
+        for (Assignment assignment : reserved) {
+            WaitingColis colis = assignment.colis();
+            Query stillWaiting = query(where("_id").is(colis.id())
+                    .and("transporteurId").is(null)
+                    .and("statut").is(StatutColis.EN_ATTENTE)
+                    .and("version").is(colis.version()));
+            bulk.updateOne(stillWaiting, ColisAudit.audited(Update.update("transporteurId", assignment.transporteurId()), null, now)
+                    .set("lastWriteId", roundId)
+                    .inc("version", 1));
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: the other assignments were still written
+            log.warn("Dispatch round: {} assignment(s) failed, first error: {}",
+                    e.getErrors().size(), e.getErrors().get(0).getMessage());
+        }
+
+        // The claimed colis now count for their transporteur; the reservations are given back
+        Query claimedQuery = query(where("_id").in(reserved.stream().map(assignment -> assignment.colis().id()).toList())
+                .and("lastWriteId").is(roundId));
+        claimedQuery.fields().include("transporteurId", "type", "statut", "poids");
+        List<Colis> claimed = mongoTemplate.find(claimedQuery, Colis.class);
+        claimed.forEach(adjustments::add);
+        chargeLedger.apply(adjustments);
+        // Each claimed colis was unassigned and EN_ATTENTE before this round
+        ColisCounters.Changes counts = new ColisCounters.Changes();
+        claimed.forEach(colis -> counts.add(null, colis.getType(), StatutColis.EN_ATTENTE, -1).add(colis));
+        colisCounters.apply(counts);
+        return claimed.size();
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.colis.service;
+
+import org.bson.Document;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Keeps the chargePoids / chargeColis counters of transporteurs in step with their open colis
+ * (assigned, EN_ATTENTE or EN_TRANSIT). Counters only move through $inc: a conditional one that
+ * enforces the vehicle capacity when a colis is about to be assigned, and unconditional ones
+ * computed from the before / after state of each colis write. The counters leave the user
+ * version alone, so colis writes never change a transporteur's ETag; user updates go through
+ * UserRepository.saveExceptCharge, which never writes the counters.
+ */
+@Component
+public class TransporteurChargeLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(TransporteurChargeLedger.class);
+
+    private static final List<StatutColis> OPEN_STATUTS = List.of(StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public static boolean isOpen(StatutColis statut) {
+        return OPEN_STATUTS.contains(statut);
+    }
+
+    // Adds poids / count to the charge only if the result stays within the capacity
+    public boolean reserve(String transporteurId, double poids, int count) {
+        Criteria fitsPoids = new Criteria().orOperator(
+                where("capacitePoidsMax").is(null),
+                Criteria.expr(ComparisonOperators.Lte.valueOf(ArithmeticOperators.Add.valueOf("chargePoids").add(poids))
+                        .lessThanEqualTo("capacitePoidsMax")));
+        Criteria fitsCount = new Criteria().orOperator(
+                where("capaciteColisMax").is(null),
+                Criteria.expr(ComparisonOperators.Lte.valueOf(ArithmeticOperators.Add.valueOf("chargeColis").add(count))
+                        .lessThanEqualTo("capaciteColisMax")));
+        Query query = new Query(new Criteria().andOperator(where("_id").is(transporteurId), fitsPoids, fitsCount));
+        return mongoTemplate.updateFirst(query, increment(poids, count), User.class).getModifiedCount() > 0;
+    }
+
+    public void release(String transporteurId, double poids, int count) {
+        apply(new Deltas().add(transporteurId, -poids, -count));
+    }
+
+    // Moves the counters by the difference between two states of one colis (either may be null)
+    public void record(Colis before, Colis after) {
+        apply(new Deltas().remove(before).add(after));
+    }
+
+    public void apply(Deltas deltas) {
+        Map<String, Delta> changes = deltas.nonZero();
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (changes.size() == 1) {
+            Map.Entry<String, Delta> change = changes.entrySet().iterator().next();
+            mongoTemplate.updateFirst(query(where("_id").is(change.getKey())),
+                    increment(change.getValue().poids, change.getValue().count), User.class);
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        changes.forEach((transporteurId, delta) ->
+                bulk.updateOne(query(where("_id").is(transporteurId)), increment(delta.poids, delta.count)));
+        bulk.execute();
+    }
+
+    // Rebuilds the counters of the given transporteurs from their colis (repair / initialisation);
+    // not atomic with writes running at the same time
+    public void recompute(Collection<String> transporteurIds) {
+        Map<String, Document> open = new HashMap<>();
+        Aggregation charges = Aggregation.newAggregation(
+                match(where("transporteurId").in(transporteurIds).and("statut").in(OPEN_STATUTS)),
+                group("transporteurId").sum("poids").as("poids").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(charges, Colis.class, Document.class)) {
+            open.put(row.getString("_id"), row);
+        }
+        for (String transporteurId : transporteurIds) {
+            Document row = open.get(transporteurId);
+            Number poids = row != null ? row.get("poids", Number.class) : null;
+            Update update = Update.update("chargePoids", poids != null ? poids.doubleValue() : 0.0)
+                    .set("chargeColis", row != null ? row.getInteger("count") : 0);
+            mongoTemplate.updateFirst(query(where("_id").is(transporteurId).and("role").is(Role.TRANSPORTEUR)),
+                    update, User.class);
+        }
+        log.info("Recomputed the charge of {} transporteur(s)", transporteurIds.size());
+    }
+
+    public static double poidsOf(Colis colis) {
+        return colis.getPoids() != null ? colis.getPoids() : 0.0;
+    }
+
+    private static Update increment(double poids, int count) {
+        return new Update().inc("chargePoids", poids).inc("chargeColis", count);
+    }
+
+    /**
+     * Counter changes accumulated per transporteur, applied in one write.
+     */
+    public static final class Deltas {
+
+        private final Map<String, Delta> byTransporteur = new HashMap<>();
+
+        public Deltas add(Colis colis) {
+            return contribution(colis, 1);
+        }
+
+        public Deltas remove(Colis colis) {
+            return contribution(colis, -1);
+        }
+
+        public Deltas add(Deltas other) {
+            other.byTransporteur.forEach((id, delta) -> add(id, delta.poids, delta.count));
+            return this;
+        }
+
+        public Deltas add(String transporteurId, double poids, int count) {
+            Delta delta = byTransporteur.computeIfAbsent(transporteurId, id -> new Delta());
+            delta.poids += poids;
+            delta.count += count;
+            return this;
+        }
+
+        // A colis counts for its transporteur while it is assigned and open
+        private Deltas contribution(Colis colis, int sign) {
+            if (colis != null && colis.getTransporteurId() != null && isOpen(colis.getStatut())) {
+                add(colis.getTransporteurId(), sign * poidsOf(colis), sign);
+            }
+            return this;
+        }
+
+        double poids(String transporteurId) {
+            Delta delta = byTransporteur.get(transporteurId);
+            return delta != null ? delta.poids : 0;
+        }
+
+        int count(String transporteurId) {
+            Delta delta = byTransporteur.get(transporteurId);
+            return delta != null ? delta.count : 0;
+        }
+
+        private Map<String, Delta> nonZero() {
+            Map<String, Delta> changes = new HashMap<>();
+            byTransporteur.forEach((id, delta) -> {
+                if (delta.count != 0 || delta.poids != 0) {
+                    changes.put(id, delta);
+                }
+            });
+            return changes;
+        }
+    }
+
+    private static final class Delta {
+
+        private double poids;
+
+        private int count;
+    }
+}
@@ -1,21 +1,28 @@
 package org.example.colis.service;
 
 import org.example.colis.dto.CreateUserRequest;
+import org.example.colis.dto.PageResponse;
 import org.example.colis.dto.UpdateUserRequest;
 import org.example.colis.dto.UserDTO;
 import org.example.colis.enums.Role;
 import org.example.colis.enums.Specialite;
 import org.example.colis.exception.BusinessException;
+import org.example.colis.exception.PreconditionFailedException;
 import org.example.colis.exception.ResourceNotFoundException;
 import org.example.colis.mapper.UserMapper;
 import org.example.colis.model.User;
 import org.example.colis.repository.UserRepository;
+import org.example.colis.security.JwtUtil;
+import org.example.colis.security.LoginAttemptTracker;
+import org.example.colis.security.PrincipalCache;
+import org.example.colis.security.TokenEpochRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -30,11 +37,38 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+
     public Page<UserDTO> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable)
                 .map(userMapper::toDTO);
     }
 
+    // Keyset (cursor) pagination on _id: no skip and no count
+    public PageResponse<UserDTO> getAllUsersAfter(String after, int size) {
+        if (size < 1) {
+            throw new BusinessException("Size must be positive");
+        }
+        String afterId = CursorCodec.decode(after);
+
+        List<User> rows = userRepository.findAfter(afterId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<User> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null;
+
+        return PageResponse.fromCursor(page.stream().map(userMapper::toDTO).toList(), size, afterId != null, nextCursor);
+    }
+
     public Page<UserDTO> getAllTransporteurs(Pageable pageable) {
         return userRepository.findByRole(Role.TRANSPORTEUR, pageable)
                 .map(userMapper::toDTO);
@@ -65,6 +99,9 @@ public class UserService {
             if (request.getSpecialite() != null || request.getStatut() != null) {
                 throw new BusinessException("ADMIN cannot have specialite or statut");
             }
+            if (request.getCapacitePoidsMax() != null || request.getCapaciteColisMax() != null) {
+                throw new BusinessException("ADMIN cannot have a vehicle capacity");
+            }
         }
 
         User user = userMapper.toEntity(request);
@@ -76,8 +113,20 @@ public class UserService {
     }
 
     public UserDTO updateUser(String id, UpdateUserRequest request) {
+        return updateUser(id, request, null);
+    }
+
+    // A stale expectedVersion fails before any work; a concurrent update between this read and
+    // ours fails in saveExceptCharge() with OptimisticLockingFailureException (409). Charge
+    // changes from colis writes do not move the version
+    public UserDTO updateUser(String id, UpdateUserRequest request, Long expectedVersion) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("User " + id + " is at version " + user.getVersion()
+                    + ", not " + expectedVersion);
+        }
+        String previousLogin = user.getLogin();
 
         // Check if new login already exists
         if (request.getLogin() != null && !request.getLogin().equals(user.getLogin())) {
@@ -88,11 +137,16 @@ public class UserService {
             user.setLogin(request.getLogin());
         }
 
+        boolean revokeTokens = false;
+
         if (request.getPassword() != null) {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
+            loginAttemptTracker.clearFailures(previousLogin);
+            revokeTokens = true;
         }
 
         if (request.getActive() != null) {
+            revokeTokens |= Boolean.TRUE.equals(user.getActive()) && !request.getActive();
             user.setActive(request.getActive());
         }
 
@@ -104,16 +158,32 @@ public class UserService {
             if (request.getSpecialite() != null) {
                 user.setSpecialite(request.getSpecialite());
             }
+            // A capacity below the current charge is accepted: nothing new is assigned until it drops
+            if (request.getCapacitePoidsMax() != null) {
+                user.setCapacitePoidsMax(request.getCapacitePoidsMax());
+            }
+            if (request.getCapaciteColisMax() != null) {
+                user.setCapaciteColisMax(request.getCapaciteColisMax());
+            }
         }
 
-        User saved = userRepository.save(user);
+        if (revokeTokens) {
+            bumpTokenVersion(user);
+        }
+
+        User saved = userRepository.saveExceptCharge(user);
+        principalCache.evict(previousLogin);
+        publishTokenVersion(saved);
         return userMapper.toDTO(saved);
     }
 
     public void deleteUser(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        // The document goes away, so the epoch is persisted apart for the other instances to read
+        tokenEpochRegistry.revoke(user.getId(), JwtUtil.tokenVersion(user) + 1);
         userRepository.delete(user);
+        principalCache.evict(user.getLogin());
     }
 
     public UserDTO getUserById(String id) {
@@ -122,12 +192,24 @@ public class UserService {
         return userMapper.toDTO(user);
     }
 
+    // Rebuilds the charge counters from the colis, should they have drifted
+    public UserDTO recomputeCharge(String id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        if (user.getRole() != Role.TRANSPORTEUR) {
+            throw new BusinessException("User is not a TRANSPORTEUR");
+        }
+        chargeLedger.recompute(List.of(id));
+        return getUserById(id);
+    }
+
     public UserDTO activateUser(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         user.setActive(true);
-        User saved = userRepository.save(user);
+        User saved = userRepository.saveExceptCharge(user);
+        principalCache.evict(saved.getLogin());
         return userMapper.toDTO(saved);
     }
 
@@ -141,7 +223,21 @@ public class UserService {
         }
 
         user.setActive(false);
-        User saved = userRepository.save(user);
+        bumpTokenVersion(user);
+        User saved = userRepository.saveExceptCharge(user);
+        principalCache.evict(saved.getLogin());
+        publishTokenVersion(saved);
         return userMapper.toDTO(saved);
     }
+
+    // Revokes every token issued so far: they carry an older version than the user from now on
+    private void bumpTokenVersion(User user) {
+        user.setTokenVersion(JwtUtil.tokenVersion(user) + 1);
+    }
+
+    private void publishTokenVersion(User user) {
+        if (JwtUtil.tokenVersion(user) > 0) {
+            tokenEpochRegistry.advance(user.getId(), JwtUtil.tokenVersion(user));
+        }
+    }
 }
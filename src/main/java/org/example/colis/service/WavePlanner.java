@@ -0,0 +1,124 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.TypeColis;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Groups waiting colis into delivery waves: one zone (codePostal) and one type per wave, so a
+ * wave can go to a single transporteur of the matching specialite. The pending set is split by
+ * zone in a fork-join pass (each task groups a slice, the halves are merged), then every zone is
+ * cut into waves of at most maxColis colis and maxPoids kg, oldest colis first.
+ */
+public class WavePlanner {
+
+    // Slices below this size are grouped sequentially
+    static final int THRESHOLD = 4096;
+
+    private static final Comparator<PlannedWave> BY_ZONE = Comparator
+            .comparing(PlannedWave::codePostal)
+            .thenComparing(PlannedWave::type);
+
+    private final int maxColis;
+
+    private final double maxPoids;
+
+    public WavePlanner(int maxColis, double maxPoids) {
+        if (maxColis < 1 || maxPoids <= 0) {
+            throw new IllegalArgumentException("maxColis and maxPoids must be positive");
+        }
+        this.maxColis = maxColis;
+        this.maxPoids = maxPoids;
+    }
+
+    // codePostal is never null; the list is expected oldest first, which each wave keeps
+    public record PendingColis(String id, TypeColis type, String codePostal, String ville,
+                               double poids, Instant createdAt) {
+    }
+
+    public record PlannedWave(String codePostal, String ville, TypeColis type, List<PendingColis> colis,
+                              double poids) {
+    }
+
+    private record ZoneKey(String codePostal, TypeColis type) {
+    }
+
+    public List<PlannedWave> plan(List<PendingColis> pending) {
+        Map<ZoneKey, List<PendingColis>> zones = ForkJoinPool.commonPool()
+                .invoke(new ZoneGrouping(pending, 0, pending.size()));
+        return zones.values().parallelStream()
+                .flatMap(colis -> split(colis).stream())
+                .sorted(BY_ZONE)
+                .toList();
+    }
+
+    // Consecutive waves of one zone; a colis heavier than maxPoids gets a wave of its own
+    private List<PlannedWave> split(List<PendingColis> zone) {
+        List<PlannedWave> waves = new ArrayList<>();
+        List<PendingColis> current = new ArrayList<>();
+        double poids = 0;
+        for (PendingColis colis : zone) {
+            if (!current.isEmpty() && (current.size() == maxColis || poids + colis.poids() > maxPoids)) {
+                waves.add(wave(current, poids));
+                current = new ArrayList<>();
+                poids = 0;
+            }
+            current.add(colis);
+            poids += colis.poids();
+        }
+        if (!current.isEmpty()) {
+            waves.add(wave(current, poids));
+        }
+        return waves;
+    }
+
+    private static PlannedWave wave(List<PendingColis> colis, double poids) {
+        PendingColis first = colis.get(0);
+        return new PlannedWave(first.codePostal(), first.ville(), first.type(), List.copyOf(colis), poids);
+    }
+
+    private static final class ZoneGrouping extends RecursiveTask<Map<ZoneKey, List<PendingColis>>> {
+
+        private final List<PendingColis> pending;
+
+        private final int from;
+
+        private final int to;
+
+        private ZoneGrouping(List<PendingColis> pending, int from, int to) {
+            this.pending = pending;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<ZoneKey, List<PendingColis>> compute() {
+            if (to - from <= THRESHOLD) {
+                Map<ZoneKey, List<PendingColis>> zones = new HashMap<>();
+                for (PendingColis colis : pending.subList(from, to)) {
+                    zones.computeIfAbsent(new ZoneKey(colis.codePostal(), colis.type()), key -> new ArrayList<>())
+                            .add(colis);
+                }
+                return zones;
+            }
+            int middle = (from + to) >>> 1;
+            ZoneGrouping left = new ZoneGrouping(pending, from, middle);
+            left.fork();
+            Map<ZoneKey, List<PendingColis>> right = new ZoneGrouping(pending, middle, to).compute();
+            Map<ZoneKey, List<PendingColis>> zones = left.join();
+            // Left slice first, so each zone keeps the input order
+            right.forEach((key, colis) -> zones.merge(key, colis, (older, newer) -> {
+                older.addAll(newer);
+                return older;
+            }));
+            return zones;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.colis.dto.AssignColisRequest;
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
+import org.example.colis.dto.ColisSummaryDTO;
+import org.example.colis.dto.CreateColisRequest;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.UpdateColisRequest;
+import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.CountMode;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.service.ReactiveColisService;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+// AdminColisController on the reactive stack; export and import stay servlet-only
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/admin/colis")
+@Tag(name = "Admin - Colis Management", description = "Admin endpoints for managing colis")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ReactiveAdminColisController {
+
+    @Autowired
+    private ReactiveColisService colisService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get all colis", description = "Get paginated list of all colis with optional filters. " +
+            "Pass after (empty for the first page, then nextCursor) for cursor pagination instead of page. " +
+            "count=NONE skips the total, count=APPROXIMATE returns a cached total. " +
+            "Filters (type, statut, transporteurId, codePostal, ville, poidsMin/poidsMax, adresse, createdFrom/createdTo) " +
+            "can be combined; " +
+            "sort=id|createdAt|poids[,desc]. Combinations without a supporting index are rejected with 400")
+    public Mono<ResponseEntity<PageResponse<ColisDTO>>> getAllColis(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @AuthenticationPrincipal User currentUser) {
+        if (after != null) {
+            return colisService.getAllColisAfter(currentUser, filter, after, size).map(ResponseEntity::ok);
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return colisService.getAllColis(currentUser, filter, pageable, count).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis summaries", description = "Compact list view (id, type, statut, transporteurId, truncated address) " +
+            "with the same filters and pagination options as the full listing")
+    public Mono<ResponseEntity<PageResponse<ColisSummaryDTO>>> getAllColisSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @AuthenticationPrincipal User currentUser) {
+        if (after != null) {
+            return colisService.getColisSummariesAfter(currentUser, filter, after, size).map(ResponseEntity::ok);
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return colisService.getColisSummaries(currentUser, filter, pageable, count).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search colis by address", description = "Full-text search on destination address words, accent-insensitive, best matches first")
+    public Mono<ResponseEntity<PageResponse<ColisDTO>>> searchColisByAddress(
+            @RequestParam String adresse,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal User currentUser) {
+        Pageable pageable = PageRequest.of(page, size);
+        return colisService.searchColisByAddress(currentUser, adresse, pageable)
+                .map(found -> ResponseEntity.ok(PageResponse.from(found)));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create colis", description = "Create a new colis")
+    public Mono<ResponseEntity<ColisDTO>> createColis(@Valid @RequestBody CreateColisRequest request) {
+        return colisService.createColis(request)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    @PostMapping("/{id}/assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Assign colis", description = "Assign a colis to a transporteur")
+    public Mono<ResponseEntity<ColisDTO>> assignColis(
+            @PathVariable String id,
+            @Valid @RequestBody AssignColisRequest request) {
+        return colisService.assignColis(id, request)
+                .map(assigned -> ETags.ok(assigned, assigned.getVersion()));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update colis", description = "Update an existing colis. " +
+            "With If-Match (the ETag of GET /{id}) the update fails with 412 if the colis changed since")
+    public Mono<ResponseEntity<ColisDTO>> updateColis(
+            @PathVariable String id,
+            @Valid @RequestBody UpdateColisRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return colisService.updateColis(id, request, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ETags.ok(updated, updated.getVersion()));
+    }
+
+    @PatchMapping("/{id}/statut")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update colis statut", description = "Update the statut of a colis along the allowed " +
+            "transitions (EN_ATTENTE -> EN_TRANSIT|ANNULE, EN_TRANSIT -> LIVRE|ANNULE|EN_ATTENTE), 409 otherwise. " +
+            "Honours If-Match")
+    public Mono<ResponseEntity<ColisDTO>> updateColisStatut(
+            @PathVariable String id,
+            @Valid @RequestBody UpdateStatutRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal User currentUser) {
+        return colisService.updateColisStatut(currentUser, id, request, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ETags.ok(updated, updated.getVersion()));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete colis", description = "Delete a colis")
+    public Mono<ResponseEntity<Void>> deleteColis(@PathVariable String id) {
+        return colisService.deleteColis(id).then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis by ID", description = "Get a specific colis by its ID")
+    public Mono<ResponseEntity<ColisDTO>> getColisById(
+            @PathVariable String id,
+            @AuthenticationPrincipal User currentUser) {
+        return colisService.getColisById(currentUser, id)
+                .map(colis -> ETags.ok(colis, colis.getVersion()));
+    }
+
+    @GetMapping("/{id}/events")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get colis timeline", description = "Statut transitions of the colis (from, to, who, when), oldest first")
+    public Mono<ResponseEntity<PageResponse<ColisEventDTO>>> getColisEvents(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @AuthenticationPrincipal User currentUser) {
+        return colisService.getColisEvents(currentUser, id, page, size).map(ResponseEntity::ok);
+    }
+}
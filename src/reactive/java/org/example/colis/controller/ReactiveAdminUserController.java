@@ -0,0 +1,123 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.colis.dto.CreateUserRequest;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.UpdateUserRequest;
+import org.example.colis.dto.UserDTO;
+import org.example.colis.enums.Specialite;
+import org.example.colis.model.User;
+import org.example.colis.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/admin")
+@Tag(name = "Admin - User Management", description = "Admin endpoints for managing users and transporteurs")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ReactiveAdminUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @GetMapping("/users")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get all users", description = "Get paginated list of all users. " +
+            "Pass after (empty for the first page, then nextCursor) for cursor pagination instead of page")
+    public Mono<ResponseEntity<PageResponse<UserDTO>>> getAllUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return userService.getAllUsersAfter(after, size).map(ResponseEntity::ok);
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        return userService.getAllUsers(pageable).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/transporteurs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get all transporteurs", description = "Get paginated list of all transporteurs")
+    public Mono<ResponseEntity<PageResponse<UserDTO>>> getAllTransporteurs(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Specialite specialite) {
+        Pageable pageable = PageRequest.of(page, size);
+
+        if (specialite != null) {
+            return userService.getTransporteursBySpecialite(specialite, pageable).map(ResponseEntity::ok);
+        }
+        return userService.getAllTransporteurs(pageable).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/users/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get user by ID", description = "Get a user; the ETag is the version to send as If-Match on updates")
+    public Mono<ResponseEntity<UserDTO>> getUserById(@PathVariable String id) {
+        return userService.getUserById(id).map(user -> ETags.ok(user, user.getVersion()));
+    }
+
+    @PostMapping("/transporteurs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create transporteur", description = "Create a new transporteur")
+    public Mono<ResponseEntity<UserDTO>> createTransporteur(@Valid @RequestBody CreateUserRequest request) {
+        return userService.createUser(request)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    @PutMapping("/transporteurs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update transporteur", description = "Update an existing transporteur. " +
+            "With If-Match the update fails with 412 if the transporteur changed since")
+    public Mono<ResponseEntity<UserDTO>> updateTransporteur(
+            @PathVariable String id,
+            @Valid @RequestBody UpdateUserRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.updateUser(id, request, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ETags.ok(updated, updated.getVersion()));
+    }
+
+    @PostMapping("/transporteurs/{id}/charge/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Recompute transporteur charge", description = "Rebuild chargePoids / chargeColis from the " +
+            "open colis of the transporteur (repair after a crash between a colis write and its counter update)")
+    public Mono<ResponseEntity<UserDTO>> recomputeCharge(@PathVariable String id) {
+        return userService.recomputeCharge(id).map(user -> ETags.ok(user, user.getVersion()));
+    }
+
+    @DeleteMapping("/transporteurs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete transporteur", description = "Delete a transporteur")
+    public Mono<ResponseEntity<Void>> deleteTransporteur(@PathVariable String id) {
+        return userService.deleteUser(id).then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    @PutMapping("/users/{id}/activate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Activate user", description = "Activate a deactivated user account")
+    public Mono<ResponseEntity<UserDTO>> activateUser(@PathVariable String id) {
+        return userService.activateUser(id).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/users/{id}/deactivate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Deactivate user", description = "Deactivate a user account - user will not be able to login")
+    public Mono<ResponseEntity<UserDTO>> deactivateUser(
+            @PathVariable String id,
+            @AuthenticationPrincipal User currentUser) {
+        return userService.deactivateUser(id, currentUser.getId()).map(ResponseEntity::ok);
+    }
+}
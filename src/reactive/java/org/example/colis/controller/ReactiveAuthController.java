@@ -0,0 +1,33 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.colis.dto.LoginRequest;
+import org.example.colis.dto.LoginResponse;
+import org.example.colis.service.AuthService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/auth")
+@Tag(name = "Authentication", description = "Authentication endpoints")
+public class ReactiveAuthController {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @PostMapping("/login")
+    @Operation(summary = "Login", description = "Authenticate user and get JWT token. Returns 429 when too many logins are in progress")
+    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
+        // loginAsync already runs the password check on its own pool
+        return Mono.fromFuture(() -> authService.loginAsync(request)).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.colis.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
+import org.example.colis.dto.ColisSummaryDTO;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.CountMode;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.service.ReactiveColisService;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+// TransporteurColisController on the reactive stack; the update stream stays servlet-only
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/transporteur/colis")
+@Tag(name = "Transporteur - Colis Management", description = "Transporteur endpoints for managing their colis")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ReactiveTransporteurColisController {
+
+    @Autowired
+    private ReactiveColisService colisService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Get my colis", description = "Get paginated list of transporteur's colis with optional filters. " +
+            "Pass after (empty for the first page, then nextCursor) for cursor pagination instead of page. " +
+            "count=NONE skips the total, count=APPROXIMATE returns a cached total. " +
+            "Filters (type, statut, poidsMin/poidsMax, adresse, createdFrom/createdTo) can be combined; " +
+            "sort=id|createdAt|poids[,desc]. Combinations without a supporting index are rejected with 400")
+    public Mono<ResponseEntity<PageResponse<ColisDTO>>> getMyColis(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @AuthenticationPrincipal User currentUser) {
+        if (after != null) {
+            return colisService.getAllColisAfter(currentUser, filter, after, size).map(ResponseEntity::ok);
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return colisService.getAllColis(currentUser, filter, pageable, count).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Get my colis summaries", description = "Compact list view (id, type, statut, transporteurId, truncated address) " +
+            "with the same filters and pagination options as the full listing")
+    public Mono<ResponseEntity<PageResponse<ColisSummaryDTO>>> getMyColisSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @ParameterObject ColisFilter filter,
+            @ParameterObject Sort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @AuthenticationPrincipal User currentUser) {
+        if (after != null) {
+            return colisService.getColisSummariesAfter(currentUser, filter, after, size).map(ResponseEntity::ok);
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return colisService.getColisSummaries(currentUser, filter, pageable, count).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Search my colis by address", description = "Full-text search on the destination address of transporteur's colis, best matches first")
+    public Mono<ResponseEntity<PageResponse<ColisDTO>>> searchMyColisByAddress(
+            @RequestParam String adresse,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal User currentUser) {
+        Pageable pageable = PageRequest.of(page, size);
+        return colisService.searchColisByAddress(currentUser, adresse, pageable)
+                .map(found -> ResponseEntity.ok(PageResponse.from(found)));
+    }
+
+    @PatchMapping("/{id}/statut")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Update my colis statut", description = "Update the statut of transporteur's colis along " +
+            "the allowed transitions, 409 otherwise. Honours If-Match")
+    public Mono<ResponseEntity<ColisDTO>> updateMyColisStatut(
+            @PathVariable String id,
+            @Valid @RequestBody UpdateStatutRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal User currentUser) {
+        return colisService.updateColisStatut(currentUser, id, request, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ETags.ok(updated, updated.getVersion()));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Get my colis by ID", description = "Get a specific colis by its ID")
+    public Mono<ResponseEntity<ColisDTO>> getMyColisById(
+            @PathVariable String id,
+            @AuthenticationPrincipal User currentUser) {
+        return colisService.getColisById(currentUser, id)
+                .map(colis -> ETags.ok(colis, colis.getVersion()));
+    }
+
+    @GetMapping("/{id}/events")
+    @PreAuthorize("hasRole('TRANSPORTEUR')")
+    @Operation(summary = "Get my colis timeline", description = "Statut transitions of the colis (from, to, who, when), oldest first")
+    public Mono<ResponseEntity<PageResponse<ColisEventDTO>>> getMyColisEvents(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @AuthenticationPrincipal User currentUser) {
+        return colisService.getColisEvents(currentUser, id, page, size).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.colis.repository;
+
+import org.example.colis.model.Colis;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+// Reactive counterpart of ColisRepository, for the reactive profile
+@Repository
+public interface ReactiveColisRepository extends ReactiveMongoRepository<Colis, String>, ReactiveColisRepositoryCustom {
+    
+    Mono<Colis> findByIdAndTransporteurId(String id, String transporteurId);
+}
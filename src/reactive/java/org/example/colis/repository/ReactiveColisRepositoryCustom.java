@@ -0,0 +1,21 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.Colis;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Mono;
+
+// Same queries as ColisRepositoryCustom (planned by ColisQueryPlanner), on ReactiveMongoTemplate
+public interface ReactiveColisRepositoryCustom {
+    
+    Mono<Page<Colis>> findMatching(ColisFilter filter, Pageable pageable);
+    
+    Mono<Slice<Colis>> findSlice(ColisFilter filter, Pageable pageable);
+    
+    Mono<Long> countMatching(ColisFilter filter);
+    
+    // Empty when nothing matched: see ColisRepositoryCustom.updateStatut
+    Mono<ColisChange> updateStatut(String id, String transporteurId, StatutColis statut, Long expectedVersion);
+}
@@ -0,0 +1,72 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.Colis;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+
+public class ReactiveColisRepositoryImpl implements ReactiveColisRepositoryCustom {
+    
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ColisQueryPlanner queryPlanner;
+    
+    // The page and its count run concurrently
+    @Override
+    public Mono<Page<Colis>> findMatching(ColisFilter filter, Pageable pageable) {
+        return Mono.defer(() -> {
+            Query query = queryPlanner.plan(filter, pageable.getSort())
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize());
+            return mongoTemplate.find(query, Colis.class).collectList()
+                    .zipWith(countMatching(filter),
+                            (content, total) -> new PageImpl<>(content, pageable, total));
+        });
+    }
+    
+    @Override
+    public Mono<Slice<Colis>> findSlice(ColisFilter filter, Pageable pageable) {
+        return Mono.defer(() -> {
+            Query query = queryPlanner.plan(filter, pageable.getSort())
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize() + 1);
+            return mongoTemplate.find(query, Colis.class).collectList().map(rows -> {
+                boolean hasNext = rows.size() > pageable.getPageSize();
+                return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+            });
+        });
+    }
+    
+    @Override
+    public Mono<Long> countMatching(ColisFilter filter) {
+        if (ColisQueryPlanner.isEmpty(filter)) {
+            return mongoTemplate.estimatedCount(Colis.class);
+        }
+        return Mono.defer(() -> mongoTemplate.count(queryPlanner.plan(filter, Sort.unsorted()), Colis.class));
+    }
+    
+    @Override
+    public Mono<ColisChange> updateStatut(String id, String transporteurId, StatutColis statut, Long expectedVersion) {
+        Query query = ColisRepositoryImpl.statutQuery(id, transporteurId, statut, expectedVersion);
+        Map<String, Object> changes = ColisAudit.audited(Map.of("statut", statut), Instant.now());
+        Update update = new Update();
+        changes.forEach(update::set);
+        return mongoTemplate.findAndModify(query, ColisRepositoryImpl.versioned(update), Colis.class)
+                .map(before -> new ColisChange(before,
+                        ColisRepositoryImpl.applied(mongoTemplate.getConverter(), before, changes)));
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.colis.repository;
+
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Reactive counterpart of UserRepository, for the reactive profile. Pages are a Flux plus a count
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    
+    Flux<User> findAllBy(Pageable pageable);
+    
+    Flux<User> findByRole(Role role, Pageable pageable);
+    
+    Mono<Long> countByRole(Role role);
+    
+    Flux<User> findByRoleAndSpecialite(Role role, Specialite specialite, Pageable pageable);
+    
+    Mono<Long> countByRoleAndSpecialite(Role role, Specialite specialite);
+}
@@ -0,0 +1,76 @@
+package org.example.colis.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of {@link JwtAuthenticationFilter}. A principal cache hit stays on the
+ * event loop; a miss loads the user through the blocking repository on boundedElastic.
+ * Not a bean: WebFlux would otherwise also run it outside the security chain.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveJwtAuthenticationFilter.class);
+
+    private final JwtUtil jwtUtil;
+
+    private final PrincipalCache principalCache;
+
+    private final JwtAuthenticator jwtAuthenticator;
+
+    public ReactiveJwtAuthenticationFilter(JwtUtil jwtUtil, PrincipalCache principalCache,
+                                           JwtAuthenticator jwtAuthenticator) {
+        this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
+        this.jwtAuthenticator = jwtAuthenticator;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        DecodedJWT jwt;
+        try {
+            jwt = jwtUtil.validateToken(authHeader.substring(7));
+        } catch (JWTVerificationException e) {
+            log.error("JWT validation failed: {}", e.getMessage());
+            return chain.filter(exchange);
+        }
+        if (jwt.getSubject() == null) {
+            return chain.filter(exchange);
+        }
+
+        return authenticate(jwt)
+                .map(authentication -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+                .switchIfEmpty(Mono.fromSupplier(() -> chain.filter(exchange)))
+                .flatMap(filtered -> filtered);
+    }
+
+    private Mono<UsernamePasswordAuthenticationToken> authenticate(DecodedJWT jwt) {
+        if (jwtAuthenticator.isStateless()) {
+            return Mono.justOrEmpty(jwtAuthenticator.fromClaims(jwt));
+        }
+        Optional<PrincipalCache.CachedPrincipal> cached = principalCache.getIfPresent(jwt.getSubject());
+        if (cached.isPresent()) {
+            return Mono.justOrEmpty(jwtAuthenticator.fromPrincipal(jwt, cached));
+        }
+        return Mono.fromCallable(() -> jwtAuthenticator.fromPrincipal(jwt, principalCache.get(jwt.getSubject())))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.AssignColisRequest;
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisEventDTO;
+import org.example.colis.dto.ColisSummaryDTO;
+import org.example.colis.dto.CreateColisRequest;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.UpdateColisRequest;
+import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.CountMode;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.exception.ResourceNotFoundException;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.repository.ReactiveColisRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking ColisService for the reactive profile. The hot paths (listing, reading and
+ * statut updates) run on reactive Mongo; the admin writes, cursor listings and searches run
+ * the blocking ColisService on boundedElastic, so they never hold an event loop thread.
+ * Same rules and errors as ColisService.
+ */
+@Service
+public class ReactiveColisService {
+    
+    @Autowired
+    private ReactiveColisRepository colisRepository;
+    
+    @Autowired
+    private ColisService colisService;
+    
+    @Autowired
+    private ColisMapper colisMapper;
+    
+    @Autowired
+    private ColisCountCache colisCountCache;
+    
+    @Autowired
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Autowired
+    private ColisEventRecorder eventRecorder;
+    
+    @Autowired
+    private ColisCounters colisCounters;
+    
+    public Mono<PageResponse<ColisDTO>> getAllColis(User currentUser, ColisFilter filter, Pageable pageable, CountMode countMode) {
+        ColisFilter scoped = ColisService.scopedTo(currentUser, filter);
+        if (countMode == null || countMode == CountMode.EXACT) {
+            return colisRepository.findMatching(scoped, pageable)
+                    .map(page -> PageResponse.from(page.map(colisMapper::toDTO)));
+        }
+        
+        Mono<Slice<ColisDTO>> slice = colisRepository.findSlice(scoped, pageable)
+                .map(rows -> rows.map(colisMapper::toDTO));
+        if (countMode == CountMode.NONE) {
+            return slice.map(rows -> PageResponse.fromSlice(rows, null));
+        }
+        // A cache miss counts through the blocking template
+        return slice.zipWith(blocking(() -> colisCountCache.count(scoped)),
+                (rows, total) -> PageResponse.fromSlice(rows, total));
+    }
+    
+    public Mono<ColisDTO> getColisById(User currentUser, String id) {
+        if (currentUser.getRole() == Role.TRANSPORTEUR) {
+            return colisRepository.findByIdAndTransporteurId(id, currentUser.getId())
+                    .switchIfEmpty(noMatch(id, currentUser.getId(), null, "You can only view your own colis", null))
+                    .map(colisMapper::toDTO);
+        }
+        
+        return colisRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Colis not found with id: " + id)))
+                .map(colisMapper::toDTO);
+    }
+    
+    // The ownership check and the transition table are part of the update filter, as in ColisService
+    public Mono<ColisDTO> updateColisStatut(User currentUser, String id, UpdateStatutRequest request, Long expectedVersion) {
+        String ownerId = currentUser.getRole() == Role.TRANSPORTEUR ? currentUser.getId() : null;
+        return colisRepository.updateStatut(id, ownerId, request.getStatut(), expectedVersion)
+                .switchIfEmpty(noMatch(id, ownerId, expectedVersion, "You can only update your own colis", request.getStatut()))
+                .flatMap(change -> {
+                    // Only enqueued, unless the history queue is full
+                    eventRecorder.record(id, change.before().getStatut(), request.getStatut(), currentUser);
+                    // The charge counters and colis counters are $inc through the blocking template
+                    return blocking(() -> {
+                        chargeLedger.record(change.before(), change.after());
+                        colisCounters.record(change.before(), change.after());
+                        return change.after();
+                    });
+                })
+                .map(colisMapper::toDTO);
+    }
+    
+    public Mono<PageResponse<ColisDTO>> getAllColisAfter(User currentUser, ColisFilter filter, String after, int size) {
+        return blocking(() -> colisService.getAllColisAfter(currentUser, filter, after, size));
+    }
+    
+    public Mono<PageResponse<ColisSummaryDTO>> getColisSummaries(User currentUser, ColisFilter filter, Pageable pageable,
+                                                                 CountMode countMode) {
+        return blocking(() -> colisService.getColisSummaries(currentUser, filter, pageable, countMode));
+    }
+    
+    public Mono<PageResponse<ColisSummaryDTO>> getColisSummariesAfter(User currentUser, ColisFilter filter, String after,
+                                                                      int size) {
+        return blocking(() -> colisService.getColisSummariesAfter(currentUser, filter, after, size));
+    }
+    
+    public Mono<Page<ColisDTO>> searchColisByAddress(User currentUser, String adresse, Pageable pageable) {
+        return blocking(() -> colisService.searchColisByAddress(currentUser, adresse, pageable));
+    }
+    
+    public Mono<PageResponse<ColisEventDTO>> getColisEvents(User currentUser, String id, int page, int size) {
+        return blocking(() -> colisService.getColisEvents(currentUser, id, page, size));
+    }
+    
+    public Mono<ColisDTO> createColis(CreateColisRequest request) {
+        return blocking(() -> colisService.createColis(request));
+    }
+    
+    public Mono<ColisDTO> assignColis(String colisId, AssignColisRequest request) {
+        return blocking(() -> colisService.assignColis(colisId, request));
+    }
+    
+    public Mono<ColisDTO> updateColis(String id, UpdateColisRequest request, Long expectedVersion) {
+        return blocking(() -> colisService.updateColis(id, request, expectedVersion));
+    }
+    
+    public Mono<Void> deleteColis(String id) {
+        return Mono.fromRunnable(() -> colisService.deleteColis(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+    
+    // Reads the colis again to tell 404 / not yours / 412 / 409 apart, like ColisService.noMatch
+    private <T> Mono<T> noMatch(String id, String ownerId, Long expectedVersion, String notOwnedMessage,
+                                StatutColis targetStatut) {
+        return Mono.defer(() -> colisRepository.findById(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(current -> Mono.<T>error(ColisService.mismatch(current.orElse(null), id, ownerId,
+                        expectedVersion, notOwnedMessage, targetStatut))));
+    }
+    
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
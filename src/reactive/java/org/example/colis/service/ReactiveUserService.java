@@ -0,0 +1,100 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.CreateUserRequest;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.UpdateUserRequest;
+import org.example.colis.dto.UserDTO;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.exception.ResourceNotFoundException;
+import org.example.colis.mapper.UserMapper;
+import org.example.colis.model.User;
+import org.example.colis.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking UserService for the reactive profile: reads run on reactive Mongo, account
+ * changes go through UserService on boundedElastic, since they also evict the principal cache
+ * and advance token epochs.
+ */
+@Service
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    public Mono<PageResponse<UserDTO>> getAllUsers(Pageable pageable) {
+        return page(userRepository.findAllBy(pageable), userRepository.count(), pageable);
+    }
+
+    public Mono<PageResponse<UserDTO>> getAllUsersAfter(String after, int size) {
+        return blocking(() -> userService.getAllUsersAfter(after, size));
+    }
+
+    public Mono<PageResponse<UserDTO>> getAllTransporteurs(Pageable pageable) {
+        return page(userRepository.findByRole(Role.TRANSPORTEUR, pageable),
+                userRepository.countByRole(Role.TRANSPORTEUR), pageable);
+    }
+
+    public Mono<PageResponse<UserDTO>> getTransporteursBySpecialite(Specialite specialite, Pageable pageable) {
+        return page(userRepository.findByRoleAndSpecialite(Role.TRANSPORTEUR, specialite, pageable),
+                userRepository.countByRoleAndSpecialite(Role.TRANSPORTEUR, specialite), pageable);
+    }
+
+    public Mono<UserDTO> getUserById(String id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User not found with id: " + id)))
+                .map(userMapper::toDTO);
+    }
+
+    public Mono<UserDTO> createUser(CreateUserRequest request) {
+        return blocking(() -> userService.createUser(request));
+    }
+
+    public Mono<UserDTO> updateUser(String id, UpdateUserRequest request, Long expectedVersion) {
+        return blocking(() -> userService.updateUser(id, request, expectedVersion));
+    }
+
+    public Mono<UserDTO> recomputeCharge(String id) {
+        return blocking(() -> userService.recomputeCharge(id));
+    }
+
+    public Mono<Void> deleteUser(String id) {
+        return Mono.fromRunnable(() -> userService.deleteUser(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    public Mono<UserDTO> activateUser(String id) {
+        return blocking(() -> userService.activateUser(id));
+    }
+
+    public Mono<UserDTO> deactivateUser(String id, String currentUserId) {
+        return blocking(() -> userService.deactivateUser(id, currentUserId));
+    }
+
+    // The page and its count run concurrently
+    private Mono<PageResponse<UserDTO>> page(Flux<User> users, Mono<Long> count, Pageable pageable) {
+        return users.map(userMapper::toDTO)
+                .collectList()
+                .zipWith(count, (content, total) -> PageResponse.from(new PageImpl<>(content, pageable, total)));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.colis.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.User;
+import org.example.colis.security.JwtAuthenticator;
+import org.example.colis.security.JwtUtil;
+import org.example.colis.security.PrincipalCache;
+import org.example.colis.security.ReactiveSecurityConfig;
+import org.example.colis.service.ReactiveColisService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * PATCH statut on the reactive stack, through ReactiveSecurityConfig and its JWT filter.
+ */
+@WebFluxTest(controllers = ReactiveTransporteurColisController.class)
+@Import(ReactiveSecurityConfig.class)
+class ReactiveTransporteurColisControllerTest {
+    
+    private static final String TOKEN = "Bearer token";
+    
+    private static final String BODY = "{\"statut\":\"EN_TRANSIT\"}";
+    
+    @Autowired
+    private WebTestClient webTestClient;
+    
+    @MockBean
+    private JwtUtil jwtUtil;
+    
+    @MockBean
+    private PrincipalCache principalCache;
+    
+    @MockBean
+    private JwtAuthenticator jwtAuthenticator;
+    
+    @MockBean
+    private ReactiveColisService colisService;
+    
+    @Test
+    void updateMyColisStatut_AsTransporteur_ShouldReturnTheColisWithItsETag() {
+        // Arrange
+        User transporteur = authenticateAs(Role.TRANSPORTEUR);
+        ColisDTO updated = new ColisDTO();
+        updated.setId("1");
+        updated.setStatut(StatutColis.EN_TRANSIT);
+        updated.setVersion(4L);
+        when(colisService.updateColisStatut(eq(transporteur), eq("1"), any(), eq(3L))).thenReturn(Mono.just(updated));
+        
+        // Act & Assert
+        webTestClient.patch().uri("/api/transporteur/colis/1/statut")
+                .header("Authorization", TOKEN)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BODY)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"")
+                .expectBody().jsonPath("$.statut").isEqualTo("EN_TRANSIT");
+    }
+    
+    @Test
+    void updateMyColisStatut_AsAdmin_ShouldReturn403() {
+        // Arrange
+        authenticateAs(Role.ADMIN);
+        
+        // Act & Assert
+        webTestClient.patch().uri("/api/transporteur/colis/1/statut")
+                .header("Authorization", TOKEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BODY)
+                .exchange()
+                .expectStatus().isForbidden();
+        
+        verifyNoInteractions(colisService);
+    }
+    
+    @Test
+    void updateMyColisStatut_WithoutToken_ShouldReturn401() {
+        // Act & Assert
+        webTestClient.patch().uri("/api/transporteur/colis/1/statut")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BODY)
+                .exchange()
+                .expectStatus().isUnauthorized();
+        
+        verifyNoInteractions(colisService);
+    }
+    
+    private User authenticateAs(Role role) {
+        User user = new User();
+        user.setId("u1");
+        user.setLogin("user");
+        user.setRole(role);
+        DecodedJWT jwt = mock(DecodedJWT.class);
+        when(jwt.getSubject()).thenReturn("user");
+        when(jwtUtil.validateToken(any())).thenReturn(jwt);
+        when(jwtAuthenticator.isStateless()).thenReturn(true);
+        when(jwtAuthenticator.fromClaims(jwt)).thenReturn(new UsernamePasswordAuthenticationToken(
+                user, null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+        return user;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.exception.UnauthorizedException;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisChange;
+import org.example.colis.repository.ReactiveColisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveColisServiceTest {
+    
+    @Mock
+    private ReactiveColisRepository colisRepository;
+    
+    @Mock
+    private ColisService colisService;
+    
+    @Mock
+    private ColisMapper colisMapper;
+    
+    @Mock
+    private ColisCountCache colisCountCache;
+    
+    @Mock
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Mock
+    private ColisEventRecorder eventRecorder;
+    
+    @Mock
+    private ColisCounters colisCounters;
+    
+    @InjectMocks
+    private ReactiveColisService reactiveColisService;
+    
+    private User transporteur;
+    
+    private Colis colis;
+    
+    @BeforeEach
+    void setUp() {
+        transporteur = new User();
+        transporteur.setId("trans1");
+        transporteur.setRole(Role.TRANSPORTEUR);
+        
+        colis = new Colis();
+        colis.setId("1");
+        colis.setStatut(StatutColis.EN_ATTENTE);
+        colis.setTransporteurId("trans1");
+        colis.setVersion(3L);
+    }
+    
+    @Test
+    void updateColisStatut_ShouldRecordTheEventChargesAndCounters() {
+        // Arrange
+        Colis updated = new Colis();
+        updated.setId("1");
+        updated.setStatut(StatutColis.EN_TRANSIT);
+        updated.setTransporteurId("trans1");
+        updated.setVersion(4L);
+        ColisDTO dto = new ColisDTO();
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.EN_TRANSIT, 3L))
+                .thenReturn(Mono.just(new ColisChange(colis, updated)));
+        when(colisMapper.toDTO(updated)).thenReturn(dto);
+        
+        // Act
+        ColisDTO result = reactiveColisService.updateColisStatut(transporteur, "1",
+                new UpdateStatutRequest(StatutColis.EN_TRANSIT), 3L).block();
+        
+        // Assert
+        assertSame(dto, result);
+        verify(eventRecorder).record("1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, transporteur);
+        verify(chargeLedger).record(colis, updated);
+        verify(colisCounters).record(colis, updated);
+    }
+    
+    @Test
+    void updateColisStatut_OfAnotherTransporteursColis_ShouldFailWithUnauthorized() {
+        // Arrange
+        colis.setTransporteurId("trans2");
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.EN_TRANSIT, null)).thenReturn(Mono.empty());
+        when(colisRepository.findById("1")).thenReturn(Mono.just(colis));
+        
+        // Act & Assert
+        Mono<ColisDTO> result = reactiveColisService.updateColisStatut(transporteur, "1",
+                new UpdateStatutRequest(StatutColis.EN_TRANSIT), null);
+        assertThrows(UnauthorizedException.class, result::block);
+        
+        verifyNoInteractions(eventRecorder, chargeLedger, colisCounters);
+    }
+    
+    @Test
+    void updateColisStatut_WithIllegalTransition_ShouldFailWithConflict() {
+        // Arrange
+        colis.setStatut(StatutColis.LIVRE);
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.EN_TRANSIT, null)).thenReturn(Mono.empty());
+        when(colisRepository.findById("1")).thenReturn(Mono.just(colis));
+        
+        // Act & Assert
+        Mono<ColisDTO> result = reactiveColisService.updateColisStatut(transporteur, "1",
+                new UpdateStatutRequest(StatutColis.EN_TRANSIT), null);
+        assertThrows(ConflictException.class, result::block);
+        
+        verify(chargeLedger, never()).record(any(), any());
+    }
+}
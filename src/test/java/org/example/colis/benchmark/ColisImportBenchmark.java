@@ -0,0 +1,129 @@
+package org.example.colis.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.example.colis.dto.ColisImportReport;
+import org.example.colis.enums.ColisFileFormat;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.service.ColisCounters;
+import org.example.colis.service.ColisImportService;
+import org.example.colis.service.ColisService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory stage of the colis import: reading, parallel parsing and validation and mapping
+ * of a file of ROWS colis, with the bulk insert and the counter update stubbed out. The
+ * MongoDB side is not included, so the result is an upper bound for a real import.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.example.colis.benchmark.ColisImportBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColisImportBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"CSV", "NDJSON"})
+    private ColisFileFormat format;
+
+    private byte[] file;
+
+    private ColisImportService importService;
+
+    private ValidatorFactory validatorFactory;
+
+    @Setup
+    public void setUp() {
+        StringBuilder content = new StringBuilder();
+        if (format == ColisFileFormat.CSV) {
+            content.append("type,poids,adresseDestination,instructionsManutention,temperatureMin,temperatureMax\n");
+        }
+        for (int i = 0; i < ROWS; i++) {
+            content.append(row(i)).append('\n');
+        }
+        file = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        int[] pending = new int[1];
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Colis.class))).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenAnswer(invocation -> {
+            pending[0] = ((List<?>) invocation.getArgument(0)).size();
+            return bulk;
+        });
+        when(bulk.execute()).thenAnswer(invocation -> BulkWriteResult.acknowledged(pending[0], 0, 0, 0, List.of(), List.of()));
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importService = new ColisImportService();
+        ReflectionTestUtils.setField(importService, "colisService", new ColisService());
+        ReflectionTestUtils.setField(importService, "colisMapper", new ColisMapper());
+        ReflectionTestUtils.setField(importService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "validator", validatorFactory.getValidator());
+        ReflectionTestUtils.setField(importService, "colisCounters", mock(ColisCounters.class));
+        ReflectionTestUtils.setField(importService, "batchSize", 1000);
+        ReflectionTestUtils.setField(importService, "maxErrors", 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public ColisImportReport importFile() throws IOException {
+        return importService.importColis(new ByteArrayInputStream(file), format);
+    }
+
+    // One colis of each type in turn, with the fields each type requires
+    private String row(int i) {
+        String adresse = i + " rue de la Paix 7500" + (i % 10) + " Paris";
+        return switch (i % 3) {
+            case 0 -> format == ColisFileFormat.CSV
+                    ? "STANDARD," + (1 + i % 30) + "," + adresse + ",,,"
+                    : "{\"type\":\"STANDARD\",\"poids\":" + (1 + i % 30) + ",\"adresseDestination\":\"" + adresse + "\"}";
+            case 1 -> format == ColisFileFormat.CSV
+                    ? "FRAGILE," + (1 + i % 30) + "," + adresse + ",Handle with care,,"
+                    : "{\"type\":\"FRAGILE\",\"poids\":" + (1 + i % 30) + ",\"adresseDestination\":\"" + adresse
+                    + "\",\"instructionsManutention\":\"Handle with care\"}";
+            default -> format == ColisFileFormat.CSV
+                    ? "FRIGO," + (1 + i % 30) + "," + adresse + ",,2,8"
+                    : "{\"type\":\"FRIGO\",\"poids\":" + (1 + i % 30) + ",\"adresseDestination\":\"" + adresse
+                    + "\",\"temperatureMin\":2,\"temperatureMax\":8}";
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColisImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
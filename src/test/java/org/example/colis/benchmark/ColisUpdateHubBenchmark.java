@@ -0,0 +1,107 @@
+package org.example.colis.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.colis.dto.ColisUpdateEvent;
+import org.example.colis.service.ColisUpdateHub;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of holding SSE subscribers on one node, without the network: subscribers are spread
+ * evenly over up to 5000 transporteurs and their emitters only build the event. heartbeat measures a full
+ * round (every subscriber gets its comment through its buffer and the sender pool), publish
+ * one colis update fanned out to the subscribers of its transporteur.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.example.colis.benchmark.ColisUpdateHubBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColisUpdateHubBenchmark {
+
+    private static final int TRANSPORTEURS = 5000;
+
+    @Param({"1000", "10000", "50000"})
+    private int subscribers;
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private ColisUpdateHub hub;
+
+    private int transporteurs;
+
+    private long round;
+
+    @Setup
+    public void setUp() {
+        hub = new ColisUpdateHub(new SimpleMeterRegistry(), true, 256, 10000, Duration.ofHours(1), 0) {
+            @Override
+            protected SseEmitter newEmitter() {
+                return new DiscardingEmitter(delivered);
+            }
+        };
+        // Every transporteur has the same number of subscribers
+        transporteurs = Math.min(subscribers, TRANSPORTEURS);
+        for (int i = 0; i < subscribers; i++) {
+            hub.subscribe("t" + (i % transporteurs), null);
+        }
+    }
+
+    @Benchmark
+    public long heartbeat() {
+        long target = delivered.get() + subscribers;
+        hub.heartbeat();
+        while (delivered.get() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+
+    @Benchmark
+    public long publish() {
+        long sequence = round++;
+        long target = delivered.get() + subscribers / transporteurs;
+        hub.publish(new ColisUpdateHub.Update("tok" + sequence, Set.of("t" + (sequence % transporteurs)),
+                new ColisUpdateEvent("c" + sequence, "update", null)));
+        while (delivered.get() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+
+    private static final class DiscardingEmitter extends SseEmitter {
+
+        private final AtomicLong delivered;
+
+        private DiscardingEmitter(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build();
+            delivered.incrementAndGet();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColisUpdateHubBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
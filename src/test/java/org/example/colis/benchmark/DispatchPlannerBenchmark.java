@@ -0,0 +1,90 @@
+package org.example.colis.benchmark;
+
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.service.BalancedDispatchPlanner;
+import org.example.colis.service.CapacityPlanner;
+import org.example.colis.service.DispatchPlanner.Assignment;
+import org.example.colis.service.DispatchPlanner.Candidate;
+import org.example.colis.service.DispatchPlanner.WaitingColis;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planning throughput of one dispatch round, in colis assigned per second: each invocation
+ * plans a full round for the given number of waiting colis (1 to 30 kg) against 500
+ * transporteurs, either balanced (heaps by load) or packed (best-fit decreasing by poids).
+ * Every vehicle has enough free capacity for its share of the round.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.example.colis.benchmark.DispatchPlannerBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchPlannerBenchmark {
+
+    private static final int TRANSPORTEURS = 500;
+
+    @Param({"5000", "50000"})
+    private int colisCount;
+
+    private List<WaitingColis> waiting;
+    private List<Candidate> transporteurs;
+    private BalancedDispatchPlanner balanced;
+    private CapacityPlanner packed;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        TypeColis[] types = TypeColis.values();
+        Specialite[] specialites = Specialite.values();
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+
+        waiting = new ArrayList<>(colisCount);
+        for (int i = 0; i < colisCount; i++) {
+            waiting.add(new WaitingColis("c" + i, types[random.nextInt(types.length)],
+                    start.plusSeconds(random.nextInt(86_400)), 1 + random.nextInt(30), 0L));
+        }
+        // Roomy enough that every colis is assigned, so ops/s * colisCount = colis/s
+        int share = colisCount / TRANSPORTEURS * specialites.length;
+        transporteurs = new ArrayList<>(TRANSPORTEURS);
+        for (int i = 0; i < TRANSPORTEURS; i++) {
+            int charge = random.nextInt(10);
+            transporteurs.add(new Candidate("t" + i, specialites[i % specialites.length], charge, charge * 15.0,
+                    10 + share, 40.0 * (10 + share)));
+        }
+        balanced = new BalancedDispatchPlanner(10);
+        packed = new CapacityPlanner(10);
+    }
+
+    @Benchmark
+    public List<Assignment> planRound() {
+        return balanced.plan(waiting, transporteurs);
+    }
+
+    @Benchmark
+    public List<Assignment> packRound() {
+        return packed.plan(waiting, transporteurs);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DispatchPlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
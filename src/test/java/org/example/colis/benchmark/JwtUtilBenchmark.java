@@ -0,0 +1,86 @@
+package org.example.colis.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.example.colis.enums.Role;
+import org.example.colis.model.User;
+import org.example.colis.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original token validation path (new Algorithm and JWTVerifier per call)
+ * with the shared verifier and the verified-token cache in {@link JwtUtil}.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.example.colis.benchmark.JwtUtilBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForJwtValidation123456789!";
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtil = newJwtUtil(10_000);
+        // A zero-sized cache evicts immediately, which leaves only the shared verifier
+        uncachedJwtUtil = newJwtUtil(0);
+
+        User user = new User();
+        user.setLogin("transporteur_standard");
+        user.setRole(Role.TRANSPORTEUR);
+        token = cachedJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public DecodedJWT perCallVerifier() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        return JWT.require(algorithm)
+                .withIssuer("colis-api")
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifier() {
+        return uncachedJwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public DecodedJWT verifiedTokenCache() {
+        return cachedJwtUtil.validateToken(token);
+    }
+
+    private static JwtUtil newJwtUtil(long cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
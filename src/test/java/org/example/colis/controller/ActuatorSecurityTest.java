@@ -0,0 +1,102 @@
+package org.example.colis.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.example.colis.enums.Role;
+import org.example.colis.model.User;
+import org.example.colis.security.JwtAuthenticator;
+import org.example.colis.security.JwtUtil;
+import org.example.colis.security.PrincipalCache;
+import org.example.colis.security.SecurityConfig;
+import org.example.colis.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Access rules for the actuator endpoints. The endpoints themselves are not part of the
+ * MVC slice, so only the security decision is checked for requests that are let through.
+ */
+@WebMvcTest(controllers = AdminDashboardController.class)
+@Import(SecurityConfig.class)
+class ActuatorSecurityTest {
+    
+    private static final String TOKEN = "Bearer token";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private JwtUtil jwtUtil;
+    
+    @MockBean
+    private PrincipalCache principalCache;
+    
+    @MockBean
+    private JwtAuthenticator jwtAuthenticator;
+    
+    @MockBean
+    private DashboardService dashboardService;
+    
+    @Test
+    void metricsAndLogins_AsTransporteur_ShouldReturn403() throws Exception {
+        // Arrange
+        authenticateAs(Role.TRANSPORTEUR);
+        
+        // Act & Assert
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", TOKEN))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/logins").header("Authorization", TOKEN))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void metrics_AsAdmin_ShouldPassTheSecurityChain() throws Exception {
+        // Arrange
+        authenticateAs(Role.ADMIN);
+        
+        // Act & Assert
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", TOKEN))
+                .andExpect(notDenied());
+    }
+    
+    @Test
+    void health_WithoutToken_ShouldPassTheSecurityChain() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(notDenied());
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isForbidden());
+    }
+    
+    private static ResultMatcher notDenied() {
+        return result -> assertNotEquals(HttpStatus.FORBIDDEN.value(), result.getResponse().getStatus());
+    }
+    
+    private void authenticateAs(Role role) {
+        User user = new User();
+        user.setId("u1");
+        user.setLogin("user");
+        user.setRole(role);
+        DecodedJWT jwt = mock(DecodedJWT.class);
+        when(jwt.getSubject()).thenReturn("user");
+        when(jwtUtil.validateToken(any())).thenReturn(jwt);
+        when(jwtAuthenticator.isStateless()).thenReturn(true);
+        when(jwtAuthenticator.fromClaims(jwt)).thenReturn(new UsernamePasswordAuthenticationToken(
+                user, null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+}
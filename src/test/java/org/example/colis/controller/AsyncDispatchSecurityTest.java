@@ -0,0 +1,144 @@
+package org.example.colis.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.example.colis.dto.DashboardDTO;
+import org.example.colis.enums.ColisFileFormat;
+import org.example.colis.enums.Role;
+import org.example.colis.model.User;
+import org.example.colis.security.JwtAuthenticator;
+import org.example.colis.security.JwtUtil;
+import org.example.colis.security.PrincipalCache;
+import org.example.colis.security.SecurityConfig;
+import org.example.colis.service.ColisExportService;
+import org.example.colis.service.ColisImportService;
+import org.example.colis.service.ColisService;
+import org.example.colis.service.ColisUpdateHub;
+import org.example.colis.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Endpoints that complete asynchronously go through the security filters a second time
+ * (ASYNC dispatch); the JWT filter only runs on the first one.
+ */
+@WebMvcTest(controllers = {AdminDashboardController.class, TransporteurColisController.class, AdminColisController.class})
+@Import(SecurityConfig.class)
+class AsyncDispatchSecurityTest {
+    
+    private static final String TOKEN = "Bearer token";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private JwtUtil jwtUtil;
+    
+    @MockBean
+    private PrincipalCache principalCache;
+    
+    @MockBean
+    private JwtAuthenticator jwtAuthenticator;
+    
+    @MockBean
+    private DashboardService dashboardService;
+    
+    @MockBean
+    private ColisService colisService;
+    
+    @MockBean
+    private ColisUpdateHub colisUpdateHub;
+    
+    @MockBean
+    private ColisExportService colisExportService;
+    
+    @MockBean
+    private ColisImportService colisImportService;
+    
+    @Test
+    void getDashboard_ShouldReturn200OnTheAsyncDispatch() throws Exception {
+        // Arrange
+        authenticateAs(Role.ADMIN);
+        when(dashboardService.getDashboardAsync()).thenReturn(CompletableFuture.completedFuture(
+                new DashboardDTO(0, Map.of(), Map.of(), List.of(), Instant.now(), 0)));
+        
+        // Act
+        MvcResult started = mockMvc.perform(get("/api/admin/dashboard").header("Authorization", TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalColis").value(0));
+    }
+    
+    @Test
+    void streamMyColis_ShouldNotDenyTheAsyncDispatchWhenTheStreamEnds() throws Exception {
+        // Arrange
+        User transporteur = authenticateAs(Role.TRANSPORTEUR);
+        SseEmitter emitter = new SseEmitter();
+        when(colisUpdateHub.subscribe(transporteur.getId(), null)).thenReturn(emitter);
+        MvcResult started = mockMvc.perform(get("/api/transporteur/colis/stream").header("Authorization", TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Act
+        emitter.complete();
+        
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void exportColis_ShouldStreamTheBodyOnTheAsyncDispatch() throws Exception {
+        // Arrange
+        authenticateAs(Role.ADMIN);
+        StreamingResponseBody body = out -> out.write("{\"id\":\"1\"}\n".getBytes(StandardCharsets.UTF_8));
+        when(colisExportService.export(any(), any(), eq(ColisFileFormat.NDJSON))).thenReturn(body);
+        MvcResult started = mockMvc.perform(get("/api/admin/colis/export").header("Authorization", TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":\"1\"}\n"));
+    }
+    
+    private User authenticateAs(Role role) {
+        User user = new User();
+        user.setId("u1");
+        user.setLogin("user");
+        user.setRole(role);
+        DecodedJWT jwt = mock(DecodedJWT.class);
+        when(jwt.getSubject()).thenReturn("user");
+        when(jwtUtil.validateToken(any())).thenReturn(jwt);
+        when(jwtAuthenticator.isStateless()).thenReturn(true);
+        when(jwtAuthenticator.fromClaims(jwt)).thenReturn(new UsernamePasswordAuthenticationToken(
+                user, null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+        return user;
+    }
+}
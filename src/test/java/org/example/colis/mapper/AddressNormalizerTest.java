@@ -0,0 +1,48 @@
+package org.example.colis.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressNormalizerTest {
+    
+    @Test
+    void normalize_WithCityAfterPostalCode_ShouldExtractBoth() {
+        // Act
+        AddressNormalizer.Zone zone = AddressNormalizer.normalize("12 rue de la Paix, 75002 Paris");
+        
+        // Assert
+        assertEquals("75002", zone.codePostal());
+        assertEquals("PARIS", zone.ville());
+    }
+    
+    @Test
+    void normalize_WithCityBeforePostalCode_ShouldExtractBoth() {
+        // Act
+        AddressNormalizer.Zone zone = AddressNormalizer.normalize("Bd Zerktouni, Casablanca 20250");
+        
+        // Assert
+        assertEquals("20250", zone.codePostal());
+        assertEquals("CASABLANCA", zone.ville());
+    }
+    
+    @Test
+    void normalize_ShouldStripAccentsAndCedex() {
+        // Act
+        AddressNormalizer.Zone zone = AddressNormalizer.normalize("3 place Jean Jaurès, 42000  Saint-Étienne  Cedex 1");
+        
+        // Assert
+        assertEquals("42000", zone.codePostal());
+        assertEquals("SAINT-ETIENNE", zone.ville());
+    }
+    
+    @Test
+    void normalize_WithoutPostalCode_ShouldReturnEmptyZone() {
+        // Act
+        AddressNormalizer.Zone zone = AddressNormalizer.normalize("Lieu-dit Les Granges, BP 123456");
+        
+        // Assert
+        assertNull(zone.codePostal());
+        assertNull(zone.ville());
+    }
+}
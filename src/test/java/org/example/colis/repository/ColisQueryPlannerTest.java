@@ -0,0 +1,128 @@
+package org.example.colis.repository;
+
+import org.bson.Document;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColisQueryPlannerTest {
+    
+    private ColisQueryPlanner planner;
+    
+    @BeforeEach
+    void setUp() {
+        // Same simple types as the Boot-configured context, so Instant is not mapped as an entity
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        planner = new ColisQueryPlanner(mappingContext);
+    }
+    
+    @Test
+    void plan_StatutWithCreatedAtRangeSortedByDate_ShouldUseStatutCreatedAtIndex() {
+        // Arrange
+        ColisFilter filter = new ColisFilter(null, null, StatutColis.EN_ATTENTE);
+        filter.setCreatedFrom(Instant.parse("2024-01-01T00:00:00Z"));
+        
+        // Act
+        Query query = planner.plan(filter, Sort.by(Sort.Direction.DESC, "createdAt"));
+        
+        // Assert
+        assertEquals(StatutColis.EN_ATTENTE, query.getQueryObject().get("statut"));
+        assertFalse(query.getQueryObject().containsKey("type"));
+        assertEquals(new Document("createdAt", -1).append("_id", -1), query.getSortObject());
+    }
+    
+    @Test
+    void plan_TransporteurSortedById_ShouldExpandTypeAndStatutToReachCompoundIndex() {
+        // Act
+        Query query = planner.plan(new ColisFilter("trans1", null, null), Sort.by("id"));
+        
+        // Assert
+        assertTrue(query.getQueryObject().get("type", Document.class).containsKey("$in"));
+        assertTrue(query.getQueryObject().get("statut", Document.class).containsKey("$in"));
+        assertEquals(new Document("_id", 1), query.getSortObject());
+    }
+    
+    @Test
+    void plan_VilleSortedById_ShouldNormalizeVilleAndExpandStatut() {
+        // Arrange
+        ColisFilter filter = new ColisFilter();
+        filter.setVille("Saint-Étienne");
+        
+        // Act
+        Query query = planner.plan(filter, Sort.by("id"));
+        
+        // Assert
+        assertEquals("SAINT-ETIENNE", query.getQueryObject().get("ville"));
+        assertTrue(query.getQueryObject().get("statut", Document.class).containsKey("$in"));
+        assertEquals(new Document("_id", 1), query.getSortObject());
+    }
+    
+    @Test
+    void plan_WeightRangeWithoutType_ShouldExpandType() {
+        // Arrange
+        ColisFilter filter = new ColisFilter();
+        filter.setPoidsMin(5.0);
+        
+        // Act
+        Query query = planner.plan(filter, Sort.unsorted());
+        
+        // Assert
+        assertTrue(query.getQueryObject().get("type", Document.class).containsKey("$in"));
+        assertFalse(query.getQueryObject().containsKey("statut"));
+    }
+    
+    @Test
+    void plan_WeightRangeSortedByDate_ShouldBeRejected() {
+        // Arrange
+        ColisFilter filter = new ColisFilter();
+        filter.setPoidsMin(5.0);
+        
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> planner.plan(filter, Sort.by("createdAt")));
+        assertTrue(exception.getMessage().contains("poids"));
+    }
+    
+    @Test
+    void plan_WeightRangeWithType_ShouldUseTypePoidsIndex() {
+        // Arrange
+        ColisFilter filter = new ColisFilter(null, TypeColis.FRIGO, null);
+        filter.setPoidsMin(5.0);
+        filter.setPoidsMax(20.0);
+        
+        // Act
+        Query query = planner.plan(filter, Sort.by(Sort.Direction.DESC, "poids"));
+        
+        // Assert
+        assertEquals(new Document("$gte", 5.0).append("$lte", 20.0), query.getQueryObject().get("poids"));
+        assertEquals(new Document("poids", -1).append("_id", -1), query.getSortObject());
+    }
+    
+    @Test
+    void plan_AddressSearchWithSort_ShouldBeRejected() {
+        // Arrange
+        ColisFilter filter = new ColisFilter();
+        filter.setAdresse("rue test");
+        
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> planner.plan(filter, Sort.by("createdAt")));
+    }
+    
+    @Test
+    void plan_UnindexedSortField_ShouldBeRejected() {
+        assertThrows(BusinessException.class,
+                () -> planner.plan(new ColisFilter(), Sort.by("adresseDestination")));
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.colis.repository;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.example.colis.dto.ColisSummaryDTO;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.StatutWave;
+import org.example.colis.enums.TypeColis;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository query method against the test database, captures the commands
+ * the driver sends, and fails if explain() plans a COLLSCAN for any filtered query.
+ * Unfiltered listings (findAll) are full scans by design and are ignored.
+ */
+@SpringBootTest
+class IndexUsageTest {
+    
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "count", "aggregate");
+    
+    private static final Set<String> EXPLAINABLE_FIELDS = Set.of(
+            "find", "filter", "sort", "skip", "limit", "projection",
+            "count", "query",
+            "aggregate", "pipeline", "cursor");
+    
+    @Autowired
+    private ColisRepository colisRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DeliveryWaveRepository deliveryWaveRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private RecordingCommandListener commandListener;
+    
+    @Test
+    void repositoryQueries_ShouldNotPlanCollectionScans() {
+        Pageable pageable = PageRequest.of(0, 10);
+        String transporteurId = "65a000000000000000000001";
+        commandListener.commands.clear();
+        
+        colisRepository.findMatching(new ColisFilter(null, TypeColis.FRAGILE, null), pageable);
+        colisRepository.findMatching(new ColisFilter(null, null, StatutColis.EN_ATTENTE), pageable);
+        colisRepository.findMatching(new ColisFilter(null, TypeColis.FRIGO, StatutColis.EN_TRANSIT), pageable);
+        colisRepository.findMatching(new ColisFilter(transporteurId, null, null), pageable);
+        colisRepository.findMatching(new ColisFilter(transporteurId, TypeColis.STANDARD, null), pageable);
+        colisRepository.findMatching(new ColisFilter(transporteurId, null, StatutColis.LIVRE), pageable);
+        colisRepository.findMatching(new ColisFilter(transporteurId, TypeColis.FRAGILE, StatutColis.EN_ATTENTE), pageable);
+        colisRepository.findMatching(createdBetween(new ColisFilter(null, null, StatutColis.EN_ATTENTE)),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt")));
+        colisRepository.findMatching(createdBetween(new ColisFilter()), pageable);
+        colisRepository.findMatching(createdBetween(new ColisFilter(transporteurId, null, null)),
+                PageRequest.of(0, 10, Sort.by("createdAt")));
+        ColisFilter heavy = new ColisFilter(null, TypeColis.STANDARD, null);
+        heavy.setPoidsMin(10.0);
+        colisRepository.findMatching(heavy, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "poids")));
+        colisRepository.searchByAddress(null, "rue de la république", pageable);
+        colisRepository.searchByAddress(transporteurId, "chateau", pageable);
+        colisRepository.findAfter(new ColisFilter(null, TypeColis.FRAGILE, null), transporteurId, 11);
+        colisRepository.findAfter(new ColisFilter(null, null, StatutColis.ANNULE), transporteurId, 11);
+        colisRepository.findAfter(new ColisFilter(transporteurId, null, null), null, 11);
+        colisRepository.findSlice(new ColisFilter(transporteurId, null, StatutColis.EN_TRANSIT), pageable);
+        colisRepository.findSlice(new ColisFilter(null, TypeColis.FRIGO, null), pageable, ColisSummaryDTO.class);
+        colisRepository.countMatching(new ColisFilter(null, TypeColis.STANDARD, StatutColis.LIVRE));
+        ColisFilter zone = new ColisFilter(null, null, StatutColis.EN_ATTENTE);
+        zone.setCodePostal("75002");
+        colisRepository.findMatching(zone, pageable);
+        ColisFilter ville = new ColisFilter();
+        ville.setVille("Paris");
+        colisRepository.findMatching(ville, PageRequest.of(0, 10, Sort.by("id")));
+        try (var exported = colisRepository.streamMatching(new ColisFilter(transporteurId, null, null), Sort.unsorted(), 100)) {
+            exported.count();
+        }
+        
+        userRepository.findByLogin("admin");
+        userRepository.findByLoginAndActiveTrue("admin");
+        userRepository.findByRole(Role.TRANSPORTEUR, pageable);
+        userRepository.findByRoleAndSpecialite(Role.TRANSPORTEUR, Specialite.FRIGO, pageable);
+        userRepository.findTokenVersions();
+        
+        deliveryWaveRepository.findByStatut(StatutWave.OUVERTE, PageRequest.of(0, 10, Sort.by("createdAt")));
+        
+        List<String> collectionScans = new ArrayList<>();
+        for (BsonDocument command : commandListener.commands) {
+            if (!isFiltered(command)) {
+                continue;
+            }
+            Document plan = mongoTemplate.getDb().runCommand(new Document("explain", explainable(command))
+                    .append("verbosity", "queryPlanner"));
+            if (plan.toJson().contains("\"COLLSCAN\"")) {
+                collectionScans.add(command.toJson());
+            }
+        }
+        
+        assertTrue(collectionScans.isEmpty(), "Queries planned as COLLSCAN: " + collectionScans);
+    }
+    
+    private static ColisFilter createdBetween(ColisFilter filter) {
+        filter.setCreatedFrom(Instant.parse("2024-01-01T00:00:00Z"));
+        filter.setCreatedTo(Instant.parse("2024-02-01T00:00:00Z"));
+        return filter;
+    }
+    
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument copy = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (EXPLAINABLE_FIELDS.contains(key)) {
+                copy.append(key, value);
+            }
+        });
+        return copy;
+    }
+    
+    private static boolean isFiltered(BsonDocument command) {
+        if (command.containsKey("filter")) {
+            return !command.getDocument("filter").isEmpty();
+        }
+        if (command.containsKey("query")) {
+            return !command.getDocument("query").isEmpty();
+        }
+        if (command.containsKey("pipeline")) {
+            for (BsonValue stage : command.getArray("pipeline")) {
+                BsonDocument match = stage.asDocument().getDocument("$match", null);
+                if (match != null && !match.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    static class RecordingCommandListener implements CommandListener {
+        
+        private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                commands.add(event.getCommand().clone());
+            }
+        }
+    }
+    
+    @TestConfiguration
+    static class CommandRecordingConfig {
+        
+        @Bean
+        RecordingCommandListener recordingCommandListener() {
+            return new RecordingCommandListener();
+        }
+        
+        @Bean
+        MongoClientSettingsBuilderCustomizer recordingCustomizer(RecordingCommandListener listener) {
+            return settings -> settings.addCommandListener(listener);
+        }
+    }
+}
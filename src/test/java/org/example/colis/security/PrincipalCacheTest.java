@@ -0,0 +1,110 @@
+package org.example.colis.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.colis.enums.Role;
+import org.example.colis.model.User;
+import org.example.colis.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    private PrincipalCache principalCache;
+    
+    private User admin;
+    
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        admin = new User();
+        admin.setId("u1");
+        admin.setLogin("admin");
+        admin.setRole(Role.ADMIN);
+    }
+    
+    @Test
+    void get_ShouldLoadOnceThenServeFromCache() {
+        // Arrange
+        when(userRepository.findByLoginAndActiveTrue("admin")).thenReturn(Optional.of(admin));
+        
+        // Act
+        Optional<PrincipalCache.CachedPrincipal> first = principalCache.get("admin");
+        Optional<PrincipalCache.CachedPrincipal> second = principalCache.get("admin");
+        
+        // Assert
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertEquals("ROLE_ADMIN", first.get().authorities().get(0).getAuthority());
+        verify(userRepository, times(1)).findByLoginAndActiveTrue("admin");
+    }
+    
+    @Test
+    void get_ShouldNotCacheUnknownLogin() {
+        // Arrange
+        when(userRepository.findByLoginAndActiveTrue("ghost")).thenReturn(Optional.empty());
+        
+        // Act
+        principalCache.get("ghost");
+        principalCache.get("ghost");
+        
+        // Assert
+        verify(userRepository, times(2)).findByLoginAndActiveTrue("ghost");
+        assertTrue(principalCache.getIfPresent("ghost").isEmpty());
+    }
+    
+    @Test
+    void evict_ShouldReloadOnNextGet() {
+        // Arrange
+        when(userRepository.findByLoginAndActiveTrue("admin")).thenReturn(Optional.of(admin));
+        principalCache.get("admin");
+        
+        // Act
+        principalCache.evict("admin");
+        
+        // Assert
+        assertTrue(principalCache.getIfPresent("admin").isEmpty());
+        principalCache.get("admin");
+        verify(userRepository, times(2)).findByLoginAndActiveTrue("admin");
+    }
+    
+    @Test
+    void get_ConcurrentMisses_ShouldShareOneQuery() throws Exception {
+        // Arrange
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByLoginAndActiveTrue("admin")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(admin);
+        });
+        CompletableFuture<Optional<PrincipalCache.CachedPrincipal>> first =
+                CompletableFuture.supplyAsync(() -> principalCache.get("admin"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        
+        // Act
+        CompletableFuture<Optional<PrincipalCache.CachedPrincipal>> second =
+                CompletableFuture.supplyAsync(() -> principalCache.get("admin"));
+        assertTrue(principalCache.getIfPresent("admin").isEmpty());
+        release.countDown();
+        
+        // Assert
+        assertSame(first.get(5, TimeUnit.SECONDS).get(), second.get(5, TimeUnit.SECONDS).get());
+        verify(userRepository, times(1)).findByLoginAndActiveTrue("admin");
+    }
+}
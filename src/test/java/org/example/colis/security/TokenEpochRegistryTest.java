@@ -0,0 +1,97 @@
+package org.example.colis.security;
+
+import org.example.colis.model.RevokedToken;
+import org.example.colis.model.User;
+import org.example.colis.repository.RevokedTokenRepository;
+import org.example.colis.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenEpochRegistryTest {
+
+    private static final long TOKEN_LIFETIME_MS = 86_400_000L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    // Two instances sharing the same Mongo collections
+    private TokenEpochRegistry registry;
+
+    private TokenEpochRegistry otherInstance;
+
+    private final List<RevokedToken> revokedTokens = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenEpochRegistry(userRepository, revokedTokenRepository, true, TOKEN_LIFETIME_MS);
+        otherInstance = new TokenEpochRegistry(userRepository, revokedTokenRepository, true, TOKEN_LIFETIME_MS);
+    }
+
+    @Test
+    void revoke_ShouldRejectTheTokensOnTheOtherInstancesAfterTheirRefresh() {
+        // Arrange
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+            revokedTokens.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(revokedTokenRepository.findAll()).thenReturn(revokedTokens);
+        when(userRepository.findTokenVersions()).thenReturn(List.of());
+        assertTrue(otherInstance.isCurrent("u1", 0L));
+
+        // Act
+        registry.revoke("u1", 1L);
+        otherInstance.refresh();
+
+        // Assert
+        assertFalse(registry.isCurrent("u1", 0L));
+        assertFalse(otherInstance.isCurrent("u1", 0L));
+        assertTrue(otherInstance.isCurrent("u2", 0L));
+    }
+
+    @Test
+    void revoke_ShouldKeepTheEntryAsLongAsATokenIssuedNowCouldLive() {
+        // Arrange
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Instant before = Instant.now();
+
+        // Act
+        registry.revoke("u1", 3L);
+
+        // Assert
+        verify(revokedTokenRepository).save(argThat(revoked -> "u1".equals(revoked.getId())
+                && revoked.getEpoch() == 3L
+                && !revoked.getExpiresAt().isBefore(before.plusMillis(TOKEN_LIFETIME_MS))));
+    }
+
+    @Test
+    void refresh_ShouldPickUpEpochsBumpedOnLiveUsers() {
+        // Arrange
+        User user = new User();
+        user.setId("u1");
+        user.setTokenVersion(2L);
+        when(userRepository.findTokenVersions()).thenReturn(List.of(user));
+        when(revokedTokenRepository.findAll()).thenReturn(List.of());
+
+        // Act
+        otherInstance.refresh();
+
+        // Assert
+        assertFalse(otherInstance.isCurrent("u1", 1L));
+        assertTrue(otherInstance.isCurrent("u1", 2L));
+    }
+}
@@ -1,12 +1,15 @@
 package org.example.colis.service;
 
+import org.example.colis.config.LoginExecutor;
 import org.example.colis.dto.LoginRequest;
 import org.example.colis.dto.LoginResponse;
 import org.example.colis.enums.Role;
+import org.example.colis.exception.TooManyRequestsException;
 import org.example.colis.exception.UnauthorizedException;
 import org.example.colis.model.User;
 import org.example.colis.repository.UserRepository;
 import org.example.colis.security.JwtUtil;
+import org.example.colis.security.LoginAttemptTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +37,12 @@ class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
     
+    @Mock
+    private LoginAttemptTracker loginAttemptTracker;
+    
+    @Mock
+    private LoginExecutor loginExecutor;
+    
     @InjectMocks
     private AuthService authService;
     
@@ -85,6 +95,7 @@ class AuthServiceTest {
         
         verify(userRepository).findByLoginAndActiveTrue("admin");
         verify(passwordEncoder).matches("wrongPassword", testUser.getPassword());
+        verify(loginAttemptTracker).recordFailure("admin", "wrongPassword");
         verify(jwtUtil, never()).generateToken(any());
     }
     
@@ -114,4 +125,31 @@ class AuthServiceTest {
         
         verify(userRepository).findByLoginAndActiveTrue("admin");
     }
+    
+    @Test
+    void login_WithRecentlyFailedCredentials_ShouldSkipPasswordCheck() {
+        // Arrange
+        when(loginAttemptTracker.isKnownFailure("admin", "wrongPassword")).thenReturn(true);
+        
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> authService.login(
+                new LoginRequest("admin", "wrongPassword")
+        ));
+        
+        verify(loginAttemptTracker).recordCachedFailure("admin");
+        verify(userRepository, never()).findByLoginAndActiveTrue(any());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+    
+    @Test
+    void loginAsync_WhenExecutorIsSaturated_ShouldThrowTooManyRequestsException() {
+        // Arrange
+        when(loginExecutor.supply(any())).thenThrow(new RejectedExecutionException());
+        
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> authService.loginAsync(loginRequest));
+        
+        verify(loginAttemptTracker).recordRejected("admin");
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
 }
@@ -0,0 +1,107 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.service.DispatchPlanner.Assignment;
+import org.example.colis.service.DispatchPlanner.Candidate;
+import org.example.colis.service.DispatchPlanner.WaitingColis;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalancedDispatchPlannerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void plan_ShouldOnlyAssignToMatchingSpecialite() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                waiting("c1", TypeColis.FRAGILE, NOW),
+                waiting("c2", TypeColis.FRIGO, NOW));
+        List<Candidate> transporteurs = List.of(
+                candidate("t1", Specialite.FRAGILE, 0),
+                candidate("t2", Specialite.STANDARD, 0));
+
+        // Act
+        List<Assignment> plan = new BalancedDispatchPlanner(10).plan(waiting, transporteurs);
+
+        // Assert
+        assertEquals(1, plan.size());
+        assertEquals("c1", plan.get(0).colis().id());
+        assertEquals("t1", plan.get(0).transporteurId());
+    }
+
+    @Test
+    void plan_ShouldServeOldestColisFirstToLeastLoadedTransporteur() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                waiting("recent", TypeColis.STANDARD, NOW.plusSeconds(60)),
+                waiting("legacy", TypeColis.STANDARD, null),
+                waiting("old", TypeColis.STANDARD, NOW));
+        List<Candidate> transporteurs = List.of(
+                candidate("busy", Specialite.STANDARD, 3),
+                candidate("idle", Specialite.STANDARD, 0));
+
+        // Act
+        List<Assignment> plan = new BalancedDispatchPlanner(10).plan(waiting, transporteurs);
+
+        // Assert
+        assertEquals(List.of("legacy", "old", "recent"), plan.stream().map(a -> a.colis().id()).toList());
+        assertTrue(plan.stream().allMatch(a -> a.transporteurId().equals("idle")));
+    }
+
+    @Test
+    void plan_ShouldStopAtMaxLoad() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                waiting("c1", TypeColis.STANDARD, NOW),
+                waiting("c2", TypeColis.STANDARD, NOW.plusSeconds(1)),
+                waiting("c3", TypeColis.STANDARD, NOW.plusSeconds(2)),
+                waiting("c4", TypeColis.STANDARD, NOW.plusSeconds(3)));
+        List<Candidate> transporteurs = List.of(
+                candidate("t1", Specialite.STANDARD, 1),
+                candidate("t2", Specialite.STANDARD, 0),
+                candidate("full", Specialite.STANDARD, 2));
+
+        // Act
+        List<Assignment> plan = new BalancedDispatchPlanner(2).plan(waiting, transporteurs);
+
+        // Assert
+        Map<String, Long> perTransporteur = plan.stream()
+                .collect(Collectors.groupingBy(Assignment::transporteurId, Collectors.counting()));
+        assertEquals(Map.of("t1", 1L, "t2", 2L), perTransporteur);
+    }
+
+    @Test
+    void plan_ShouldSkipTransporteurWithoutRoomForThePoids() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                new WaitingColis("heavy", TypeColis.STANDARD, NOW, 80.0, 0L),
+                new WaitingColis("light", TypeColis.STANDARD, NOW.plusSeconds(1), 5.0, 0L));
+        List<Candidate> transporteurs = List.of(
+                new Candidate("small", Specialite.STANDARD, 0, 40.0, null, 50.0),
+                new Candidate("large", Specialite.STANDARD, 1, 0.0, null, 100.0));
+
+        // Act
+        List<Assignment> plan = new BalancedDispatchPlanner(10).plan(waiting, transporteurs);
+
+        // Assert
+        Map<String, String> byColis = plan.stream()
+                .collect(Collectors.toMap(a -> a.colis().id(), Assignment::transporteurId));
+        assertEquals(Map.of("heavy", "large", "light", "small"), byColis);
+    }
+
+    private static WaitingColis waiting(String id, TypeColis type, Instant createdAt) {
+        return new WaitingColis(id, type, createdAt, 1.0, 0L);
+    }
+
+    private static Candidate candidate(String id, Specialite specialite, int chargeColis) {
+        return new Candidate(id, specialite, chargeColis, chargeColis, null, null);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.service.DispatchPlanner.Assignment;
+import org.example.colis.service.DispatchPlanner.Candidate;
+import org.example.colis.service.DispatchPlanner.WaitingColis;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityPlannerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void plan_ShouldPutEachColisInTheTightestVehicleThatFits() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                new WaitingColis("small", TypeColis.STANDARD, NOW, 20.0, 0L),
+                new WaitingColis("big", TypeColis.STANDARD, NOW.plusSeconds(1), 90.0, 0L),
+                new WaitingColis("medium", TypeColis.STANDARD, NOW.plusSeconds(2), 30.0, 0L));
+        List<Candidate> transporteurs = List.of(
+                new Candidate("van", Specialite.STANDARD, 0, 0.0, null, 50.0),
+                new Candidate("truck", Specialite.STANDARD, 0, 0.0, null, 100.0));
+
+        // Act
+        List<Assignment> plan = new CapacityPlanner(10).plan(waiting, transporteurs);
+
+        // Assert - big fills the truck, the two others share the van
+        assertEquals(Map.of("big", "truck", "medium", "van", "small", "van"), byColis(plan));
+    }
+
+    @Test
+    void plan_ShouldNeverExceedPoidsOrColisCapacity() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                new WaitingColis("c1", TypeColis.STANDARD, NOW, 30.0, 0L),
+                new WaitingColis("c2", TypeColis.STANDARD, NOW, 30.0, 0L),
+                new WaitingColis("c3", TypeColis.STANDARD, NOW, 30.0, 0L),
+                new WaitingColis("c4", TypeColis.STANDARD, NOW, 5.0, 0L));
+        List<Candidate> transporteurs = List.of(
+                // 10 kg already loaded: room for 50 kg
+                new Candidate("heavy", Specialite.STANDARD, 1, 10.0, null, 60.0),
+                // Room for one more colis only
+                new Candidate("counted", Specialite.STANDARD, 1, 0.0, 2, null));
+
+        // Act
+        List<Assignment> plan = new CapacityPlanner(10).plan(waiting, transporteurs);
+
+        // Assert
+        Map<String, Double> poids = plan.stream().collect(Collectors.groupingBy(Assignment::transporteurId,
+                Collectors.summingDouble(a -> a.colis().poids())));
+        Map<String, Long> count = plan.stream().collect(Collectors.groupingBy(Assignment::transporteurId,
+                Collectors.counting()));
+        assertTrue(poids.get("heavy") <= 50.0);
+        assertEquals(1L, count.get("counted"));
+        assertEquals(3, plan.size());
+    }
+
+    @Test
+    void plan_ShouldRespectSpecialiteAndDefaultMaxColis() {
+        // Arrange
+        List<WaitingColis> waiting = List.of(
+                new WaitingColis("f1", TypeColis.FRIGO, NOW, 1.0, 0L),
+                new WaitingColis("f2", TypeColis.FRIGO, NOW.plusSeconds(1), 1.0, 0L),
+                new WaitingColis("s1", TypeColis.STANDARD, NOW, 1.0, 0L));
+        List<Candidate> transporteurs = List.of(
+                new Candidate("frigo", Specialite.FRIGO, 0, 0.0, null, null),
+                new Candidate("fragile", Specialite.FRAGILE, 0, 0.0, null, null));
+
+        // Act
+        List<Assignment> plan = new CapacityPlanner(1).plan(waiting, transporteurs);
+
+        // Assert - one FRIGO slot, nothing can carry the STANDARD colis
+        assertEquals(1, plan.size());
+        assertEquals("frigo", plan.get(0).transporteurId());
+        assertEquals(TypeColis.FRIGO, plan.get(0).colis().type());
+    }
+
+    private static Map<String, String> byColis(List<Assignment> plan) {
+        return plan.stream().collect(Collectors.toMap(a -> a.colis().id(), Assignment::transporteurId));
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.BatchAssignRequest;
+import org.example.colis.dto.BatchIdsRequest;
+import org.example.colis.dto.BatchStatutRequest;
+import org.example.colis.dto.ColisBatchResponse;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisRepository;
+import org.example.colis.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisBatchServiceTest {
+    
+    @Mock
+    private ColisRepository colisRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Spy
+    private ColisMapper colisMapper = new ColisMapper();
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @Mock
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Mock
+    private ColisEventRecorder eventRecorder;
+    
+    @Mock
+    private ColisCounters colisCounters;
+    
+    @InjectMocks
+    private ColisBatchService colisBatchService;
+    
+    private Colis fragile;
+    private Colis frigo;
+    private User transporteur;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(colisBatchService, "maxSize", 3);
+        
+        fragile = new Colis();
+        fragile.setId("c1");
+        fragile.setType(TypeColis.FRAGILE);
+        fragile.setStatut(StatutColis.EN_ATTENTE);
+        
+        frigo = new Colis();
+        frigo.setId("c2");
+        frigo.setType(TypeColis.FRIGO);
+        frigo.setStatut(StatutColis.LIVRE);
+        
+        transporteur = new User();
+        transporteur.setId("trans1");
+        transporteur.setRole(Role.TRANSPORTEUR);
+        transporteur.setSpecialite(Specialite.FRAGILE);
+    }
+    
+    @Test
+    void assignColis_WithMixedItems_ShouldReportEachAndWriteOnce() {
+        // Arrange
+        BatchAssignRequest request = new BatchAssignRequest(List.of(
+                new BatchAssignRequest.Item("c1", "trans1"),
+                new BatchAssignRequest.Item("c2", "trans1"),
+                new BatchAssignRequest.Item("c3", "trans1")));
+        when(colisRepository.findAllById(List.of("c1", "c2", "c3"))).thenReturn(List.of(fragile, frigo));
+        when(userRepository.findAllById(List.of("trans1"))).thenReturn(List.of(transporteur));
+        when(chargeLedger.reserve("trans1", 0.0, 1)).thenReturn(true);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class)).thenReturn(bulkOperations);
+        // Read-back of the lastWriteId marker: the write of c1 applied
+        Colis written = new Colis();
+        written.setId("c1");
+        when(mongoTemplate.find(any(Query.class), eq(Colis.class))).thenReturn(List.of(written));
+        
+        // Act
+        ColisBatchResponse response = colisBatchService.assignColis(request);
+        
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(List.of(200, 400, 404), response.getResults().stream().map(ColisBatchResponse.ItemResult::getStatus).toList());
+        assertEquals("trans1", response.getResults().get(0).getColis().getTransporteurId());
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+        verify(chargeLedger).apply(any(TransporteurChargeLedger.Deltas.class));
+        verify(colisRepository, never()).save(any());
+    }
+    
+    @Test
+    void assignColis_WhenColisChangedBeforeTheWrite_ShouldReportConflict() {
+        // Arrange
+        BatchAssignRequest request = new BatchAssignRequest(List.of(new BatchAssignRequest.Item("c1", "trans1")));
+        when(colisRepository.findAllById(List.of("c1"))).thenReturn(List.of(fragile));
+        when(userRepository.findAllById(List.of("trans1"))).thenReturn(List.of(transporteur));
+        when(chargeLedger.reserve("trans1", 0.0, 1)).thenReturn(true);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class)).thenReturn(bulkOperations);
+        // The version filter matched nothing, so no colis carries the marker
+        when(mongoTemplate.find(any(Query.class), eq(Colis.class))).thenReturn(List.of());
+        
+        // Act
+        ColisBatchResponse response = colisBatchService.assignColis(request);
+        
+        // Assert
+        assertEquals(0, response.getSucceeded());
+        assertEquals(409, response.getResults().get(0).getStatus());
+    }
+    
+    @Test
+    void updateStatut_WithFinalStatutItem_ShouldRejectItAndRecordOnlyApplied() {
+        // Arrange
+        BatchStatutRequest request = new BatchStatutRequest(List.of(
+                new BatchStatutRequest.Item("c1", StatutColis.EN_TRANSIT),
+                new BatchStatutRequest.Item("c2", StatutColis.EN_ATTENTE)));
+        when(colisRepository.findAllById(List.of("c1", "c2"))).thenReturn(List.of(fragile, frigo));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class)).thenReturn(bulkOperations);
+        Colis written = new Colis();
+        written.setId("c1");
+        when(mongoTemplate.find(any(Query.class), eq(Colis.class))).thenReturn(List.of(written));
+        
+        // Act
+        ColisBatchResponse response = colisBatchService.updateStatut(transporteur, request);
+        
+        // Assert
+        assertEquals(List.of(200, 409), response.getResults().stream().map(ColisBatchResponse.ItemResult::getStatus).toList());
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(eventRecorder).record("c1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, transporteur);
+        verifyNoMoreInteractions(eventRecorder);
+    }
+    
+    @Test
+    void getColis_WithMissingId_ShouldReturnNotFoundForThatItem() {
+        // Arrange
+        when(colisRepository.findAllById(List.of("c1", "missing"))).thenReturn(List.of(fragile));
+        
+        // Act
+        ColisBatchResponse response = colisBatchService.getColis(new BatchIdsRequest(List.of("c1", "missing")));
+        
+        // Assert
+        assertEquals(200, response.getResults().get(0).getStatus());
+        assertEquals(404, response.getResults().get(1).getStatus());
+        verifyNoInteractions(mongoTemplate);
+    }
+    
+    @Test
+    void deleteColis_AboveMaxSize_ShouldThrowBusinessException() {
+        BatchIdsRequest request = new BatchIdsRequest(Collections.nCopies(4, "c1"));
+        
+        assertThrows(BusinessException.class, () -> colisBatchService.deleteColis(request));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
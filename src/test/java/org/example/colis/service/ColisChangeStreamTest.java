@@ -0,0 +1,92 @@
+package org.example.colis.service;
+
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisChangeStreamTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private ColisMapper colisMapper;
+    
+    @Mock
+    private ColisUpdateHub hub;
+    
+    @Mock
+    private MongoCollection<Document> collection;
+    
+    @Mock(answer = Answers.RETURNS_SELF)
+    private ChangeStreamIterable<Document> stream;
+    
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    
+    @Mock
+    private MongoConverter converter;
+    
+    @InjectMocks
+    private ColisChangeStream changeStream;
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        changeStream.stop();
+    }
+    
+    @Test
+    void read_ShouldKeepPublishingAfterAChangeFailsToPublish() {
+        // Arrange
+        when(mongoTemplate.getCollectionName(Colis.class)).thenReturn("colis");
+        when(mongoTemplate.getCollection("colis")).thenReturn(collection);
+        when(collection.watch(anyList())).thenReturn(stream);
+        when(stream.cursor()).thenReturn(cursor);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(eq(Colis.class), any(Document.class))).thenReturn(new Colis());
+        ChangeStreamDocument<Document> failing = change("c1", "token1");
+        ChangeStreamDocument<Document> next = change("c2", "token2");
+        when(cursor.tryNext()).thenReturn(failing, next, null);
+        doThrow(new IllegalStateException("boom")).doNothing().when(hub).publish(any());
+        ReflectionTestUtils.setField(changeStream, "enabled", true);
+        
+        // Act
+        changeStream.start();
+        
+        // Assert
+        verify(hub, timeout(5000).times(2)).publish(any());
+    }
+    
+    private static ChangeStreamDocument<Document> change(String colisId, String token) {
+        @SuppressWarnings("unchecked")
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getFullDocument()).thenReturn(new Document("_id", colisId).append("transporteurId", "t1"));
+        when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString(colisId)));
+        when(change.getOperationTypeString()).thenReturn("update");
+        when(change.getResumeToken()).thenReturn(new BsonDocument("_data", new BsonString(token)));
+        return change;
+    }
+}
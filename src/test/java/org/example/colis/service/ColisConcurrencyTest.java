@@ -0,0 +1,126 @@
+package org.example.colis.service;
+
+import org.example.colis.dto.AssignColisRequest;
+import org.example.colis.dto.UpdateColisRequest;
+import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.example.colis.repository.ColisRepository;
+import org.example.colis.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs an admin statut change, a poids edit and an assignment on the same colis at the same
+ * instant, many times over, and checks that every write survives. With the former
+ * findById + save flow each call rewrote the whole document and the last one erased the others.
+ */
+@SpringBootTest
+class ColisConcurrencyTest {
+    
+    private static final int ROUNDS = 200;
+    
+    @Autowired
+    private ColisService colisService;
+    
+    @Autowired
+    private ColisRepository colisRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private Colis colis;
+    private User transporteur;
+    private User admin;
+    
+    @BeforeEach
+    void setUp() {
+        Colis newColis = new Colis();
+        newColis.setType(TypeColis.FRAGILE);
+        newColis.setPoids(1.0);
+        newColis.setAdresseDestination("1 Rue de la Concurrence");
+        newColis.setInstructionsManutention("Fragile");
+        colis = colisRepository.save(newColis);
+        
+        User newTransporteur = new User();
+        newTransporteur.setLogin("concurrency_" + System.nanoTime());
+        newTransporteur.setPassword("unused");
+        newTransporteur.setRole(Role.TRANSPORTEUR);
+        newTransporteur.setSpecialite(Specialite.FRAGILE);
+        newTransporteur.setActive(true);
+        transporteur = userRepository.save(newTransporteur);
+        
+        admin = new User();
+        admin.setRole(Role.ADMIN);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        colisRepository.deleteById(colis.getId());
+        userRepository.deleteById(transporteur.getId());
+    }
+    
+    @Test
+    void concurrentWritesOnOneColis_ShouldNotLoseUpdates() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        // Only allowed transitions, so the statut write is never refused
+        StatutColis[][] transitions = {
+                {StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT},
+                {StatutColis.EN_TRANSIT, StatutColis.LIVRE},
+                {StatutColis.EN_ATTENTE, StatutColis.ANNULE},
+                {StatutColis.EN_TRANSIT, StatutColis.EN_ATTENTE}};
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                StatutColis[] transition = transitions[round % transitions.length];
+                StatutColis statut = transition[1];
+                double poids = round + 1.0;
+                colisRepository.updateFields(colis.getId(),
+                        Map.of("transporteurId", "nobody", "statut", transition[0]), null);
+                
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> writes = List.of(
+                        pool.submit(() -> {
+                            start.await();
+                            return colisService.updateColisStatut(admin, colis.getId(), new UpdateStatutRequest(statut));
+                        }),
+                        pool.submit(() -> {
+                            start.await();
+                            UpdateColisRequest edit = new UpdateColisRequest();
+                            edit.setPoids(poids);
+                            return colisService.updateColis(colis.getId(), edit);
+                        }),
+                        pool.submit(() -> {
+                            start.await();
+                            return colisService.assignColis(colis.getId(), new AssignColisRequest(transporteur.getId()));
+                        }));
+                start.countDown();
+                for (Future<?> write : writes) {
+                    write.get();
+                }
+                
+                Colis stored = colisRepository.findById(colis.getId()).orElseThrow();
+                assertEquals(statut, stored.getStatut(), "statut lost in round " + round);
+                assertEquals(poids, stored.getPoids(), "poids lost in round " + round);
+                assertEquals(transporteur.getId(), stored.getTransporteurId(), "assignment lost in round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.colis.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.example.colis.dto.CounterReconciliationReport;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.model.Colis;
+import org.example.colis.model.ColisCounter;
+import org.example.colis.model.JobLease;
+import org.example.colis.repository.ColisFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisCountersTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    private ColisCounters colisCounters;
+    
+    @BeforeEach
+    void setUp() {
+        colisCounters = new ColisCounters(mongoTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(10));
+    }
+    
+    @Test
+    void record_ShouldMoveColisBetweenCountersAndGlobalTotals() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisCounter.class)).thenReturn(bulkOperations);
+        Colis created = colis(null, StatutColis.EN_ATTENTE);
+        Colis assigned = colis("t1", StatutColis.EN_ATTENTE);
+        Colis inTransit = colis("t1", StatutColis.EN_TRANSIT);
+        
+        // Act
+        colisCounters.record(null, created);
+        colisCounters.record(created, assigned);
+        colisCounters.record(assigned, inTransit);
+        
+        // Assert
+        assertEquals(OptionalLong.of(1), colisCounters.count(new ColisFilter("t1", null, null)));
+        assertEquals(OptionalLong.of(1), colisCounters.count(new ColisFilter(null, TypeColis.FRAGILE, null)));
+        assertEquals(OptionalLong.of(0), colisCounters.count(new ColisFilter(null, TypeColis.FRAGILE, StatutColis.EN_ATTENTE)));
+        assertEquals(1L, colisCounters.byStatutAndType(null).get(StatutColis.EN_TRANSIT).get(TypeColis.FRAGILE));
+        // Created (transporteur and global), assigned (2 transporteur keys), in transit (2 transporteur + 2 global keys)
+        verify(bulkOperations, times(8)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(3)).execute();
+    }
+    
+    @Test
+    void record_ShouldNotWriteWhenTypeStatutAndTransporteurAreUnchanged() {
+        // Arrange
+        Colis before = colis("t1", StatutColis.EN_ATTENTE);
+        Colis after = colis("t1", StatutColis.EN_ATTENTE);
+        after.setPoids(12.0);
+        
+        // Act
+        colisCounters.record(before, after);
+        
+        // Assert
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ColisCounter.class));
+    }
+    
+    @Test
+    void count_ShouldBeEmptyForFiltersTheCountersCannotAnswer() {
+        // Arrange
+        ColisFilter filter = new ColisFilter("t1", null, null);
+        filter.setCodePostal("75001");
+        
+        // Act
+        OptionalLong count = colisCounters.count(filter);
+        
+        // Assert
+        assertTrue(count.isEmpty());
+    }
+    
+    @Test
+    void reconcile_ShouldCorrectOnlyDriftedCounters() {
+        // Arrange
+        Document row = new Document("_id", new Document("transporteurId", "t1").append("type", "FRAGILE")
+                .append("statut", "EN_ATTENTE")).append("count", 3);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+        List<ColisCounter> stored = List.of(
+                new ColisCounter("t1:FRAGILE:EN_ATTENTE", "t1", TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 2),
+                new ColisCounter("*:FRAGILE:EN_ATTENTE", ColisCounters.ALL, TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 3));
+        List<ColisCounter> corrected = List.of(
+                new ColisCounter("t1:FRAGILE:EN_ATTENTE", "t1", TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 3),
+                new ColisCounter("*:FRAGILE:EN_ATTENTE", ColisCounters.ALL, TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 3));
+        when(mongoTemplate.findAll(ColisCounter.class)).thenReturn(stored, stored, corrected);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisCounter.class)).thenReturn(bulkOperations);
+        
+        // Act
+        CounterReconciliationReport report = colisCounters.reconcile();
+        
+        // Assert
+        assertEquals(2, report.getCounters());
+        assertEquals(1, report.getDrifted());
+        assertEquals(List.of("t1:FRAGILE:EN_ATTENTE: expected 3, was 2"), report.getDrift());
+        verify(bulkOperations, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+        assertEquals(OptionalLong.of(3), colisCounters.count(new ColisFilter("t1", null, null)));
+    }
+    
+    @Test
+    void reconcile_ShouldIncByTheDifferenceAndLeaveCountersWrittenMeanwhile() {
+        // Arrange
+        Document row = new Document("_id", new Document("transporteurId", "t1").append("type", "FRAGILE")
+                .append("statut", "EN_ATTENTE")).append("count", 3);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+        ColisCounter drifted = new ColisCounter("t1:FRAGILE:EN_ATTENTE", "t1", TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 1);
+        // The global total moved from 1 to 2 while the colis were being counted
+        List<ColisCounter> before = List.of(drifted,
+                new ColisCounter("*:FRAGILE:EN_ATTENTE", ColisCounters.ALL, TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 1));
+        List<ColisCounter> after = List.of(drifted,
+                new ColisCounter("*:FRAGILE:EN_ATTENTE", ColisCounters.ALL, TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 2));
+        when(mongoTemplate.findAll(ColisCounter.class)).thenReturn(before, after, after);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisCounter.class)).thenReturn(bulkOperations);
+        
+        // Act
+        CounterReconciliationReport report = colisCounters.reconcile();
+        
+        // Assert
+        assertEquals(1, report.getDrifted());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(eq(Query.query(Criteria.where("_id").is("t1:FRAGILE:EN_ATTENTE"))), update.capture());
+        assertEquals(new Document("count", 2L), update.getValue().getUpdateObject().get("$inc"));
+        assertNull(update.getValue().getUpdateObject().get("$set"));
+    }
+    
+    @Test
+    void reconcile_WhenAnotherInstanceHoldsTheLease_ShouldThrowConflictException() {
+        // Arrange
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(JobLease.class)))
+                .thenThrow(new DuplicateKeyException("lease held"));
+        
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> colisCounters.reconcile());
+        
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(JobLease.class));
+    }
+    
+    @Test
+    void refresh_ShouldWaitForALocalWriteInProgress() throws Exception {
+        // Arrange
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisCounter.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            writing.countDown();
+            written.await();
+            return null;
+        });
+        // What the refresh reads already contains the local write
+        when(mongoTemplate.findAll(ColisCounter.class)).thenReturn(List.of(
+                new ColisCounter("t1:FRAGILE:EN_ATTENTE", "t1", TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 1),
+                new ColisCounter("*:FRAGILE:EN_ATTENTE", ColisCounters.ALL, TypeColis.FRAGILE, StatutColis.EN_ATTENTE, 1)));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        
+        try {
+            // Act
+            Future<?> write = executor.submit(() -> colisCounters.record(null, colis("t1", StatutColis.EN_ATTENTE)));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<?> refresh = executor.submit(colisCounters::refresh);
+            assertThrows(TimeoutException.class, () -> refresh.get(200, TimeUnit.MILLISECONDS));
+            written.countDown();
+            write.get(5, TimeUnit.SECONDS);
+            refresh.get(5, TimeUnit.SECONDS);
+            
+            // Assert
+            assertEquals(OptionalLong.of(1), colisCounters.count(new ColisFilter("t1", null, null)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static Colis colis(String transporteurId, StatutColis statut) {
+        Colis colis = new Colis();
+        colis.setId("c1");
+        colis.setType(TypeColis.FRAGILE);
+        colis.setStatut(statut);
+        colis.setTransporteurId(transporteurId);
+        colis.setPoids(5.0);
+        return colis;
+    }
+}
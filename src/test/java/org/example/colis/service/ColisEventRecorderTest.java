@@ -0,0 +1,155 @@
+package org.example.colis.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.model.ColisEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisEventRecorderTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @InjectMocks
+    private ColisEventRecorder eventRecorder;
+    
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(eventRecorder, "batchSize", 100);
+        ReflectionTestUtils.setField(eventRecorder, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(eventRecorder, "retryAttempts", 3);
+    }
+    
+    @Test
+    void record_ShouldInsertEveryEventInBoundedBatches() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(eventRecorder, "queueCapacity", 1000);
+        stubBulkInsert();
+        eventRecorder.start();
+        
+        // Act
+        for (int i = 0; i < 250; i++) {
+            eventRecorder.record("c" + i, StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, null);
+        }
+        eventRecorder.stop();
+        
+        // Assert
+        assertEquals(250, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 100));
+        verify(mongoTemplate, never()).insert(any(ColisEvent.class));
+    }
+    
+    @Test
+    void record_WithFullQueue_ShouldInsertOnTheCallerThread() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(eventRecorder, "queueCapacity", 1);
+        stubBulkInsert();
+        eventRecorder.start();
+        // With the writer stopped the single slot stays taken after the first event
+        eventRecorder.stop();
+        
+        // Act
+        eventRecorder.record("c1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, null);
+        eventRecorder.record("c2", StatutColis.EN_TRANSIT, StatutColis.LIVRE, null);
+        
+        // Assert
+        verify(mongoTemplate).insert(any(ColisEvent.class));
+    }
+    
+    @Test
+    void record_WhenABatchFails_ShouldRetryTheSameEvents() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(eventRecorder, "queueCapacity", 1000);
+        List<List<String>> attempts = new CopyOnWriteArrayList<>();
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisEvent.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            List<ColisEvent> batch = invocation.getArgument(0);
+            attempts.add(batch.stream().map(ColisEvent::getId).toList());
+            return bulkOperations;
+        });
+        when(bulkOperations.execute())
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+                .thenReturn(null);
+        eventRecorder.start();
+        
+        // Act
+        eventRecorder.record("c1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, null);
+        eventRecorder.stop();
+        
+        // Assert
+        assertEquals(2, attempts.size());
+        assertNotNull(attempts.get(0).get(0));
+        assertEquals(attempts.get(0), attempts.get(1));
+    }
+    
+    @Test
+    void record_WhenARetryOnlyHitsEventsAlreadyWritten_ShouldStopRetrying() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(eventRecorder, "queueCapacity", 1000);
+        stubBulkInsert();
+        MongoBulkWriteException duplicates = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)), null, new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("duplicate key", duplicates));
+        eventRecorder.start();
+        
+        // Act
+        eventRecorder.record("c1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, null);
+        eventRecorder.stop();
+        
+        // Assert
+        verify(bulkOperations, times(1)).execute();
+    }
+    
+    @Test
+    void record_WhenABatchKeepsFailing_ShouldGiveUpAfterTheLastAttempt() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(eventRecorder, "queueCapacity", 1000);
+        stubBulkInsert();
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("no primary"));
+        eventRecorder.start();
+        
+        // Act
+        eventRecorder.record("c1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, null);
+        eventRecorder.stop();
+        
+        // Assert
+        verify(bulkOperations, times(3)).execute();
+    }
+    
+    private void stubBulkInsert() {
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisEvent.class)).thenReturn(bulkOperations);
+        lenient().when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(((List<?>) invocation.getArgument(0)).size());
+            return bulkOperations;
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.colis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.colis.enums.ColisFileFormat;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.repository.ColisFilter;
+import org.example.colis.repository.ColisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisExportServiceTest {
+    
+    @Mock
+    private ColisRepository colisRepository;
+    
+    @Spy
+    private ColisMapper colisMapper = new ColisMapper();
+    
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    
+    @InjectMocks
+    private ColisExportService colisExportService;
+    
+    private ColisFilter filter;
+    private Colis colis;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(colisExportService, "batchSize", 1);
+        filter = new ColisFilter(null, TypeColis.FRAGILE, null);
+        
+        colis = new Colis();
+        colis.setId("1");
+        colis.setType(TypeColis.FRAGILE);
+        colis.setPoids(5.0);
+        colis.setAdresseDestination("12 Rue \"Haute\", Lyon");
+        colis.setStatut(StatutColis.EN_ATTENTE);
+    }
+    
+    @Test
+    void export_AsNdjson_ShouldWriteOneObjectPerLine() throws IOException {
+        // Arrange
+        when(colisRepository.streamMatching(filter, Sort.unsorted(), 1)).thenReturn(Stream.of(colis, colis, colis));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        colisExportService.export(filter, Sort.unsorted(), ColisFileFormat.NDJSON).writeTo(out);
+        
+        // Assert
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("}\n"));
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{"), line);
+            assertEquals("1", objectMapper.readTree(line).get("id").asText());
+        }
+    }
+    
+    @Test
+    void export_AsNdjson_ShouldFlushOncePerBatch() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(colisExportService, "batchSize", 2);
+        when(colisRepository.streamMatching(filter, Sort.unsorted(), 2)).thenReturn(Stream.of(colis, colis, colis, colis, colis));
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        
+        // Act
+        colisExportService.export(filter, Sort.unsorted(), ColisFileFormat.NDJSON).writeTo(out);
+        
+        // Assert: after rows 2 and 4, and when the writer closes
+        assertEquals(3, flushes.get());
+    }
+    
+    @Test
+    void export_AsCsv_ShouldQuoteValuesWithSeparators() throws IOException {
+        // Arrange
+        when(colisRepository.streamMatching(filter, Sort.unsorted(), 1)).thenReturn(Stream.of(colis));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        colisExportService.export(filter, Sort.unsorted(), ColisFileFormat.CSV).writeTo(out);
+        
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,type,poids"));
+        assertEquals("1,FRAGILE,5.0,\"12 Rue \"\"Haute\"\", Lyon\",EN_ATTENTE,,,,,", lines[1]);
+    }
+    
+    @Test
+    void export_WhenClientDisconnects_ShouldStopAndCloseCursor() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Colis> cursor = Stream.generate(() -> colis).onClose(() -> closed.set(true));
+        when(colisRepository.streamMatching(filter, Sort.unsorted(), 1)).thenReturn(cursor);
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        
+        // Act
+        colisExportService.export(filter, Sort.unsorted(), ColisFileFormat.NDJSON).writeTo(brokenPipe);
+        
+        // Assert
+        assertTrue(closed.get());
+    }
+}
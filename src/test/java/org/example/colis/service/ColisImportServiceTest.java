@@ -0,0 +1,126 @@
+package org.example.colis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.example.colis.dto.ColisImportReport;
+import org.example.colis.enums.ColisFileFormat;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.mapper.ColisMapper;
+import org.example.colis.model.Colis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisImportServiceTest {
+    
+    @Spy
+    private ColisService colisService = new ColisService();
+    
+    @Spy
+    private ColisMapper colisMapper = new ColisMapper();
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @Mock
+    private ColisCounters colisCounters;
+    
+    @InjectMocks
+    private ColisImportService colisImportService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(colisImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(colisImportService, "maxErrors", 10);
+    }
+    
+    @Test
+    void importColis_FromCsv_ShouldInsertValidLinesAndReportInvalidOnes() throws IOException {
+        // Arrange
+        String csv = """
+                type,poids,adresseDestination,instructionsManutention,temperatureMin,temperatureMax
+                STANDARD,2.5,"12 Rue Haute, Lyon",,,
+                FRIGO,4.0,5 Rue Basse,,,
+                FRAGILE,-1,1 Place Bellecour,Verre,,
+                FRAGILE,1.0,1 Place Bellecour,Verre,,
+                """;
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Colis.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        
+        // Act
+        ColisImportReport report = colisImportService.importColis(stream(csv), ColisFileFormat.CSV);
+        
+        // Assert
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getInserted());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(3L, 4L), report.getErrors().stream().map(ColisImportReport.LineError::getLine).toList());
+        assertEquals("Temperature min and max are required for FRIGO colis", report.getErrors().get(0).getMessage());
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Colis>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(2)).insert(inserted.capture());
+        assertEquals("12 Rue Haute, Lyon", inserted.getAllValues().get(0).get(0).getAdresseDestination());
+        assertEquals(TypeColis.FRAGILE, inserted.getAllValues().get(1).get(0).getType());
+    }
+    
+    @Test
+    void importColis_FromNdjsonWithOnlyInvalidLines_ShouldNotWrite() throws IOException {
+        // Arrange
+        String ndjson = """
+                {"type":"STANDARD","poids":1.0}
+                not json
+                """;
+        
+        // Act
+        ColisImportReport report = colisImportService.importColis(stream(ndjson), ColisFileFormat.NDJSON);
+        
+        // Assert
+        assertEquals(0, report.getInserted());
+        assertEquals(2, report.getFailed());
+        verify(bulkOperations, never()).insert(anyList());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+    
+    @Test
+    void importColis_CsvWithoutRequiredColumns_ShouldThrowBusinessException() {
+        assertThrows(BusinessException.class,
+                () -> colisImportService.importColis(stream("type,poids\nSTANDARD,1.0\n"), ColisFileFormat.CSV));
+    }
+    
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
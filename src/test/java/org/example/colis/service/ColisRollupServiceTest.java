@@ -0,0 +1,175 @@
+package org.example.colis.service;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.example.colis.dto.ThroughputBucketDTO;
+import org.example.colis.enums.RollupGranularity;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.model.Colis;
+import org.example.colis.model.ColisRollup;
+import org.example.colis.model.RollupWatermark;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColisRollupServiceTest {
+    
+    private static final Instant TEN = Instant.parse("2026-10-17T10:00:00Z");
+    private static final Instant ELEVEN = Instant.parse("2026-10-17T11:00:00Z");
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    private ColisRollupService rollupService;
+    
+    @BeforeEach
+    void setUp() {
+        rollupService = new ColisRollupService(mongoTemplate, true, Duration.ofMinutes(1));
+    }
+    
+    @Test
+    void rollUp_ShouldCountOnlyTheMilestonesOfTheWindow() {
+        // Arrange
+        Colis delivered = colis("c1", "t1", TEN.minusSeconds(600));
+        delivered.setStatut(StatutColis.LIVRE);
+        delivered.setDeliveredAt(TEN.plusSeconds(1800));
+        Colis created = colis("c2", null, TEN.plusSeconds(900));
+        created.setStatut(StatutColis.ANNULE);
+        created.setCancelledAt(ELEVEN.plusSeconds(300));
+        when(mongoTemplate.findById(ColisRollupService.WATERMARK_ID, RollupWatermark.class))
+                .thenReturn(new RollupWatermark(ColisRollupService.WATERMARK_ID, TEN));
+        when(mongoTemplate.stream(any(Query.class), eq(Colis.class))).thenReturn(Stream.of(delivered, created));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RollupWatermark.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ColisRollup.class)).thenReturn(bulkOperations);
+        
+        // Act
+        long read = rollupService.rollUp(ELEVEN);
+        
+        // Assert
+        assertEquals(2, read);
+        // Both colis are in the same hour and day for all transporteurs
+        Map<String, Document> increments = captureIncrements(6);
+        assertEquals(1L, increments.get("HOUR:2026-10-17T10:00:00Z:STANDARD:t1").getLong("delivered"));
+        assertEquals(1L, increments.get("DAY:2026-10-17T00:00:00Z:STANDARD:*").getLong("delivered"));
+        assertEquals(0L, increments.get("HOUR:2026-10-17T10:00:00Z:STANDARD:t1").getLong("created"));
+        assertEquals(1L, increments.get("HOUR:2026-10-17T10:00:00Z:STANDARD:").getLong("created"));
+        assertEquals(new Document("created", 1L).append("inTransit", 0L).append("delivered", 1L).append("cancelled", 0L),
+                increments.get("HOUR:2026-10-17T10:00:00Z:STANDARD:*"));
+        verify(bulkOperations).execute();
+    }
+    
+    @Test
+    void rollUp_ShouldNotWriteWhenAnotherInstanceMovedTheWatermark() {
+        // Arrange
+        Colis created = colis("c1", null, TEN.plusSeconds(60));
+        when(mongoTemplate.findById(ColisRollupService.WATERMARK_ID, RollupWatermark.class))
+                .thenReturn(new RollupWatermark(ColisRollupService.WATERMARK_ID, TEN));
+        when(mongoTemplate.stream(any(Query.class), eq(Colis.class))).thenReturn(Stream.of(created));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RollupWatermark.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        
+        // Act
+        long read = rollupService.rollUp(ELEVEN);
+        
+        // Assert
+        assertEquals(-1, read);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ColisRollup.class));
+    }
+    
+    @Test
+    void rollUp_ShouldEndTheWindowOnTheMillisecondTheWatermarkCanStore() {
+        // Arrange
+        Instant lastMillisecond = ELEVEN.minusMillis(1);
+        Colis created = colis("c1", null, lastMillisecond);
+        when(mongoTemplate.findById(ColisRollupService.WATERMARK_ID, RollupWatermark.class))
+                .thenReturn(new RollupWatermark(ColisRollupService.WATERMARK_ID, TEN));
+        when(mongoTemplate.stream(any(Query.class), eq(Colis.class))).thenReturn(Stream.of(created));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RollupWatermark.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        // Act
+        rollupService.rollUp(lastMillisecond.plusNanos(500_000));
+        
+        // Assert
+        // The colis is left to the next run, whose window starts at the stored watermark
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ColisRollup.class));
+        ArgumentCaptor<Update> claim = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), claim.capture(), eq(RollupWatermark.class));
+        assertEquals(lastMillisecond, claim.getValue().getUpdateObject().get("$set", Document.class).get("processedUpTo"));
+    }
+    
+    @Test
+    void getThroughput_ShouldFillEveryBucketAndSumTheTypes() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(ColisRollup.class))).thenReturn(List.of(
+                new ColisRollup("a", RollupGranularity.HOUR, ELEVEN, TypeColis.FRAGILE, "*", 1, 0, 2, 0),
+                new ColisRollup("b", RollupGranularity.HOUR, ELEVEN, TypeColis.STANDARD, "*", 0, 4, 3, 1)));
+        
+        // Act
+        List<ThroughputBucketDTO> buckets = rollupService.getThroughput(RollupGranularity.HOUR,
+                TEN.plusSeconds(1800), ELEVEN.plusSeconds(7200), null, null);
+        
+        // Assert
+        assertEquals(List.of(TEN, ELEVEN, ELEVEN.plusSeconds(3600)),
+                buckets.stream().map(ThroughputBucketDTO::getBucket).toList());
+        assertEquals(new ThroughputBucketDTO(ELEVEN, 1, 4, 5, 1), buckets.get(1));
+        assertEquals(new ThroughputBucketDTO(TEN, 0, 0, 0, 0), buckets.get(0));
+    }
+    
+    @Test
+    void getThroughput_ShouldRejectTooManyBuckets() {
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> rollupService.getThroughput(RollupGranularity.HOUR,
+                TEN, TEN.plus(Duration.ofDays(100)), null, null));
+        verifyNoInteractions(mongoTemplate);
+    }
+    
+    // $inc of every upserted rollup, by _id
+    private Map<String, Document> captureIncrements(int expected) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(expected)).upsert(queries.capture(), updates.capture());
+        Map<String, Document> increments = new HashMap<>();
+        for (int i = 0; i < expected; i++) {
+            increments.put(queries.getAllValues().get(i).getQueryObject().getString("_id"),
+                    updates.getAllValues().get(i).getUpdateObject().get("$inc", Document.class));
+        }
+        return increments;
+    }
+    
+    private static Colis colis(String id, String transporteurId, Instant createdAt) {
+        Colis colis = new Colis();
+        colis.setId(id);
+        colis.setType(TypeColis.STANDARD);
+        colis.setTransporteurId(transporteurId);
+        colis.setCreatedAt(createdAt);
+        colis.setUpdatedAt(createdAt);
+        return colis;
+    }
+}
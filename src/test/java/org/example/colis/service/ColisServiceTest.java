@@ -2,25 +2,41 @@ package org.example.colis.service;
 
 import org.example.colis.dto.AssignColisRequest;
 import org.example.colis.dto.ColisDTO;
+import org.example.colis.dto.ColisSummaryDTO;
 import org.example.colis.dto.CreateColisRequest;
+import org.example.colis.dto.PageResponse;
+import org.example.colis.dto.UpdateColisRequest;
+import org.example.colis.dto.UpdateStatutRequest;
+import org.example.colis.enums.CountMode;
 import org.example.colis.enums.Role;
 import org.example.colis.enums.Specialite;
 import org.example.colis.enums.StatutColis;
 import org.example.colis.enums.TypeColis;
 import org.example.colis.exception.BusinessException;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.exception.PreconditionFailedException;
 import org.example.colis.exception.ResourceNotFoundException;
+import org.example.colis.exception.UnauthorizedException;
 import org.example.colis.mapper.ColisMapper;
 import org.example.colis.model.Colis;
 import org.example.colis.model.User;
+import org.example.colis.repository.ColisChange;
+import org.example.colis.repository.ColisFilter;
 import org.example.colis.repository.ColisRepository;
 import org.example.colis.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,6 +55,18 @@ class ColisServiceTest {
     @Mock
     private ColisMapper colisMapper;
     
+    @Mock
+    private ColisCountCache colisCountCache;
+    
+    @Mock
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Mock
+    private ColisEventRecorder eventRecorder;
+    
+    @Mock
+    private ColisCounters colisCounters;
+    
     @InjectMocks
     private ColisService colisService;
     
@@ -133,19 +161,66 @@ class ColisServiceTest {
     void assignColis_WithMatchingSpecialite_ShouldAssignColis() {
         // Arrange
         AssignColisRequest request = new AssignColisRequest("trans1");
-        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        Colis assigned = new Colis();
+        assigned.setId("1");
+        assigned.setTransporteurId("trans1");
+        colis.setVersion(2L);
         when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
-        when(colisRepository.save(colis)).thenReturn(colis);
-        when(colisMapper.toDTO(colis)).thenReturn(colisDTO);
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        when(chargeLedger.reserve("trans1", 5.0, 1)).thenReturn(true);
+        when(colisRepository.assignTransporteur("1", "trans1", TypeColis.FRAGILE, 2L)).thenReturn(new ColisChange(colis, assigned));
+        when(colisMapper.toDTO(assigned)).thenReturn(colisDTO);
         
         // Act
         ColisDTO result = colisService.assignColis("1", request);
         
         // Assert
         assertNotNull(result);
-        verify(colisRepository).findById("1");
         verify(userRepository).findById("trans1");
-        verify(colisRepository).save(colis);
+        verify(colisRepository).assignTransporteur("1", "trans1", TypeColis.FRAGILE, 2L);
+        verify(chargeLedger).apply(any(TransporteurChargeLedger.Deltas.class));
+        verify(colisRepository, never()).save(any());
+    }
+    
+    @Test
+    void assignColis_WhenAConcurrentAssignmentWinsAfterReserve_ShouldReleaseTheReservation() {
+        // Arrange
+        AssignColisRequest request = new AssignColisRequest("trans1");
+        colis.setVersion(2L);
+        Colis reassigned = new Colis();
+        reassigned.setId("1");
+        reassigned.setType(TypeColis.FRAGILE);
+        reassigned.setPoids(5.0);
+        reassigned.setTransporteurId("trans2");
+        reassigned.setVersion(3L);
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis), Optional.of(reassigned));
+        when(chargeLedger.reserve("trans1", 5.0, 1)).thenReturn(true);
+        when(colisRepository.assignTransporteur("1", "trans1", TypeColis.FRAGILE, 2L)).thenReturn(null);
+        
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> colisService.assignColis("1", request));
+        
+        ArgumentCaptor<TransporteurChargeLedger.Deltas> released = ArgumentCaptor.forClass(TransporteurChargeLedger.Deltas.class);
+        verify(chargeLedger).apply(released.capture());
+        assertEquals(-5.0, released.getValue().poids("trans1"));
+        assertEquals(-1, released.getValue().count("trans1"));
+        verify(colisCounters, never()).record(any(), any());
+    }
+    
+    @Test
+    void assignColis_WithFullVehicle_ShouldThrowBusinessException() {
+        // Arrange
+        AssignColisRequest request = new AssignColisRequest("trans1");
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        when(chargeLedger.reserve("trans1", 5.0, 1)).thenReturn(false);
+        
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> colisService.assignColis("1", request));
+        
+        assertTrue(exception.getMessage().contains("no capacity left"));
+        verify(colisRepository, never()).assignTransporteur(any(), any(), any(), any());
     }
     
     @Test
@@ -154,12 +229,14 @@ class ColisServiceTest {
         AssignColisRequest request = new AssignColisRequest("trans1");
         transporteur.setSpecialite(Specialite.STANDARD); // Mismatch with FRAGILE colis
         
-        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
         when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
         
         // Act & Assert
-        assertThrows(BusinessException.class, () -> colisService.assignColis("1", request));
+        BusinessException exception = assertThrows(BusinessException.class, () -> colisService.assignColis("1", request));
         
+        assertTrue(exception.getMessage().contains("does not match colis type"));
+        verify(colisRepository, never()).assignTransporteur(any(), any(), any(), any());
         verify(colisRepository, never()).save(any());
     }
     
@@ -167,13 +244,13 @@ class ColisServiceTest {
     void assignColis_WithNonExistentColis_ShouldThrowResourceNotFoundException() {
         // Arrange
         AssignColisRequest request = new AssignColisRequest("trans1");
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
         when(colisRepository.findById("999")).thenReturn(Optional.empty());
         
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> colisService.assignColis("999", request));
         
         verify(colisRepository).findById("999");
-        verify(userRepository, never()).findById(any());
     }
     
     @Test
@@ -184,37 +261,196 @@ class ColisServiceTest {
         admin.setId("admin1");
         admin.setRole(Role.ADMIN);
         
-        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
         when(userRepository.findById("admin1")).thenReturn(Optional.of(admin));
         
         // Act & Assert
         assertThrows(BusinessException.class, () -> colisService.assignColis("1", request));
         
+        verify(colisRepository, never()).assignTransporteur(any(), any(), any(), any());
         verify(colisRepository, never()).save(any());
     }
     
     @Test
     void deleteColis_WithExistingColis_ShouldDeleteColis() {
         // Arrange
-        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        when(colisRepository.deleteIfPresent("1")).thenReturn(new ColisChange(colis, null));
         
         // Act
         colisService.deleteColis("1");
         
         // Assert
-        verify(colisRepository).findById("1");
-        verify(colisRepository).delete(colis);
+        verify(colisRepository).deleteIfPresent("1");
+        verify(chargeLedger).record(colis, null);
+        verify(colisRepository, never()).findById(any());
     }
     
     @Test
     void deleteColis_WithNonExistentColis_ShouldThrowResourceNotFoundException() {
         // Arrange
-        when(colisRepository.findById("999")).thenReturn(Optional.empty());
+        when(colisRepository.deleteIfPresent("999")).thenReturn(null);
         
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> colisService.deleteColis("999"));
         
-        verify(colisRepository).findById("999");
-        verify(colisRepository, never()).delete(any());
+        verify(colisRepository).deleteIfPresent("999");
+    }
+    
+    @Test
+    void updateColisStatut_ForOtherTransporteursColis_ShouldThrowUnauthorizedException() {
+        // Arrange
+        UpdateStatutRequest request = new UpdateStatutRequest(StatutColis.LIVRE);
+        colis.setTransporteurId("trans2");
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.LIVRE, null)).thenReturn(null);
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> colisService.updateColisStatut(transporteur, "1", request));
+        
+        verify(colisRepository, never()).save(any());
+    }
+    
+    @Test
+    void updateColis_WithStaleVersion_ShouldThrowPreconditionFailedException() {
+        // Arrange
+        UpdateColisRequest request = new UpdateColisRequest();
+        request.setPoids(7.0);
+        colis.setVersion(4L);
+        when(colisRepository.updateFields("1", Map.of("poids", 7.0), 3L)).thenReturn(null);
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> colisService.updateColis("1", request, 3L));
+    }
+    
+    @Test
+    void updateColisStatut_WithCurrentVersionButNoMatch_ShouldThrowConflictException() {
+        // Arrange
+        UpdateStatutRequest request = new UpdateStatutRequest(StatutColis.LIVRE);
+        colis.setTransporteurId("trans1");
+        colis.setStatut(StatutColis.EN_TRANSIT);
+        colis.setVersion(3L);
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.LIVRE, 3L)).thenReturn(null);
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        
+        // Act & Assert
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> colisService.updateColisStatut(transporteur, "1", request, 3L));
+        assertTrue(exception.getMessage().contains("modified concurrently"));
+    }
+    
+    @Test
+    void updateColisStatut_FromFinalStatut_ShouldThrowConflictException() {
+        // Arrange
+        UpdateStatutRequest request = new UpdateStatutRequest(StatutColis.EN_ATTENTE);
+        colis.setTransporteurId("trans1");
+        colis.setStatut(StatutColis.LIVRE);
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.EN_ATTENTE, null)).thenReturn(null);
+        when(colisRepository.findById("1")).thenReturn(Optional.of(colis));
+        
+        // Act & Assert
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> colisService.updateColisStatut(transporteur, "1", request));
+        assertTrue(exception.getMessage().contains("cannot go from LIVRE to EN_ATTENTE"));
+        verify(eventRecorder, never()).record(any(), any(), any(), any());
+    }
+    
+    @Test
+    void updateColisStatut_WithAllowedTransition_ShouldRecordEvent() {
+        // Arrange
+        UpdateStatutRequest request = new UpdateStatutRequest(StatutColis.EN_TRANSIT);
+        colis.setTransporteurId("trans1");
+        Colis after = new Colis();
+        after.setId("1");
+        after.setTransporteurId("trans1");
+        after.setStatut(StatutColis.EN_TRANSIT);
+        when(colisRepository.updateStatut("1", "trans1", StatutColis.EN_TRANSIT, null))
+                .thenReturn(new ColisChange(colis, after));
+        when(colisMapper.toDTO(after)).thenReturn(colisDTO);
+        
+        // Act
+        colisService.updateColisStatut(transporteur, "1", request);
+        
+        // Assert
+        verify(eventRecorder).record("1", StatutColis.EN_ATTENTE, StatutColis.EN_TRANSIT, transporteur);
+    }
+    
+    @Test
+    void getAllColisAfter_WithMoreRows_ShouldReturnNextCursor() {
+        // Arrange
+        Colis first = new Colis();
+        first.setId("65a000000000000000000001");
+        Colis second = new Colis();
+        second.setId("65a000000000000000000002");
+        transporteur.setId("trans1");
+        when(colisRepository.findAfter(new ColisFilter("trans1", null, StatutColis.EN_ATTENTE), null, 2))
+                .thenReturn(List.of(first, second));
+        when(colisMapper.toDTO(first)).thenReturn(colisDTO);
+        
+        // Act
+        PageResponse<ColisDTO> result = colisService.getAllColisAfter(transporteur, new ColisFilter(null, null, StatutColis.EN_ATTENTE), "", 1);
+        
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalElements());
+        assertEquals("65a000000000000000000001", CursorCodec.decode(result.getNextCursor()));
+    }
+    
+    @Test
+    void getAllColis_WithApproximateCount_ShouldUseCachedCountInsteadOfCountQuery() {
+        // Arrange
+        User admin = new User();
+        admin.setRole(Role.ADMIN);
+        ColisFilter filter = new ColisFilter(null, TypeColis.FRAGILE, null);
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(colisRepository.findSlice(filter, pageable)).thenReturn(new SliceImpl<>(List.of(colis), pageable, true));
+        when(colisMapper.toDTO(colis)).thenReturn(colisDTO);
+        when(colisCountCache.count(filter)).thenReturn(1_200_000L);
+        
+        // Act
+        PageResponse<ColisDTO> result = colisService.getAllColis(admin, new ColisFilter(null, TypeColis.FRAGILE, null), pageable, CountMode.APPROXIMATE);
+        
+        // Assert
+        assertEquals(1_200_000L, result.getTotalElements());
+        assertEquals(120_000, result.getTotalPages());
+        assertTrue(result.isTotalApproximate());
+        assertTrue(result.isHasNext());
+        verify(colisRepository, never()).findMatching(any(), any());
+        verify(colisRepository, never()).countMatching(any());
+    }
+    
+    @Test
+    void searchColisByAddress_AsTransporteur_ShouldScopeSearchToOwnColis() {
+        // Arrange
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(colisRepository.searchByAddress("trans1", "rue test", pageable)).thenReturn(new PageImpl<>(List.of(colis)));
+        when(colisMapper.toDTO(colis)).thenReturn(colisDTO);
+        
+        // Act
+        var result = colisService.searchColisByAddress(transporteur, "rue test", pageable);
+        
+        // Assert
+        assertEquals(1, result.getTotalElements());
+        verify(colisRepository).searchByAddress("trans1", "rue test", pageable);
+    }
+    
+    @Test
+    void getColisSummaries_ShouldReadProjectionWithoutMapper() {
+        // Arrange
+        PageRequest pageable = PageRequest.of(0, 10);
+        ColisFilter filter = new ColisFilter("trans1", null, null);
+        ColisSummaryDTO summary = new ColisSummaryDTO("1", TypeColis.STANDARD, StatutColis.EN_ATTENTE, "trans1", "123 Rue Test");
+        when(colisRepository.findSlice(filter, pageable, ColisSummaryDTO.class))
+                .thenReturn(new SliceImpl<>(List.of(summary), pageable, false));
+        when(colisRepository.countMatching(filter)).thenReturn(1L);
+        
+        // Act
+        PageResponse<ColisSummaryDTO> result = colisService.getColisSummaries(transporteur, new ColisFilter(), pageable, CountMode.EXACT);
+        
+        // Assert
+        assertEquals(List.of(summary), result.getContent());
+        assertEquals(1L, result.getTotalElements());
+        assertFalse(result.isTotalApproximate());
+        verifyNoInteractions(colisMapper);
     }
 }
@@ -0,0 +1,177 @@
+package org.example.colis.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.colis.dto.ColisUpdateEvent;
+import org.example.colis.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColisUpdateHubTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    
+    private ColisUpdateHub hub;
+    
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(emitter -> emitter.release.countDown());
+    }
+    
+    @Test
+    void publish_ShouldReachOnlyTheSubscribersOfTheTransporteur() throws InterruptedException {
+        // Arrange
+        hub = hub(true, 16);
+        hub.subscribe("trans1", null);
+        hub.subscribe("trans2", null);
+        
+        // Act
+        hub.publish(update("tok1", "trans1", "c1"));
+        
+        // Assert
+        await(() -> emitters.get(0).sent.size() == 1);
+        assertTrue(emitters.get(0).sent.get(0).contains("id:tok1"));
+        assertTrue(emitters.get(1).sent.isEmpty());
+    }
+    
+    @Test
+    void subscribe_WithKnownLastEventId_ShouldReplayMissedUpdatesOfTheTransporteur() throws InterruptedException {
+        // Arrange
+        hub = hub(true, 16);
+        hub.publish(update("tok1", "trans1", "c1"));
+        hub.publish(update("tok2", "trans2", "c2"));
+        hub.publish(update("tok3", "trans1", "c3"));
+        
+        // Act
+        hub.subscribe("trans1", "tok1");
+        
+        // Assert
+        await(() -> emitters.get(0).sent.size() == 1);
+        assertTrue(emitters.get(0).sent.get(0).contains("id:tok3"));
+    }
+    
+    @Test
+    void subscribe_WithUnknownLastEventId_ShouldSendResync() throws InterruptedException {
+        // Arrange
+        hub = hub(true, 16);
+        hub.publish(update("tok1", "trans1", "c1"));
+        
+        // Act
+        hub.subscribe("trans1", "expired");
+        
+        // Assert
+        await(() -> emitters.get(0).sent.size() == 1);
+        assertTrue(emitters.get(0).sent.get(0).contains("event:resync"));
+    }
+    
+    @Test
+    void subscribe_WhenReplayIsLargerThanTheBuffer_ShouldSendResyncAndStayRegistered() throws InterruptedException {
+        // Arrange
+        hub = hub(true, 2);
+        hub.publish(update("tok0", "trans1", "c0"));
+        hub.publish(update("tok1", "trans1", "c1"));
+        hub.publish(update("tok2", "trans1", "c2"));
+        hub.publish(update("tok3", "trans1", "c3"));
+        
+        // Act
+        hub.subscribe("trans1", "tok0");
+        hub.publish(update("tok4", "trans1", "c4"));
+        
+        // Assert
+        await(() -> emitters.get(0).sent.size() == 2);
+        assertTrue(emitters.get(0).sent.get(0).contains("event:resync"));
+        assertTrue(emitters.get(0).sent.get(1).contains("id:tok4"));
+        assertEquals(1, hub.subscriberCount());
+        assertEquals(0.0, meterRegistry.get("colis.stream.dropped").counter().count());
+    }
+    
+    @Test
+    void publish_WhenSubscriberBufferIsFull_ShouldDropIt() throws InterruptedException {
+        // Arrange
+        hub = hub(true, 1);
+        hub.subscribe("trans1", null);
+        emitters.get(0).blocked = true;
+        
+        // Act: the first update blocks the sender, the second fills the buffer, the third overflows it
+        hub.publish(update("tok1", "trans1", "c1"));
+        await(() -> emitters.get(0).sending);
+        hub.publish(update("tok2", "trans1", "c2"));
+        hub.publish(update("tok3", "trans1", "c3"));
+        
+        // Assert
+        assertEquals(0, hub.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("colis.stream.dropped").counter().count());
+    }
+    
+    @Test
+    void subscribe_WhenDisabled_ShouldThrowBusinessException() {
+        // Arrange
+        hub = hub(false, 16);
+        
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> hub.subscribe("trans1", null));
+    }
+    
+    private ColisUpdateHub hub(boolean enabled, int bufferSize) {
+        return new ColisUpdateHub(meterRegistry, enabled, bufferSize, 100, Duration.ofMinutes(1), 1) {
+            @Override
+            protected SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+    
+    private static ColisUpdateHub.Update update(String token, String transporteurId, String colisId) {
+        return new ColisUpdateHub.Update(token, Set.of(transporteurId), new ColisUpdateEvent(colisId, "update", null));
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+    
+    // Keeps the text of each event; a blocked emitter stalls in send like a client that stopped reading
+    private static final class RecordingEmitter extends SseEmitter {
+        
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        
+        private final CountDownLatch release = new CountDownLatch(1);
+        
+        private volatile boolean blocked;
+        
+        private volatile boolean sending;
+        
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending = true;
+            if (blocked) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.colis.service;
+
+import org.bson.Document;
+import org.example.colis.dto.DashboardDTO;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutColis;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.mapper.UserMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private MongoConverter mongoConverter;
+    
+    private DashboardService dashboardService;
+    
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(mongoTemplate, new UserMapper(), Duration.ofMinutes(1), 50);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+    
+    @Test
+    void getDashboard_ShouldFillEveryStatutTypeAndSpecialite() {
+        // Arrange
+        stubColis(List.of(
+                countRow(new Document("statut", "EN_ATTENTE").append("type", "FRAGILE"), 7),
+                countRow(new Document("statut", "LIVRE").append("type", "STANDARD"), 3)));
+        User busy = new User();
+        busy.setId("t1");
+        busy.setLogin("busy");
+        busy.setChargeColis(4);
+        Document workload = new Document("_id", "t1");
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.read(User.class, workload)).thenReturn(busy);
+        stubTransporteurs(new Document("available", List.of(new Document("_id", "FRIGO").append("count", 2)))
+                .append("workloads", List.of(workload)));
+        
+        // Act
+        DashboardDTO dashboard = dashboardService.getDashboardAsync().join();
+        
+        // Assert
+        assertEquals(10, dashboard.getTotalColis());
+        assertEquals(StatutColis.values().length, dashboard.getColisByStatutAndType().size());
+        assertEquals(7L, dashboard.getColisByStatutAndType().get(StatutColis.EN_ATTENTE).get(TypeColis.FRAGILE));
+        assertEquals(0L, dashboard.getColisByStatutAndType().get(StatutColis.EN_ATTENTE).get(TypeColis.FRIGO));
+        assertEquals(2L, dashboard.getAvailableTransporteursBySpecialite().get(Specialite.FRIGO));
+        assertEquals(0L, dashboard.getAvailableTransporteursBySpecialite().get(Specialite.STANDARD));
+        assertEquals(1, dashboard.getWorkloads().size());
+        assertEquals("busy", dashboard.getWorkloads().get(0).getLogin());
+        assertNotNull(dashboard.getComputedAt());
+    }
+    
+    @Test
+    void getDashboard_ConcurrentRefreshes_ShouldShareOneComputation() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new AggregationResults<>(List.of(), new Document());
+        });
+        stubTransporteurs(new Document("available", List.of()).append("workloads", List.of()));
+        
+        // Act
+        CompletableFuture<DashboardDTO> first = dashboardService.getDashboardAsync();
+        CompletableFuture<DashboardDTO> second = dashboardService.getDashboardAsync();
+        release.countDown();
+        DashboardDTO computed = first.get(5, TimeUnit.SECONDS);
+        DashboardDTO cached = dashboardService.getDashboardAsync().get(5, TimeUnit.SECONDS);
+        
+        // Assert
+        assertSame(computed, second.get(5, TimeUnit.SECONDS));
+        assertSame(computed, cached);
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class));
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(User.class), eq(Document.class));
+    }
+    
+    @Test
+    void getDashboard_AfterFailure_ShouldRecomputeOnNextCall() {
+        // Arrange
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class)))
+                .thenThrow(new IllegalStateException("mongo down"))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        stubTransporteurs(new Document("available", List.of()).append("workloads", List.of()));
+        
+        // Act & Assert
+        assertThrows(Exception.class, () -> dashboardService.getDashboardAsync().join());
+        assertEquals(0, dashboardService.getDashboardAsync().join().getTotalColis());
+    }
+    
+    private void stubColis(List<Document> rows) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Colis.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(rows, new Document()));
+    }
+    
+    private void stubTransporteurs(Document facets) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+    }
+    
+    private static Document countRow(Document id, int count) {
+        return new Document("_id", id).append("count", count);
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.colis.service;
+
+import org.bson.Document;
+import org.example.colis.enums.Role;
+import org.example.colis.enums.Specialite;
+import org.example.colis.enums.StatutWave;
+import org.example.colis.enums.TypeColis;
+import org.example.colis.exception.BusinessException;
+import org.example.colis.exception.ConflictException;
+import org.example.colis.mapper.DeliveryWaveMapper;
+import org.example.colis.model.Colis;
+import org.example.colis.model.DeliveryWave;
+import org.example.colis.model.User;
+import org.example.colis.repository.DeliveryWaveRepository;
+import org.example.colis.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryWaveServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private DeliveryWaveRepository waveRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Spy
+    private DeliveryWaveMapper waveMapper = new DeliveryWaveMapper();
+    
+    @Mock
+    private TransporteurChargeLedger chargeLedger;
+    
+    @Mock
+    private ColisCounters colisCounters;
+    
+    @InjectMocks
+    private DeliveryWaveService waveService;
+    
+    private DeliveryWave wave;
+    private User transporteur;
+    private Colis colis;
+    
+    @BeforeEach
+    void setUp() {
+        wave = new DeliveryWave();
+        wave.setId("w1");
+        wave.setType(TypeColis.FRIGO);
+        wave.setCodePostal("75002");
+        
+        transporteur = new User();
+        transporteur.setId("trans1");
+        transporteur.setLogin("trans1");
+        transporteur.setRole(Role.TRANSPORTEUR);
+        transporteur.setSpecialite(Specialite.FRIGO);
+        
+        colis = new Colis();
+        colis.setId("c1");
+        colis.setPoids(12.0);
+    }
+    
+    @Test
+    void assignWave_WithMismatchedSpecialite_ShouldThrowBusinessException() {
+        // Arrange
+        transporteur.setSpecialite(Specialite.STANDARD);
+        when(waveRepository.findById("w1")).thenReturn(Optional.of(wave));
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> waveService.assignWave("w1", "trans1"));
+        
+        assertTrue(exception.getMessage().contains("does not match wave type"));
+        verifyNoInteractions(mongoTemplate, chargeLedger);
+    }
+    
+    @Test
+    void assignWave_WithoutCapacity_ShouldNotClaimTheWave() {
+        // Arrange
+        when(waveRepository.findById("w1")).thenReturn(Optional.of(wave));
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        when(mongoTemplate.find(any(Query.class), eq(Colis.class))).thenReturn(List.of(colis));
+        when(chargeLedger.reserve("trans1", 12.0, 1)).thenReturn(false);
+        
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> waveService.assignWave("w1", "trans1"));
+        
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), eq(DeliveryWave.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Colis.class));
+    }
+    
+    @Test
+    void assignWave_ClaimedConcurrently_ShouldReleaseCapacityAndThrowConflict() {
+        // Arrange
+        when(waveRepository.findById("w1")).thenReturn(Optional.of(wave));
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        when(mongoTemplate.find(any(Query.class), eq(Colis.class))).thenReturn(List.of(colis));
+        when(chargeLedger.reserve("trans1", 12.0, 1)).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(DeliveryWave.class))).thenReturn(null);
+        
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> waveService.assignWave("w1", "trans1"));
+        
+        verify(chargeLedger).apply(any(TransporteurChargeLedger.Deltas.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Colis.class));
+    }
+    
+    @Test
+    void assignWave_WhenNoColisIsLeftToAssign_ShouldReopenTheWaveAndThrowConflict() {
+        // Arrange
+        when(waveRepository.findById("w1")).thenReturn(Optional.of(wave));
+        when(userRepository.findById("trans1")).thenReturn(Optional.of(transporteur));
+        // The colis read as waiting was assigned elsewhere before the wave write
+        when(mongoTemplate.find(any(Query.class), eq(Colis.class))).thenReturn(List.of(colis), List.of());
+        when(chargeLedger.reserve("trans1", 12.0, 1)).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(DeliveryWave.class))).thenReturn(wave);
+        
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> waveService.assignWave("w1", "trans1"));
+        
+        ArgumentCaptor<Update> reopen = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), reopen.capture(), eq(DeliveryWave.class));
+        assertEquals(StatutWave.OUVERTE, reopen.getValue().getUpdateObject().get("$set", Document.class).get("statut"));
+        verify(chargeLedger).apply(any(TransporteurChargeLedger.Deltas.class));
+        verify(colisCounters, never()).apply(any());
+    }
+    
+    @Test
+    void assignWave_AlreadyAssigned_ShouldThrowConflictException() {
+        // Arrange
+        wave.setStatut(StatutWave.ASSIGNEE);
+        when(waveRepository.findById("w1")).thenReturn(Optional.of(wave));
+        
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> waveService.assignWave("w1", "trans1"));
+        
+        verifyNoInteractions(userRepository, mongoTemplate);
+    }
+}
@@ -1,15 +1,20 @@
 package org.example.colis.service;
 
 import org.example.colis.dto.CreateUserRequest;
+import org.example.colis.dto.UpdateUserRequest;
 import org.example.colis.dto.UserDTO;
 import org.example.colis.enums.Role;
 import org.example.colis.enums.Specialite;
 import org.example.colis.enums.StatutTransporteur;
 import org.example.colis.exception.BusinessException;
+import org.example.colis.exception.PreconditionFailedException;
 import org.example.colis.exception.ResourceNotFoundException;
 import org.example.colis.mapper.UserMapper;
 import org.example.colis.model.User;
 import org.example.colis.repository.UserRepository;
+import org.example.colis.security.LoginAttemptTracker;
+import org.example.colis.security.PrincipalCache;
+import org.example.colis.security.TokenEpochRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +41,15 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     
+    @Mock
+    private PrincipalCache principalCache;
+    
+    @Mock
+    private TokenEpochRegistry tokenEpochRegistry;
+    
+    @Mock
+    private LoginAttemptTracker loginAttemptTracker;
+    
     @InjectMocks
     private UserService userService;
     
@@ -160,6 +174,8 @@ class UserServiceTest {
         // Assert
         verify(userRepository).findById("1");
         verify(userRepository).delete(transporteur);
+        verify(principalCache).evict("transporteur1");
+        verify(tokenEpochRegistry).revoke("1", 1L);
     }
     
     @Test
@@ -172,6 +188,7 @@ class UserServiceTest {
         
         verify(userRepository).findById("999");
         verify(userRepository, never()).delete(any());
+        verify(principalCache, never()).evict(any());
     }
     
     @Test
@@ -191,4 +208,73 @@ class UserServiceTest {
         verify(userRepository).findById("1");
         verify(userMapper).toDTO(transporteur);
     }
+    
+    @Test
+    void deactivateUser_WithOtherUser_ShouldEvictCachedPrincipal() {
+        // Arrange
+        when(userRepository.findById("1")).thenReturn(Optional.of(transporteur));
+        when(userRepository.saveExceptCharge(transporteur)).thenReturn(transporteur);
+        when(userMapper.toDTO(transporteur)).thenReturn(transporteurDTO);
+        
+        // Act
+        userService.deactivateUser("1", "admin1");
+        
+        // Assert
+        assertFalse(transporteur.getActive());
+        assertEquals(1L, transporteur.getTokenVersion());
+        verify(principalCache).evict("transporteur1");
+        verify(tokenEpochRegistry).advance("1", 1L);
+    }
+    
+    @Test
+    void updateUser_WithNewPassword_ShouldRevokeExistingTokens() {
+        // Arrange
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setPassword("newPassword");
+        when(userRepository.findById("1")).thenReturn(Optional.of(transporteur));
+        when(passwordEncoder.encode("newPassword")).thenReturn("newEncodedPassword");
+        when(userRepository.saveExceptCharge(transporteur)).thenReturn(transporteur);
+        when(userMapper.toDTO(transporteur)).thenReturn(transporteurDTO);
+        
+        // Act
+        userService.updateUser("1", request);
+        
+        // Assert
+        assertEquals(1L, transporteur.getTokenVersion());
+        verify(principalCache).evict("transporteur1");
+        verify(tokenEpochRegistry).advance("1", 1L);
+        verify(loginAttemptTracker).clearFailures("transporteur1");
+    }
+    
+    @Test
+    void updateUser_OfTransporteur_ShouldLeaveTheChargeCountersToTheLedger() {
+        // Arrange
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setCapaciteColisMax(30);
+        when(userRepository.findById("1")).thenReturn(Optional.of(transporteur));
+        when(userRepository.saveExceptCharge(transporteur)).thenReturn(transporteur);
+        when(userMapper.toDTO(transporteur)).thenReturn(transporteurDTO);
+        
+        // Act
+        userService.updateUser("1", request);
+        
+        // Assert
+        assertEquals(30, transporteur.getCapaciteColisMax());
+        verify(userRepository).saveExceptCharge(transporteur);
+        verify(userRepository, never()).save(any());
+    }
+    
+    @Test
+    void updateUser_WithStaleVersion_ShouldThrowPreconditionFailedException() {
+        // Arrange
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setActive(false);
+        transporteur.setVersion(2L);
+        when(userRepository.findById("1")).thenReturn(Optional.of(transporteur));
+        
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser("1", request, 1L));
+        
+        verify(userRepository, never()).saveExceptCharge(any());
+    }
 }
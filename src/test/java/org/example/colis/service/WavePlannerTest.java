@@ -0,0 +1,86 @@
+package org.example.colis.service;
+
+import org.example.colis.enums.TypeColis;
+import org.example.colis.service.WavePlanner.PendingColis;
+import org.example.colis.service.WavePlanner.PlannedWave;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WavePlannerTest {
+    
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    
+    @Test
+    void plan_ShouldGroupByPostalCodeAndType() {
+        // Arrange
+        List<PendingColis> pending = List.of(
+                colis("c1", TypeColis.STANDARD, "75002", 1.0),
+                colis("c2", TypeColis.FRIGO, "75002", 1.0),
+                colis("c3", TypeColis.STANDARD, "69001", 1.0),
+                colis("c4", TypeColis.STANDARD, "75002", 1.0));
+        
+        // Act
+        List<PlannedWave> waves = new WavePlanner(10, 100).plan(pending);
+        
+        // Assert - sorted by zone, then type
+        assertEquals(3, waves.size());
+        assertEquals(List.of("c3"), ids(waves.get(0)));
+        assertEquals(List.of("c1", "c4"), ids(waves.get(1)));
+        assertEquals(List.of("c2"), ids(waves.get(2)));
+        assertEquals(TypeColis.FRIGO, waves.get(2).type());
+    }
+    
+    @Test
+    void plan_ShouldSplitZonesAtMaxColisAndMaxPoids() {
+        // Arrange
+        List<PendingColis> pending = List.of(
+                colis("c1", TypeColis.STANDARD, "75002", 40.0),
+                colis("c2", TypeColis.STANDARD, "75002", 40.0),
+                colis("c3", TypeColis.STANDARD, "75002", 40.0),
+                colis("c4", TypeColis.STANDARD, "75002", 1.0),
+                colis("c5", TypeColis.STANDARD, "75002", 1.0),
+                colis("c6", TypeColis.STANDARD, "75002", 1.0));
+        
+        // Act
+        List<PlannedWave> waves = new WavePlanner(3, 100).plan(pending);
+        
+        // Assert - c3 would exceed 100 kg, c6 would be a fourth colis
+        assertEquals(List.of(List.of("c1", "c2"), List.of("c3", "c4", "c5"), List.of("c6")),
+                waves.stream().map(WavePlannerTest::ids).toList());
+        assertEquals(80.0, waves.get(0).poids());
+    }
+    
+    @Test
+    void plan_AboveForkThreshold_ShouldKeepEveryColisOnceInInputOrder() {
+        // Arrange
+        int count = WavePlanner.THRESHOLD * 4 + 17;
+        List<PendingColis> pending = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pending.add(colis(String.format("c%06d", i), TypeColis.STANDARD, "7500" + (i % 3), 1.0));
+        }
+        
+        // Act
+        List<PlannedWave> waves = new WavePlanner(count, count).plan(pending);
+        
+        // Assert
+        assertEquals(3, waves.size());
+        assertEquals(count, waves.stream().mapToInt(wave -> wave.colis().size()).sum());
+        for (PlannedWave wave : waves) {
+            List<String> ids = ids(wave);
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+    }
+    
+    private static PendingColis colis(String id, TypeColis type, String codePostal, double poids) {
+        return new PendingColis(id, type, codePostal, "PARIS", poids, NOW);
+    }
+    
+    private static List<String> ids(PlannedWave wave) {
+        return wave.colis().stream().map(PendingColis::id).toList();
+    }
+}